@@ -10,8 +10,12 @@ import com.sap.broker.budgie.providers.GsonMessageBodyReader;
 import com.sap.broker.budgie.providers.GsonMessageBodyWriter;
 import com.sap.broker.budgie.providers.ServiceBrokerExceptionMapper;
 import com.sap.broker.budgie.resources.api.CatalogResource;
+import com.sap.broker.budgie.resources.api.ClockResource;
 import com.sap.broker.budgie.resources.api.ConfigurationResource;
+import com.sap.broker.budgie.resources.api.OperationsResource;
 import com.sap.broker.budgie.resources.api.ServiceInstancesResource;
+import com.sap.broker.budgie.resources.api.SnapshotResource;
+import com.sap.broker.budgie.resources.api.StatisticsResource;
 
 @ApplicationPath("/")
 public class ServiceBrokerApplication extends Application {
@@ -25,6 +29,10 @@ public class ServiceBrokerApplication extends Application {
         classes.add(GsonMessageBodyReader.class);
         classes.add(ServiceBrokerExceptionMapper.class);
         classes.add(ConfigurationResource.class);
+        classes.add(StatisticsResource.class);
+        classes.add(OperationsResource.class);
+        classes.add(ClockResource.class);
+        classes.add(SnapshotResource.class);
         return classes;
     }
 
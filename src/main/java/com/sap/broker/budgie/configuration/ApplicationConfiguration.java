@@ -18,6 +18,44 @@ import com.sap.broker.budgie.domain.Visitor;
 public class ApplicationConfiguration {
 
     static final String CFG_CATALOG = "CATALOG";
+    static final String CFG_ASYNC_POOL_SIZE = "ASYNC_POOL_SIZE";
+    static final String CFG_TIMER_TICK_DURATION = "TIMER_TICK_DURATION";
+    static final String CFG_TIMER_WHEEL_SIZE = "TIMER_WHEEL_SIZE";
+    static final String CFG_ASYNC_OPERATION_TTL = "ASYNC_OPERATION_TTL";
+    static final String CFG_ASYNC_OPERATION_MAX_ENTRIES = "ASYNC_OPERATION_MAX_ENTRIES";
+    static final String CFG_ASYNC_OPERATION_MAX_TOMBSTONES = "ASYNC_OPERATION_MAX_TOMBSTONES";
+    static final String CFG_EVENT_BUFFER_SIZE = "EVENT_BUFFER_SIZE";
+    static final String CFG_MAX_LAST_OPERATION_WAIT = "MAX_LAST_OPERATION_WAIT";
+    static final String CFG_TIME_SCALE = "TIME_SCALE";
+    static final String CFG_INSTANCE_STORE = "INSTANCE_STORE";
+    static final String CFG_INSTANCE_STORE_SLAB_SIZE = "INSTANCE_STORE_SLAB_SIZE";
+    static final String CFG_JOURNAL_DIRECTORY = "JOURNAL_DIRECTORY";
+    static final String CFG_JOURNAL_SEGMENT_SIZE = "JOURNAL_SEGMENT_SIZE";
+    static final String CFG_JOURNAL_FSYNC = "JOURNAL_FSYNC";
+    static final String CFG_JOURNAL_FSYNC_INTERVAL = "JOURNAL_FSYNC_INTERVAL";
+    static final String CFG_BULK_POOL_SIZE = "BULK_POOL_SIZE";
+    static final String CFG_BULK_MAX_PENDING = "BULK_MAX_PENDING";
+    static final String CFG_MAX_PENDING_OPERATIONS = "MAX_PENDING_OPERATIONS";
+    static final String CFG_PENDING_OPERATIONS_REJECTION_STATUS = "PENDING_OPERATIONS_REJECTION_STATUS";
+    static final String CFG_PENDING_OPERATIONS_RETRY_AFTER = "PENDING_OPERATIONS_RETRY_AFTER";
+
+    private static final int DEFAULT_TIMER_TICK_DURATION = 10;
+    private static final int DEFAULT_TIMER_WHEEL_SIZE = 512;
+    private static final int DEFAULT_ASYNC_OPERATION_TTL = 15 * 60 * 1000;
+    private static final int DEFAULT_ASYNC_OPERATION_MAX_ENTRIES = 100000;
+    private static final int DEFAULT_ASYNC_OPERATION_MAX_TOMBSTONES = 200000;
+    private static final int DEFAULT_EVENT_BUFFER_SIZE = 1024;
+    private static final int DEFAULT_MAX_LAST_OPERATION_WAIT = 60 * 1000;
+    private static final int DEFAULT_TIME_SCALE = 1;
+    private static final String DEFAULT_INSTANCE_STORE = "heap";
+    private static final int DEFAULT_INSTANCE_STORE_SLAB_SIZE = 16 * 1024 * 1024;
+    private static final int DEFAULT_JOURNAL_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final String DEFAULT_JOURNAL_FSYNC = "interval";
+    private static final int DEFAULT_JOURNAL_FSYNC_INTERVAL = 1000;
+    private static final int DEFAULT_BULK_MAX_PENDING = 4096;
+    private static final int DEFAULT_MAX_PENDING_OPERATIONS = 1000000;
+    private static final int DEFAULT_PENDING_OPERATIONS_REJECTION_STATUS = 503;
+    private static final int DEFAULT_PENDING_OPERATIONS_RETRY_AFTER = 1;
 
     private Environment environment;
     private List<Visitor> catalogVisitors;
@@ -45,6 +83,88 @@ public class ApplicationConfiguration {
         return getServices().flatMap(service -> service.getPlans().stream());
     }
 
+    public int getAsyncPoolSize() {
+        return environment.getIntegerVariable(CFG_ASYNC_POOL_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getTimerTickDuration() {
+        return environment.getIntegerVariable(CFG_TIMER_TICK_DURATION, DEFAULT_TIMER_TICK_DURATION);
+    }
+
+    public int getTimerWheelSize() {
+        return environment.getIntegerVariable(CFG_TIMER_WHEEL_SIZE, DEFAULT_TIMER_WHEEL_SIZE);
+    }
+
+    public int getAsyncOperationTimeToLive() {
+        return environment.getIntegerVariable(CFG_ASYNC_OPERATION_TTL, DEFAULT_ASYNC_OPERATION_TTL);
+    }
+
+    public int getAsyncOperationMaxEntries() {
+        return environment.getIntegerVariable(CFG_ASYNC_OPERATION_MAX_ENTRIES, DEFAULT_ASYNC_OPERATION_MAX_ENTRIES);
+    }
+
+    public int getAsyncOperationMaxTombstones() {
+        return environment.getIntegerVariable(CFG_ASYNC_OPERATION_MAX_TOMBSTONES, DEFAULT_ASYNC_OPERATION_MAX_TOMBSTONES);
+    }
+
+    public int getEventBufferSize() {
+        return environment.getIntegerVariable(CFG_EVENT_BUFFER_SIZE, DEFAULT_EVENT_BUFFER_SIZE);
+    }
+
+    public int getMaxLastOperationWait() {
+        return environment.getIntegerVariable(CFG_MAX_LAST_OPERATION_WAIT, DEFAULT_MAX_LAST_OPERATION_WAIT);
+    }
+
+    public int getTimeScale() {
+        return environment.getIntegerVariable(CFG_TIME_SCALE, DEFAULT_TIME_SCALE);
+    }
+
+    public String getInstanceStore() {
+        String instanceStore = environment.getVariable(CFG_INSTANCE_STORE);
+        return instanceStore != null ? instanceStore.trim() : DEFAULT_INSTANCE_STORE;
+    }
+
+    public int getInstanceStoreSlabSize() {
+        return environment.getIntegerVariable(CFG_INSTANCE_STORE_SLAB_SIZE, DEFAULT_INSTANCE_STORE_SLAB_SIZE);
+    }
+
+    public String getJournalDirectory() {
+        return environment.getVariable(CFG_JOURNAL_DIRECTORY);
+    }
+
+    public int getJournalSegmentSize() {
+        return environment.getIntegerVariable(CFG_JOURNAL_SEGMENT_SIZE, DEFAULT_JOURNAL_SEGMENT_SIZE);
+    }
+
+    public String getJournalFsync() {
+        String journalFsync = environment.getVariable(CFG_JOURNAL_FSYNC);
+        return journalFsync != null ? journalFsync.trim() : DEFAULT_JOURNAL_FSYNC;
+    }
+
+    public int getJournalFsyncInterval() {
+        return environment.getIntegerVariable(CFG_JOURNAL_FSYNC_INTERVAL, DEFAULT_JOURNAL_FSYNC_INTERVAL);
+    }
+
+    public int getBulkPoolSize() {
+        return environment.getIntegerVariable(CFG_BULK_POOL_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getBulkMaxPending() {
+        return environment.getIntegerVariable(CFG_BULK_MAX_PENDING, DEFAULT_BULK_MAX_PENDING);
+    }
+
+    public int getMaxPendingOperations() {
+        return environment.getIntegerVariable(CFG_MAX_PENDING_OPERATIONS, DEFAULT_MAX_PENDING_OPERATIONS);
+    }
+
+    public int getPendingOperationsRejectionStatus() {
+        return environment.getIntegerVariable(CFG_PENDING_OPERATIONS_REJECTION_STATUS, DEFAULT_PENDING_OPERATIONS_REJECTION_STATUS);
+    }
+
+    public int getPendingOperationsRetryAfter() {
+        return environment.getIntegerVariable(CFG_PENDING_OPERATIONS_RETRY_AFTER, DEFAULT_PENDING_OPERATIONS_RETRY_AFTER);
+    }
+
     private Catalog getCatalogFromEnvironment() {
         Catalog catalog = environment.getJsonVariable(CFG_CATALOG, Catalog.class);
         if (catalog == null) {
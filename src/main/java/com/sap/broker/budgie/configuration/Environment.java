@@ -25,4 +25,9 @@ public class Environment {
         return json == null ? null : gson.fromJson(json, classOfT);
     }
 
+    public int getIntegerVariable(String name, int defaultValue) {
+        String value = getVariable(name);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
 }
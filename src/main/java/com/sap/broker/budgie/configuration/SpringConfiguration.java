@@ -1,5 +1,6 @@
 package com.sap.broker.budgie.configuration;
 
+import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.List;
 
@@ -12,6 +13,9 @@ import com.sap.broker.budgie.SpringComponentScanMarker;
 import com.sap.broker.budgie.domain.Visitor;
 import com.sap.broker.budgie.helpers.CatalogValidatingVisitor;
 import com.sap.broker.budgie.helpers.GuidInsertingVisitor;
+import com.sap.broker.budgie.impl.HeapServiceInstanceStore;
+import com.sap.broker.budgie.impl.OffHeapServiceInstanceStore;
+import com.sap.broker.budgie.impl.ServiceInstanceStore;
 
 @Configuration
 @ComponentScan(basePackageClasses = SpringComponentScanMarker.class)
@@ -22,6 +26,18 @@ public class SpringConfiguration {
         return new Gson();
     }
 
+    @Bean
+    public ServiceInstanceStore serviceInstanceStore(ApplicationConfiguration configuration, Gson gson) {
+        switch (configuration.getInstanceStore()) {
+            case "heap":
+                return new HeapServiceInstanceStore();
+            case "off-heap":
+                return new OffHeapServiceInstanceStore(gson, configuration.getInstanceStoreSlabSize());
+            default:
+                throw new IllegalStateException(MessageFormat.format("Unknown service instance store \"{0}\"!", configuration.getInstanceStore()));
+        }
+    }
+
     @Bean
     public List<Visitor> catalogVisitors() {
         return Arrays.asList(new CatalogValidatingVisitor(), new GuidInsertingVisitor());
@@ -0,0 +1,44 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+public class AdmissionConfiguration {
+
+    private Integer maxPendingOperations;
+    private Integer status;
+    private Integer retryAfter;
+
+    public AdmissionConfiguration() {
+    }
+
+    public AdmissionConfiguration(AdmissionConfiguration other) {
+        this.maxPendingOperations = other.maxPendingOperations;
+        this.status = other.status;
+        this.retryAfter = other.retryAfter;
+    }
+
+    public Integer getMaxPendingOperations() {
+        return maxPendingOperations;
+    }
+
+    public AdmissionConfiguration setMaxPendingOperations(Integer maxPendingOperations) {
+        this.maxPendingOperations = maxPendingOperations;
+        return this;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public AdmissionConfiguration setStatus(Integer status) {
+        this.status = status;
+        return this;
+    }
+
+    public Integer getRetryAfter() {
+        return retryAfter;
+    }
+
+    public AdmissionConfiguration setRetryAfter(Integer retryAfter) {
+        this.retryAfter = retryAfter;
+        return this;
+    }
+}
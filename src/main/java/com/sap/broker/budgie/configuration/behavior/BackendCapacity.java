@@ -0,0 +1,140 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import com.sap.broker.budgie.domain.CapacityStatistics;
+import com.sap.broker.budgie.helpers.BrokerClock;
+
+// Simulates a backend with a limited number of slots for asynchronous operations. An operation, which finds all slots
+// taken, waits in a queue until one is released, so its duration only starts to pass once it has a slot. The queue is
+// served in arrival order, unless a priority order of operation types is configured. Operations of the same priority
+// are always served in arrival order.
+public final class BackendCapacity {
+
+    // Used for configurations without a capacity. Operations start at once and no statistics are kept.
+    static final BackendCapacity UNLIMITED = new BackendCapacity(null);
+
+    private final CapacityConfiguration configuration;
+    private final int maxConcurrentOperations;
+    private final int maxQueueLength;
+    // Indexed by the ordinal of the operation type. Lower values are served first.
+    private final int[] priorities;
+    private final Queue<QueuedOperation> queue;
+
+    // Guarded by this
+    private int inFlightCount;
+    private long sequence;
+    private long startedCount;
+    private long queuedCount;
+    private long rejectedCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    private BackendCapacity(CapacityConfiguration configuration) {
+        this.configuration = configuration;
+        this.maxConcurrentOperations = configuration != null ? configuration.getMaxConcurrentOperations() : Integer.MAX_VALUE;
+        this.maxQueueLength = configuration != null && configuration.getMaxQueueLength() != null ? configuration.getMaxQueueLength()
+            : Integer.MAX_VALUE;
+        this.priorities = toPriorities(configuration != null ? configuration.getPriorityOrder() : null);
+        this.queue = new PriorityQueue<>(Comparator.comparingInt((QueuedOperation operation) -> operation.priority)
+            .thenComparingLong(operation -> operation.sequence));
+    }
+
+    static BackendCapacity create(CapacityConfiguration configuration) {
+        return configuration != null ? new BackendCapacity(configuration) : UNLIMITED;
+    }
+
+    public boolean isUnlimited() {
+        return configuration == null;
+    }
+
+    // Runs start at once, if a slot is free, or queues it otherwise. Returns false without running or queueing start, if
+    // the queue is full. Every started operation has to release its slot once it has completed.
+    public boolean submit(FailConfiguration.OperationType operationType, Runnable start, BrokerClock clock) {
+        if (configuration == null) {
+            start.run();
+            return true;
+        }
+        synchronized (this) {
+            if (inFlightCount >= maxConcurrentOperations) {
+                if (queue.size() >= maxQueueLength) {
+                    rejectedCount++;
+                    return false;
+                }
+                queue.add(new QueuedOperation(priorities[operationType.ordinal()], sequence++, clock.nanoTime(), start));
+                queuedCount++;
+                return true;
+            }
+            inFlightCount++;
+            startedCount++;
+        }
+        start.run();
+        return true;
+    }
+
+    // The slot is handed over to the next queued operation, if there is one
+    public void release(BrokerClock clock) {
+        if (configuration == null) {
+            return;
+        }
+        QueuedOperation next;
+        synchronized (this) {
+            next = queue.poll();
+            if (next == null) {
+                inFlightCount--;
+                return;
+            }
+            long waitNanos = clock.nanoTime() - next.queuedAt;
+            startedCount++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        }
+        next.start.run();
+    }
+
+    // Null for configurations without a capacity
+    public synchronized CapacityStatistics getStatistics() {
+        if (configuration == null) {
+            return null;
+        }
+        long meanWaitNanos = startedCount > 0 ? totalWaitNanos / startedCount : 0;
+        return new CapacityStatistics(maxConcurrentOperations, inFlightCount, queue.size(), startedCount, queuedCount, rejectedCount,
+            TimeUnit.NANOSECONDS.toMillis(meanWaitNanos), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+    }
+
+    // Operation types, which are not in the priority order, are served after all others
+    private static int[] toPriorities(List<FailConfiguration.OperationType> priorityOrder) {
+        int[] priorities = new int[FailConfiguration.OperationType.values().length];
+        if (priorityOrder == null) {
+            return priorities;
+        }
+        Arrays.fill(priorities, priorityOrder.size());
+        for (int i = priorityOrder.size() - 1; i >= 0; i--) {
+            priorities[priorityOrder.get(i)
+                .ordinal()] = i;
+        }
+        return priorities;
+    }
+
+    private static final class QueuedOperation {
+
+        private final int priority;
+        private final long sequence;
+        private final long queuedAt;
+        private final Runnable start;
+
+        QueuedOperation(int priority, long sequence, long queuedAt, Runnable start) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.queuedAt = queuedAt;
+            this.start = start;
+        }
+
+    }
+
+}
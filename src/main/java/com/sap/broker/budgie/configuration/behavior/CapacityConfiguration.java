@@ -0,0 +1,47 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CapacityConfiguration {
+
+    private Integer maxConcurrentOperations;
+    private Integer maxQueueLength;
+    private List<FailConfiguration.OperationType> priorityOrder;
+
+    public CapacityConfiguration() {
+    }
+
+    public CapacityConfiguration(CapacityConfiguration other) {
+        this.maxConcurrentOperations = other.maxConcurrentOperations;
+        this.maxQueueLength = other.maxQueueLength;
+        this.priorityOrder = other.priorityOrder != null ? new ArrayList<>(other.priorityOrder) : null;
+    }
+
+    public Integer getMaxConcurrentOperations() {
+        return maxConcurrentOperations;
+    }
+
+    public CapacityConfiguration setMaxConcurrentOperations(Integer maxConcurrentOperations) {
+        this.maxConcurrentOperations = maxConcurrentOperations;
+        return this;
+    }
+
+    public Integer getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    public CapacityConfiguration setMaxQueueLength(Integer maxQueueLength) {
+        this.maxQueueLength = maxQueueLength;
+        return this;
+    }
+
+    public List<FailConfiguration.OperationType> getPriorityOrder() {
+        return priorityOrder;
+    }
+
+    public CapacityConfiguration setPriorityOrder(List<FailConfiguration.OperationType> priorityOrder) {
+        this.priorityOrder = priorityOrder;
+        return this;
+    }
+}
@@ -1,150 +1,118 @@
 package com.sap.broker.budgie.configuration.behavior;
 
 import com.sap.broker.budgie.configuration.ApplicationConfiguration;
-import com.sap.broker.budgie.domain.Plan;
-import com.sap.broker.budgie.domain.Service;
 import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.impl.Journal;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.BiPredicate;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class ConfigurationManager {
 
     private ApplicationConfiguration appConfiguration;
+    private Journal journal;
+    private final AtomicLong versions = new AtomicLong();
+    // Guards all changes. Reads take no lock.
+    private final Object lock = new Object();
 
-    private Map<String, ServiceBrokerConfiguration> configurations = new ConcurrentHashMap<>();
+    private volatile Map<String, ConfigurationSnapshot> configurations = new ConcurrentHashMap<>();
 
     @Inject
-    public ConfigurationManager(ApplicationConfiguration configuration) {
+    public ConfigurationManager(ApplicationConfiguration configuration, Journal journal) {
         this.appConfiguration = configuration;
+        this.journal = journal;
     }
 
-    public void addConfiguration(String id, ServiceBrokerConfiguration configuration) {
-        configurations.put(id, configuration);
+    // Changes are journaled while the lock is held, so that they are journaled in the order they are made. A change,
+    // which cannot be journaled, is not made.
+    public ConfigurationSnapshot addConfiguration(String id, ServiceBrokerConfiguration configuration) {
+        ConfigurationSnapshot snapshot = compile(configuration);
+        synchronized (lock) {
+            journal.appendConfiguration(id, configuration);
+            configurations.put(id, snapshot);
+        }
+        return snapshot;
     }
 
     public ServiceBrokerConfiguration removeConfiguration(String id) {
-        return configurations.remove(id);
-    }
-
-    public ServiceBrokerConfiguration getConfiguration(String id) {
-        return configurations.get(id);
-    }
-
-    public Map<String, ServiceBrokerConfiguration> getConfigurations() {
-        return Collections.unmodifiableMap(configurations);
-    }
-
-    public Integer getDuration(String id) {
-        ServiceBrokerConfiguration configuration = getConfiguration(id);
-        if (isAsync(id)) {
-            return configuration.getAsyncDuration();
-        }
-        if (configuration != null && configuration.getSyncDuration() != null) {
-            return configuration.getSyncDuration();
+        synchronized (lock) {
+            if (!configurations.containsKey(id)) {
+                return null;
+            }
+            journal.appendConfigurationRemoval(id);
+            return configurations.remove(id)
+                .getConfiguration();
         }
-        return 0;
     }
 
-    public boolean isAsync(String id) {
-        ServiceBrokerConfiguration configuration = getConfiguration(id);
-        return configuration != null && configuration.getAsyncDuration() != null;
-    }
-
-    public boolean isSync(String id) {
-        return !isAsync(id);
+    // The action runs while the lock is held, before the configurations are compiled, so that it can journal the
+    // replacement and change the catalog, against which the names in the configurations are resolved
+    public void replaceAll(Map<String, ServiceBrokerConfiguration> configurations, Runnable action) {
+        synchronized (lock) {
+            action.run();
+            Map<String, ConfigurationSnapshot> snapshots = new ConcurrentHashMap<>();
+            configurations.forEach((id, configuration) -> snapshots.put(id, compile(configuration)));
+            this.configurations = snapshots;
+        }
     }
 
-    public Optional<Integer> shouldOperationFail(String id, FailConfiguration.OperationType operationType, ServiceInstance serviceInstance) {
-        ServiceBrokerConfiguration configuration = getConfiguration(id);
-        if (configuration == null || configuration.getFailConfigurations() == null) {
-            return Optional.empty();
+    // Names in fail configurations are resolved when a configuration is added, so they have to be resolved again once
+    // the catalog has changed
+    public void onCatalogChange() {
+        synchronized (lock) {
+            configurations.replaceAll((id, snapshot) -> snapshot.getFailConfigurationMatcher()
+                .dependsOnCatalog() ? snapshot.withFailConfigurationMatcher(versions.incrementAndGet(),
+                    FailConfigurationMatcher.compile(snapshot.getConfiguration()
+                        .getFailConfigurations(), appConfiguration)) : snapshot);
         }
-        return configuration.getFailConfigurations().stream()
-            .filter(failConfig -> operationType.equals(failConfig.getOperationType()))
-            .filter(failConfig -> failAll().or(byInstanceId()
-            .and(byPlanId())
-            .and(byServiceId())
-            .and(byPlanName())
-            .and(byServiceName()))
-            .test(serviceInstance, failConfig))
-            .map(FailConfiguration::getStatus).findFirst();
     }
 
-    private BiPredicate<ServiceInstance, FailConfiguration> failAll() {
-        return (serviceInstance, failConfiguration) -> failConfiguration.getFailAll() != null ? failConfiguration.getFailAll() : false;
+    // Never null. Configuration ids, which have not been configured, have a default snapshot.
+    public ConfigurationSnapshot getSnapshot(String id) {
+        ConfigurationSnapshot snapshot = configurations.get(id);
+        return snapshot != null ? snapshot : ConfigurationSnapshot.DEFAULT;
     }
 
-    private BiPredicate<ServiceInstance, FailConfiguration> byInstanceId() {
-        return (serviceInstance, failConfig) -> {
-            if (failConfig.getInstanceIds() == null) {
-                return true;
-            }
-            return failConfig.getInstanceIds().stream()
-                .anyMatch(id -> id.equals(serviceInstance.getId()));
-        };
+    public ServiceBrokerConfiguration getConfiguration(String id) {
+        return getSnapshot(id).getConfiguration();
     }
 
-    private BiPredicate<ServiceInstance, FailConfiguration> byPlanId() {
-        return (serviceInstance, failConfig) -> {
-            if (failConfig.getPlanIds() == null) {
-                return true;
-            }
-            return failConfig.getPlanIds().stream()
-                .anyMatch(id -> id.equals(serviceInstance.getPlanId()));
-        };
+    public Map<String, ServiceBrokerConfiguration> getConfigurations() {
+        Map<String, ServiceBrokerConfiguration> result = new HashMap<>();
+        configurations.forEach((id, snapshot) -> result.put(id, snapshot.getConfiguration()));
+        return Collections.unmodifiableMap(result);
     }
 
-    private BiPredicate<ServiceInstance, FailConfiguration> byPlanName() {
-        return (serviceInstance, failConfig) -> {
-            if (failConfig.getPlanNames() == null) {
-                return true;
-            }
-            return failConfig.getPlanNames()
-                .stream()
-                .map(this::getPlanByName)
-                .filter(Optional::isPresent)
-                .map(planOptional -> planOptional.get().getId())
-                .anyMatch(id -> id.equals(serviceInstance.getPlanId()));
-        };
+    // The following look up the current snapshot on every call. Requests, which take several decisions, resolve the
+    // snapshot once instead.
+    public Integer getDuration(String id) {
+        return getSnapshot(id).getDuration();
     }
 
-    private BiPredicate<ServiceInstance, FailConfiguration> byServiceId() {
-        return (serviceInstance, failConfig) -> {
-            if (failConfig.getServiceIds() == null) {
-                return true;
-            }
-            return failConfig.getServiceIds()
-                .stream()
-                .anyMatch(id -> id.equals(serviceInstance.getServiceId()));
-        };
+    public boolean isAsync(String id) {
+        return getSnapshot(id).isAsync();
     }
 
-    private BiPredicate<ServiceInstance, FailConfiguration> byServiceName() {
-        return (serviceInstance, failConfig) -> {
-            if (failConfig.getServiceNames() == null) {
-                return true;
-            }
-            return failConfig.getServiceNames()
-                .stream()
-                .map(this::getServiceByName)
-                .filter(Optional::isPresent)
-                .map(serviceOptional -> serviceOptional.get().getId())
-                .anyMatch(id -> id.equals(serviceInstance.getServiceId()));
-        };
+    public boolean isSync(String id) {
+        return !isAsync(id);
     }
 
-    private Optional<Service> getServiceByName(String name) {
-        return appConfiguration.getServices().filter(service -> service.getName().equals(name)).findFirst();
+    public Optional<Integer> shouldOperationFail(String id, FailConfiguration.OperationType operationType, ServiceInstance serviceInstance) {
+        return getSnapshot(id).shouldOperationFail(operationType, serviceInstance);
     }
 
-    private Optional<Plan> getPlanByName(String name) {
-        return appConfiguration.getPlans().filter(plan -> plan.getName().equals(name)).findFirst();
+    // The configuration is copied, so that the snapshot cannot be changed through the object it has been created from
+    private ConfigurationSnapshot compile(ServiceBrokerConfiguration configuration) {
+        ServiceBrokerConfiguration copy = new ServiceBrokerConfiguration(configuration);
+        return new ConfigurationSnapshot(versions.incrementAndGet(), copy,
+            FailConfigurationMatcher.compile(copy.getFailConfigurations(), appConfiguration), RateLimiter.compile(copy.getRateLimits()),
+            BackendCapacity.create(copy.getCapacity()));
     }
 }
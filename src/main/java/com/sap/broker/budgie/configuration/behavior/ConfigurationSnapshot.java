@@ -0,0 +1,98 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.helpers.AdmissionLimit;
+import com.sap.broker.budgie.helpers.BrokerClock;
+
+// An immutable version of a broker configuration. A request resolves it once and bases all of its decisions on it, so a
+// concurrent reconfiguration can never give it a mixed view. Setting a configuration replaces its snapshot at once.
+public final class ConfigurationSnapshot {
+
+    // Used for configuration ids, which have not been configured. Operations are then synchronous, unlimited and never fail.
+    static final ConfigurationSnapshot DEFAULT = new ConfigurationSnapshot(0, null, FailConfigurationMatcher.EMPTY, RateLimiter.UNLIMITED,
+        BackendCapacity.UNLIMITED);
+
+    private final long version;
+    // A copy, which is neither changed nor handed out for changing
+    private final ServiceBrokerConfiguration configuration;
+    private final boolean async;
+    private final LatencyProfile latency;
+    private final int duration;
+    private final AdmissionLimit admissionLimit;
+    private final FailConfigurationMatcher failConfigurationMatcher;
+    // The only mutable parts. Setting a configuration starts with full buckets and an idle backend, while the operations
+    // of the previous one complete on its backend.
+    private final RateLimiter rateLimiter;
+    private final BackendCapacity capacity;
+
+    ConfigurationSnapshot(long version, ServiceBrokerConfiguration configuration, FailConfigurationMatcher failConfigurationMatcher,
+        RateLimiter rateLimiter, BackendCapacity capacity) {
+        this.version = version;
+        this.configuration = configuration;
+        this.async = configuration != null && (configuration.getAsyncDuration() != null || configuration.getAsyncLatency() != null);
+        this.latency = configuration == null ? null : async ? configuration.getAsyncLatency() : configuration.getSyncLatency();
+        Integer fixedDuration = configuration == null ? null : async ? configuration.getAsyncDuration() : configuration.getSyncDuration();
+        this.duration = fixedDuration != null ? fixedDuration : 0;
+        this.admissionLimit = configuration != null ? toAdmissionLimit(configuration.getAdmission()) : null;
+        this.failConfigurationMatcher = failConfigurationMatcher;
+        this.rateLimiter = rateLimiter;
+        this.capacity = capacity;
+    }
+
+    // Keeps the state of the rate limits and the backend, as the configuration itself has not changed
+    ConfigurationSnapshot withFailConfigurationMatcher(long version, FailConfigurationMatcher failConfigurationMatcher) {
+        return new ConfigurationSnapshot(version, configuration, failConfigurationMatcher, rateLimiter, capacity);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Null for a configuration id, which has not been configured
+    public ServiceBrokerConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    // Sampled anew on every call, if the configuration has a latency profile
+    public int getDuration() {
+        return latency != null ? latency.sample(ThreadLocalRandom.current()) : duration;
+    }
+
+    public Optional<Integer> shouldOperationFail(FailConfiguration.OperationType operationType, ServiceInstance serviceInstance) {
+        return failConfigurationMatcher.match(operationType, serviceInstance);
+    }
+
+    // Returns 0, if the operation is within the rate limits. Otherwise the broker clock nanoseconds, after which it would be.
+    public long tryAcquire(FailConfiguration.OperationType operationType, BrokerClock clock) {
+        return rateLimiter.tryAcquire(operationType, clock);
+    }
+
+    public BackendCapacity getCapacity() {
+        return capacity;
+    }
+
+    // Null, if the configuration does not limit its pending operations
+    public AdmissionLimit getAdmissionLimit() {
+        return admissionLimit;
+    }
+
+    FailConfigurationMatcher getFailConfigurationMatcher() {
+        return failConfigurationMatcher;
+    }
+
+    private static AdmissionLimit toAdmissionLimit(AdmissionConfiguration admission) {
+        if (admission == null) {
+            return null;
+        }
+        return new AdmissionLimit(admission.getMaxPendingOperations(), admission.getStatus() != null ? admission.getStatus() : 503,
+            admission.getRetryAfter() != null ? admission.getRetryAfter() : 1);
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.domain.Plan;
+import com.sap.broker.budgie.domain.Service;
+import com.sap.broker.budgie.domain.ServiceInstance;
+
+// The fail configurations of a broker configuration compiled once, so that matching an operation neither scans lists nor
+// the catalog and allocates nothing. Names are resolved to ids, ids are kept in hash sets and the rules are grouped by
+// operation type. As before, a name stands for the first service or plan with that name in the catalog, and a rule matches
+// if all of its criteria match.
+final class FailConfigurationMatcher {
+
+    // Declared first, as it is needed to create the empty matcher
+    private static final Rule[] NO_RULES = new Rule[0];
+
+    static final FailConfigurationMatcher EMPTY = new FailConfigurationMatcher(new Rule[FailConfiguration.OperationType.values().length][]);
+
+    private final Rule[][] rulesByOperationType;
+
+    private FailConfigurationMatcher(Rule[][] rulesByOperationType) {
+        this.rulesByOperationType = rulesByOperationType;
+        for (int i = 0; i < rulesByOperationType.length; i++) {
+            if (rulesByOperationType[i] == null) {
+                rulesByOperationType[i] = NO_RULES;
+            }
+        }
+    }
+
+    static FailConfigurationMatcher compile(List<FailConfiguration> failConfigurations, ApplicationConfiguration appConfiguration) {
+        if (failConfigurations == null || failConfigurations.isEmpty()) {
+            return EMPTY;
+        }
+        Names<Service> services = new Names<>(() -> appConfiguration.getServices(), Service::getName, Service::getId);
+        Names<Plan> plans = new Names<>(() -> appConfiguration.getPlans(), Plan::getName, Plan::getId);
+        List<List<Rule>> rules = new ArrayList<>();
+        for (int i = 0; i < FailConfiguration.OperationType.values().length; i++) {
+            rules.add(new ArrayList<>());
+        }
+        for (FailConfiguration failConfiguration : failConfigurations) {
+            if (failConfiguration.getOperationType() != null) {
+                rules.get(failConfiguration.getOperationType()
+                    .ordinal())
+                    .add(new Rule(failConfiguration, services, plans));
+            }
+        }
+        Rule[][] rulesByOperationType = new Rule[rules.size()][];
+        for (int i = 0; i < rulesByOperationType.length; i++) {
+            rulesByOperationType[i] = rules.get(i)
+                .toArray(NO_RULES);
+        }
+        return new FailConfigurationMatcher(rulesByOperationType);
+    }
+
+    // Returns the status of the first matching rule
+    Optional<Integer> match(FailConfiguration.OperationType operationType, ServiceInstance serviceInstance) {
+        for (Rule rule : rulesByOperationType[operationType.ordinal()]) {
+            if (rule.matches(serviceInstance)) {
+                return rule.status;
+            }
+        }
+        return Optional.empty();
+    }
+
+    boolean dependsOnCatalog() {
+        for (Rule[] rules : rulesByOperationType) {
+            for (Rule rule : rules) {
+                if (rule.planIdsByName != null || rule.serviceIdsByName != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class Rule {
+
+        private final boolean failAll;
+        // Null sets match every instance
+        private final Set<UUID> instanceIds;
+        private final Set<UUID> planIds;
+        private final Set<UUID> planIdsByName;
+        private final Set<UUID> serviceIds;
+        private final Set<UUID> serviceIdsByName;
+        // Created once, so that a match does not box the status
+        private final Optional<Integer> status;
+
+        Rule(FailConfiguration failConfiguration, Names<Service> services, Names<Plan> plans) {
+            this.failAll = Boolean.TRUE.equals(failConfiguration.getFailAll());
+            this.instanceIds = toSet(failConfiguration.getInstanceIds());
+            this.planIds = toSet(failConfiguration.getPlanIds());
+            this.planIdsByName = plans.resolve(failConfiguration.getPlanNames());
+            this.serviceIds = toSet(failConfiguration.getServiceIds());
+            this.serviceIdsByName = services.resolve(failConfiguration.getServiceNames());
+            this.status = Optional.ofNullable(failConfiguration.getStatus());
+        }
+
+        boolean matches(ServiceInstance serviceInstance) {
+            if (failAll) {
+                return true;
+            }
+            return contains(instanceIds, serviceInstance.getId()) && contains(planIds, serviceInstance.getPlanId())
+                && contains(serviceIds, serviceInstance.getServiceId()) && contains(planIdsByName, serviceInstance.getPlanId())
+                && contains(serviceIdsByName, serviceInstance.getServiceId());
+        }
+
+        private static boolean contains(Set<UUID> ids, UUID id) {
+            return ids == null || ids.contains(id);
+        }
+
+        private static Set<UUID> toSet(Collection<UUID> ids) {
+            return ids != null ? new HashSet<>(ids) : null;
+        }
+
+    }
+
+    // Looks up the catalog only if a rule refers to a name, and only once for all rules
+    private static final class Names<T> {
+
+        private final Supplier<Stream<T>> catalog;
+        private final Function<T, String> name;
+        private final Function<T, UUID> id;
+        private Map<String, UUID> ids;
+
+        Names(Supplier<Stream<T>> catalog, Function<T, String> name, Function<T, UUID> id) {
+            this.catalog = catalog;
+            this.name = name;
+            this.id = id;
+        }
+
+        Set<UUID> resolve(List<String> names) {
+            if (names == null) {
+                return null;
+            }
+            if (ids == null) {
+                ids = new HashMap<>();
+                catalog.get()
+                    .forEach(element -> ids.putIfAbsent(name.apply(element), id.apply(element)));
+            }
+            Set<UUID> resolvedIds = new HashSet<>();
+            for (String resolvedName : names) {
+                UUID resolvedId = ids.get(resolvedName);
+                if (resolvedId != null) {
+                    resolvedIds.add(resolvedId);
+                }
+            }
+            return resolvedIds;
+        }
+
+    }
+
+}
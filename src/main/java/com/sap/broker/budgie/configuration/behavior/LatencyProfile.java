@@ -0,0 +1,178 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Random;
+
+public class LatencyProfile {
+
+    // Standard normal quantiles used to derive the log-normal shape from the 50th and 99th percentiles
+    private static final double Z_99 = 2.3263478740408408;
+
+    private Distribution distribution;
+    private Integer value;
+    private Integer min;
+    private Integer max;
+    private Integer mean;
+    private Integer standardDeviation;
+    private Integer p50;
+    private Integer p90;
+    private Integer p99;
+
+    public LatencyProfile() {
+    }
+
+    public LatencyProfile(LatencyProfile other) {
+        this.distribution = other.distribution;
+        this.value = other.value;
+        this.min = other.min;
+        this.max = other.max;
+        this.mean = other.mean;
+        this.standardDeviation = other.standardDeviation;
+        this.p50 = other.p50;
+        this.p90 = other.p90;
+        this.p99 = other.p99;
+    }
+
+    public Distribution getDistribution() {
+        return distribution;
+    }
+
+    public LatencyProfile setDistribution(Distribution distribution) {
+        this.distribution = distribution;
+        return this;
+    }
+
+    public Integer getValue() {
+        return value;
+    }
+
+    public LatencyProfile setValue(Integer value) {
+        this.value = value;
+        return this;
+    }
+
+    public Integer getMin() {
+        return min;
+    }
+
+    public LatencyProfile setMin(Integer min) {
+        this.min = min;
+        return this;
+    }
+
+    public Integer getMax() {
+        return max;
+    }
+
+    public LatencyProfile setMax(Integer max) {
+        this.max = max;
+        return this;
+    }
+
+    public Integer getMean() {
+        return mean;
+    }
+
+    public LatencyProfile setMean(Integer mean) {
+        this.mean = mean;
+        return this;
+    }
+
+    public Integer getStandardDeviation() {
+        return standardDeviation;
+    }
+
+    public LatencyProfile setStandardDeviation(Integer standardDeviation) {
+        this.standardDeviation = standardDeviation;
+        return this;
+    }
+
+    public Integer getP50() {
+        return p50;
+    }
+
+    public LatencyProfile setP50(Integer p50) {
+        this.p50 = p50;
+        return this;
+    }
+
+    public Integer getP90() {
+        return p90;
+    }
+
+    public LatencyProfile setP90(Integer p90) {
+        this.p90 = p90;
+        return this;
+    }
+
+    public Integer getP99() {
+        return p99;
+    }
+
+    public LatencyProfile setP99(Integer p99) {
+        this.p99 = p99;
+        return this;
+    }
+
+    public int sample(Random random) {
+        switch (distribution) {
+            case CONSTANT:
+                return value;
+            case UNIFORM:
+                return min + (int) (random.nextDouble() * (max - min + 1L));
+            case NORMAL:
+                return clamp(Math.round(mean + random.nextGaussian() * standardDeviation));
+            case LOG_NORMAL:
+                double sigma = (Math.log(p99) - Math.log(p50)) / Z_99;
+                return clamp(Math.round(p50 * Math.exp(random.nextGaussian() * sigma)));
+            case HISTOGRAM:
+                return sampleHistogram(random.nextDouble());
+            default:
+                throw new IllegalStateException("Unsupported latency distribution: " + distribution);
+        }
+    }
+
+    private int sampleHistogram(double quantile) {
+        int lowerBound = min != null ? min : 0;
+        int upperBound = max != null ? max : p99;
+        if (quantile < 0.5) {
+            return interpolate(quantile, 0, lowerBound, 0.5, p50);
+        }
+        if (quantile < 0.9) {
+            return interpolate(quantile, 0.5, p50, 0.9, p90);
+        }
+        if (quantile < 0.99) {
+            return interpolate(quantile, 0.9, p90, 0.99, p99);
+        }
+        return interpolate(quantile, 0.99, p99, 1, upperBound);
+    }
+
+    private static int interpolate(double quantile, double fromQuantile, int fromValue, double toQuantile, int toValue) {
+        return (int) Math.round(fromValue + (toValue - fromValue) * (quantile - fromQuantile) / (toQuantile - fromQuantile));
+    }
+
+    private int clamp(long duration) {
+        long lowerBound = min != null ? min : 0;
+        long upperBound = max != null ? max : Integer.MAX_VALUE;
+        return (int) Math.min(Math.max(duration, lowerBound), upperBound);
+    }
+
+    public enum Distribution {
+
+        @SerializedName("constant")
+        CONSTANT,
+
+        @SerializedName("uniform")
+        UNIFORM,
+
+        @SerializedName("normal")
+        NORMAL,
+
+        @SerializedName("log-normal")
+        LOG_NORMAL,
+
+        @SerializedName("histogram")
+        HISTOGRAM
+    }
+}
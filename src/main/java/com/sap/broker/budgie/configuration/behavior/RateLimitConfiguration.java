@@ -0,0 +1,35 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+public class RateLimitConfiguration {
+
+    private Double requestsPerSecond;
+    private Integer burst;
+    private FailConfiguration.OperationType operationType;
+
+    public Double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public RateLimitConfiguration setRequestsPerSecond(Double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+        return this;
+    }
+
+    public Integer getBurst() {
+        return burst;
+    }
+
+    public RateLimitConfiguration setBurst(Integer burst) {
+        this.burst = burst;
+        return this;
+    }
+
+    public FailConfiguration.OperationType getOperationType() {
+        return operationType;
+    }
+
+    public RateLimitConfiguration setOperationType(FailConfiguration.OperationType operationType) {
+        this.operationType = operationType;
+        return this;
+    }
+}
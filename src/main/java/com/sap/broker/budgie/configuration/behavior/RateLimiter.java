@@ -0,0 +1,116 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sap.broker.budgie.helpers.BrokerClock;
+
+// The rate limits of a broker configuration compiled into token buckets, grouped by operation type. A rule without an
+// operation type is a single bucket shared by all of them. The buckets are lock free, so request threads never block on
+// each other and an operation without rate limits does not even read the clock.
+final class RateLimiter {
+
+    // Declared first, as it is needed to create the unlimited rate limiter
+    private static final Bucket[] NO_BUCKETS = new Bucket[0];
+
+    static final RateLimiter UNLIMITED = new RateLimiter(new Bucket[FailConfiguration.OperationType.values().length][]);
+
+    private final Bucket[][] bucketsByOperationType;
+
+    private RateLimiter(Bucket[][] bucketsByOperationType) {
+        this.bucketsByOperationType = bucketsByOperationType;
+        for (int i = 0; i < bucketsByOperationType.length; i++) {
+            if (bucketsByOperationType[i] == null) {
+                bucketsByOperationType[i] = NO_BUCKETS;
+            }
+        }
+    }
+
+    static RateLimiter compile(List<RateLimitConfiguration> rateLimits) {
+        if (rateLimits == null || rateLimits.isEmpty()) {
+            return UNLIMITED;
+        }
+        List<List<Bucket>> buckets = new ArrayList<>();
+        for (int i = 0; i < FailConfiguration.OperationType.values().length; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (RateLimitConfiguration rateLimit : rateLimits) {
+            Bucket bucket = new Bucket(rateLimit);
+            if (rateLimit.getOperationType() != null) {
+                buckets.get(rateLimit.getOperationType()
+                    .ordinal())
+                    .add(bucket);
+                continue;
+            }
+            for (List<Bucket> operationTypeBuckets : buckets) {
+                operationTypeBuckets.add(bucket);
+            }
+        }
+        Bucket[][] bucketsByOperationType = new Bucket[buckets.size()][];
+        for (int i = 0; i < bucketsByOperationType.length; i++) {
+            bucketsByOperationType[i] = buckets.get(i)
+                .toArray(NO_BUCKETS);
+        }
+        return new RateLimiter(bucketsByOperationType);
+    }
+
+    // Returns 0, if the operation is admitted by all of its buckets. Otherwise it takes no token at all and the broker
+    // clock nanoseconds, after which it would be admitted, are returned.
+    long tryAcquire(FailConfiguration.OperationType operationType, BrokerClock clock) {
+        Bucket[] buckets = bucketsByOperationType[operationType.ordinal()];
+        if (buckets.length == 0) {
+            return 0;
+        }
+        long now = clock.nanoTime();
+        for (int i = 0; i < buckets.length; i++) {
+            long waitNanos = buckets[i].tryAcquire(now);
+            if (waitNanos > 0) {
+                for (int j = 0; j < i; j++) {
+                    buckets[j].release();
+                }
+                return waitNanos;
+            }
+        }
+        return 0;
+    }
+
+    // A token bucket, which keeps its whole state in a single atomic: the time at which it is full again. Taking a token
+    // moves that time one token interval ahead, which is refused while it would be more than the burst ahead of now.
+    private static final class Bucket {
+
+        private final long intervalNanos;
+        private final long capacityNanos;
+        // Far enough in the past for the bucket to start full, yet far enough from overflowing on release
+        private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE / 2);
+
+        Bucket(RateLimitConfiguration rateLimit) {
+            double requestsPerSecond = rateLimit.getRequestsPerSecond();
+            int burst = rateLimit.getBurst() != null ? rateLimit.getBurst() : (int) Math.max(1, Math.ceil(requestsPerSecond));
+            this.intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+            this.capacityNanos = burst * intervalNanos;
+        }
+
+        long tryAcquire(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long waitNanos = next - now - capacityNanos;
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        // Returns a token taken by an operation, which another bucket has refused
+        void release() {
+            fullAt.addAndGet(-intervalNanos);
+        }
+
+    }
+
+}
@@ -1,12 +1,32 @@
 package com.sap.broker.budgie.configuration.behavior;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class ServiceBrokerConfiguration {
 
     private Integer asyncDuration;
     private Integer syncDuration;
+    private LatencyProfile asyncLatency;
+    private LatencyProfile syncLatency;
     private List<FailConfiguration> failConfigurations;
+    private List<RateLimitConfiguration> rateLimits;
+    private CapacityConfiguration capacity;
+    private AdmissionConfiguration admission;
+
+    public ServiceBrokerConfiguration() {
+    }
+
+    public ServiceBrokerConfiguration(ServiceBrokerConfiguration other) {
+        this.asyncDuration = other.asyncDuration;
+        this.syncDuration = other.syncDuration;
+        this.asyncLatency = other.asyncLatency != null ? new LatencyProfile(other.asyncLatency) : null;
+        this.syncLatency = other.syncLatency != null ? new LatencyProfile(other.syncLatency) : null;
+        this.failConfigurations = other.failConfigurations != null ? new ArrayList<>(other.failConfigurations) : null;
+        this.rateLimits = other.rateLimits != null ? new ArrayList<>(other.rateLimits) : null;
+        this.capacity = other.capacity != null ? new CapacityConfiguration(other.capacity) : null;
+        this.admission = other.admission != null ? new AdmissionConfiguration(other.admission) : null;
+    }
 
     public Integer getAsyncDuration() {
         return asyncDuration;
@@ -24,6 +44,22 @@ public class ServiceBrokerConfiguration {
         this.syncDuration = syncDuration;
     }
 
+    public LatencyProfile getAsyncLatency() {
+        return asyncLatency;
+    }
+
+    public void setAsyncLatency(LatencyProfile asyncLatency) {
+        this.asyncLatency = asyncLatency;
+    }
+
+    public LatencyProfile getSyncLatency() {
+        return syncLatency;
+    }
+
+    public void setSyncLatency(LatencyProfile syncLatency) {
+        this.syncLatency = syncLatency;
+    }
+
     public List<FailConfiguration> getFailConfigurations() {
         return failConfigurations;
     }
@@ -31,4 +67,28 @@ public class ServiceBrokerConfiguration {
     public void setFailConfigurations(List<FailConfiguration> failConfigurations) {
         this.failConfigurations = failConfigurations;
     }
+
+    public List<RateLimitConfiguration> getRateLimits() {
+        return rateLimits;
+    }
+
+    public void setRateLimits(List<RateLimitConfiguration> rateLimits) {
+        this.rateLimits = rateLimits;
+    }
+
+    public CapacityConfiguration getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(CapacityConfiguration capacity) {
+        this.capacity = capacity;
+    }
+
+    public AdmissionConfiguration getAdmission() {
+        return admission;
+    }
+
+    public void setAdmission(AdmissionConfiguration admission) {
+        this.admission = admission;
+    }
 }
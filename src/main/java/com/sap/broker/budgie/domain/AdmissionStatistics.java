@@ -0,0 +1,40 @@
+package com.sap.broker.budgie.domain;
+
+import com.google.gson.annotations.SerializedName;
+
+public class AdmissionStatistics {
+
+    // Null, if there is no limit
+    @SerializedName("max_pending_operations")
+    private Integer maxPendingOperations;
+    @SerializedName("pending_count")
+    private int pendingCount;
+    @SerializedName("admitted_count")
+    private long admittedCount;
+    @SerializedName("rejected_count")
+    private long rejectedCount;
+
+    public AdmissionStatistics(Integer maxPendingOperations, int pendingCount, long admittedCount, long rejectedCount) {
+        this.maxPendingOperations = maxPendingOperations;
+        this.pendingCount = pendingCount;
+        this.admittedCount = admittedCount;
+        this.rejectedCount = rejectedCount;
+    }
+
+    public Integer getMaxPendingOperations() {
+        return maxPendingOperations;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public long getAdmittedCount() {
+        return admittedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+}
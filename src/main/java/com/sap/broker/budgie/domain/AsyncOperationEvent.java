@@ -0,0 +1,61 @@
+package com.sap.broker.budgie.domain;
+
+import java.util.UUID;
+
+import com.google.gson.annotations.SerializedName;
+import com.sap.broker.budgie.configuration.behavior.FailConfiguration.OperationType;
+import com.sap.broker.budgie.helpers.AsyncOperationState;
+
+public class AsyncOperationEvent {
+
+    private transient String configId;
+    @SerializedName("operation_type")
+    private OperationType operationType;
+    @SerializedName("instance_id")
+    private UUID instanceId;
+    @SerializedName("binding_id")
+    private UUID bindingId;
+    private AsyncOperationState.State state;
+    private String description;
+    private long timestamp;
+
+    public AsyncOperationEvent(String configId, OperationType operationType, UUID instanceId, UUID bindingId, AsyncOperationState operationState,
+        long timestamp) {
+        this.configId = configId;
+        this.operationType = operationType;
+        this.instanceId = instanceId;
+        this.bindingId = bindingId;
+        this.state = operationState.getState();
+        this.description = operationState.getDescription();
+        this.timestamp = timestamp;
+    }
+
+    public String getConfigId() {
+        return configId;
+    }
+
+    public OperationType getOperationType() {
+        return operationType;
+    }
+
+    public UUID getInstanceId() {
+        return instanceId;
+    }
+
+    public UUID getBindingId() {
+        return bindingId;
+    }
+
+    public AsyncOperationState.State getState() {
+        return state;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.sap.broker.budgie.domain;
+
+import java.util.UUID;
+
+import com.google.gson.annotations.SerializedName;
+
+public class BulkDeletionResult {
+
+    // Set when the deletion runs asynchronously. Its state is reported as the last operation of this id.
+    private UUID operation;
+    @SerializedName("deleted_count")
+    private Integer deletedCount;
+
+    public BulkDeletionResult(UUID operation, Integer deletedCount) {
+        this.operation = operation;
+        this.deletedCount = deletedCount;
+    }
+
+    public UUID getOperation() {
+        return operation;
+    }
+
+    public Integer getDeletedCount() {
+        return deletedCount;
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.sap.broker.budgie.domain;
+
+import java.util.UUID;
+
+public class BulkOperationResult {
+
+    private UUID id;
+    private int status;
+    private String description;
+
+    public BulkOperationResult(UUID id, int status, String description) {
+        this.id = id;
+        this.status = status;
+        this.description = description;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.sap.broker.budgie.domain;
+
+import com.google.gson.annotations.SerializedName;
+
+public class CapacityStatistics {
+
+    @SerializedName("max_concurrent_operations")
+    private int maxConcurrentOperations;
+    @SerializedName("in_flight_count")
+    private int inFlightCount;
+    @SerializedName("queue_length")
+    private int queueLength;
+    @SerializedName("started_count")
+    private long startedCount;
+    @SerializedName("queued_count")
+    private long queuedCount;
+    @SerializedName("rejected_count")
+    private long rejectedCount;
+    // In milliseconds of the broker clock, over all started operations
+    @SerializedName("mean_wait")
+    private long meanWait;
+    @SerializedName("max_wait")
+    private long maxWait;
+
+    public CapacityStatistics(int maxConcurrentOperations, int inFlightCount, int queueLength, long startedCount, long queuedCount,
+        long rejectedCount, long meanWait, long maxWait) {
+        this.maxConcurrentOperations = maxConcurrentOperations;
+        this.inFlightCount = inFlightCount;
+        this.queueLength = queueLength;
+        this.startedCount = startedCount;
+        this.queuedCount = queuedCount;
+        this.rejectedCount = rejectedCount;
+        this.meanWait = meanWait;
+        this.maxWait = maxWait;
+    }
+
+    public int getMaxConcurrentOperations() {
+        return maxConcurrentOperations;
+    }
+
+    public int getInFlightCount() {
+        return inFlightCount;
+    }
+
+    public int getQueueLength() {
+        return queueLength;
+    }
+
+    public long getStartedCount() {
+        return startedCount;
+    }
+
+    public long getQueuedCount() {
+        return queuedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public long getMeanWait() {
+        return meanWait;
+    }
+
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+}
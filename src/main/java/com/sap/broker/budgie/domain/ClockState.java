@@ -0,0 +1,27 @@
+package com.sap.broker.budgie.domain;
+
+import com.google.gson.annotations.SerializedName;
+
+public class ClockState {
+
+    private Long time;
+    @SerializedName("time_scale")
+    private Integer timeScale;
+
+    public ClockState() {
+    }
+
+    public ClockState(long time, int timeScale) {
+        this.time = time;
+        this.timeScale = timeScale;
+    }
+
+    public Long getTime() {
+        return time;
+    }
+
+    public Integer getTimeScale() {
+        return timeScale;
+    }
+
+}
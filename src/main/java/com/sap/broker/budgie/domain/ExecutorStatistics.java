@@ -0,0 +1,46 @@
+package com.sap.broker.budgie.domain;
+
+import com.google.gson.annotations.SerializedName;
+
+public class ExecutorStatistics {
+
+    @SerializedName("pool_size")
+    private int poolSize;
+    @SerializedName("active_count")
+    private int activeCount;
+    @SerializedName("pending_count")
+    private long pendingCount;
+    @SerializedName("queue_size")
+    private int queueSize;
+    @SerializedName("completed_count")
+    private long completedCount;
+
+    public ExecutorStatistics(int poolSize, int activeCount, long pendingCount, int queueSize, long completedCount) {
+        this.poolSize = poolSize;
+        this.activeCount = activeCount;
+        this.pendingCount = pendingCount;
+        this.queueSize = queueSize;
+        this.completedCount = completedCount;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public long getPendingCount() {
+        return pendingCount;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+}
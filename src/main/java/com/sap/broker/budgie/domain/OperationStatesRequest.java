@@ -0,0 +1,31 @@
+package com.sap.broker.budgie.domain;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.google.gson.annotations.SerializedName;
+
+public class OperationStatesRequest {
+
+    @SerializedName("instance_ids")
+    private List<UUID> instanceIds;
+    @SerializedName("binding_ids")
+    private List<UUID> bindingIds;
+
+    public List<UUID> getInstanceIds() {
+        return instanceIds;
+    }
+
+    public void setInstanceIds(List<UUID> instanceIds) {
+        this.instanceIds = instanceIds;
+    }
+
+    public List<UUID> getBindingIds() {
+        return bindingIds;
+    }
+
+    public void setBindingIds(List<UUID> bindingIds) {
+        this.bindingIds = bindingIds;
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.sap.broker.budgie.domain;
+
+import com.google.gson.annotations.SerializedName;
+
+public class PartitionStatistics {
+
+    @SerializedName("config_id")
+    private String configId;
+    @SerializedName("service_instances_count")
+    private int serviceInstancesCount;
+    @SerializedName("async_operations_count")
+    private int asyncOperationsCount;
+    @SerializedName("tombstones_count")
+    private int tombstonesCount;
+    // Null, unless the configuration of the partition has a capacity
+    private CapacityStatistics capacity;
+    // Null, unless asynchronous operations have been submitted to the partition
+    private AdmissionStatistics admission;
+
+    public PartitionStatistics(String configId, int serviceInstancesCount, int asyncOperationsCount, int tombstonesCount,
+        CapacityStatistics capacity, AdmissionStatistics admission) {
+        this.configId = configId;
+        this.serviceInstancesCount = serviceInstancesCount;
+        this.asyncOperationsCount = asyncOperationsCount;
+        this.tombstonesCount = tombstonesCount;
+        this.capacity = capacity;
+        this.admission = admission;
+    }
+
+    public String getConfigId() {
+        return configId;
+    }
+
+    public int getServiceInstancesCount() {
+        return serviceInstancesCount;
+    }
+
+    public int getAsyncOperationsCount() {
+        return asyncOperationsCount;
+    }
+
+    public int getTombstonesCount() {
+        return tombstonesCount;
+    }
+
+    public CapacityStatistics getCapacity() {
+        return capacity;
+    }
+
+    public AdmissionStatistics getAdmission() {
+        return admission;
+    }
+
+}
@@ -1,21 +1,34 @@
 package com.sap.broker.budgie.domain;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import com.google.gson.annotations.SerializedName;
 
 public class ServiceInstance {
 
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ServiceInstance, ConcurrentMap> BINDINGS_UPDATER = AtomicReferenceFieldUpdater
+        .newUpdater(ServiceInstance.class, ConcurrentMap.class, "bindings");
+
     private UUID id;
     @SerializedName("service_id")
     private UUID serviceId;
     @SerializedName("plan_id")
     private UUID planId;
     private Map<String, Object> parameters;
-    private Map<UUID, BindingMetadata> bindings;
+    private volatile ConcurrentMap<UUID, BindingMetadata> bindings;
+    // Time of the provisioning in milliseconds of the broker clock. It is neither compared nor fingerprinted, so that a
+    // retried provisioning is still recognized.
+    @SerializedName("created_at")
+    private Long createdAt;
+    // Hash of the provisioned content, computed on first use. Zero means that it has not been computed yet.
+    private transient volatile long fingerprint;
 
     public ServiceInstance(UUID id, UUID serviceId, UUID planId) {
         this.id = id;
@@ -39,20 +52,46 @@ public class ServiceInstance {
         return parameters;
     }
 
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
     public void setId(UUID id) {
         this.id = id;
     }
 
     public void setServiceId(UUID serviceId) {
         this.serviceId = serviceId;
+        this.fingerprint = 0;
     }
 
     public void setPlanId(UUID planId) {
         this.planId = planId;
+        this.fingerprint = 0;
     }
 
     public void setParameters(Map<String, Object> parameters) {
         this.parameters = parameters;
+        this.fingerprint = 0;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    // Covers the service, the plan and the parameters, but neither the id, by which instances are looked up, nor the
+    // bindings, which change after provisioning. Equal instances always have equal fingerprints, regardless of the
+    // order of their parameters, so different fingerprints prove that two instances differ. Parameters must not be
+    // changed in place after the fingerprint has been computed.
+    public long getFingerprint() {
+        long currentFingerprint = fingerprint;
+        if (currentFingerprint == 0) {
+            currentFingerprint = mix(fingerprint(serviceId) * 31 + fingerprint(planId)) * 31 + fingerprint(parameters);
+            // Zero is reserved for a fingerprint, which has not been computed
+            currentFingerprint = currentFingerprint != 0 ? currentFingerprint : 1;
+            fingerprint = currentFingerprint;
+        }
+        return currentFingerprint;
     }
 
     public Map<UUID, BindingMetadata> getBindings() {
@@ -60,29 +99,68 @@ public class ServiceInstance {
     }
 
     public void setBindings(Map<UUID, BindingMetadata> bindings) {
-        this.bindings = bindings;
+        this.bindings = bindings != null ? new ConcurrentHashMap<>(bindings) : null;
     }
 
     public void bind(UUID bindingId, BindingMetadata binding) {
-        validateBindingMap();
         binding.setId(bindingId);
-        bindings.put(bindingId, binding);
+        getOrCreateBindings().put(bindingId, binding);
+    }
+
+    public BindingMetadata bindIfAbsent(UUID bindingId, BindingMetadata binding) {
+        binding.setId(bindingId);
+        return getOrCreateBindings().putIfAbsent(bindingId, binding);
     }
 
     public BindingMetadata getBinding(UUID bindingId) {
-        validateBindingMap();
-        return bindings.get(bindingId);
+        Map<UUID, BindingMetadata> currentBindings = bindings;
+        return currentBindings != null ? currentBindings.get(bindingId) : null;
+    }
+
+    public BindingMetadata unbind(UUID bindingId) {
+        Map<UUID, BindingMetadata> currentBindings = bindings;
+        return currentBindings != null ? currentBindings.remove(bindingId) : null;
     }
 
-    public void unbind(UUID bindingId) {
-        validateBindingMap();
-        bindings.remove(bindingId);
+    private ConcurrentMap<UUID, BindingMetadata> getOrCreateBindings() {
+        ConcurrentMap<UUID, BindingMetadata> currentBindings = bindings;
+        if (currentBindings != null) {
+            return currentBindings;
+        }
+        BINDINGS_UPDATER.compareAndSet(this, null, new ConcurrentHashMap<>());
+        return bindings;
     }
 
-    private void validateBindingMap() {
-        if (bindings == null) {
-            setBindings(new HashMap<>());
+    private static long fingerprint(Object value) {
+        if (value == null) {
+            return 0;
         }
+        // Leaves are checked first, as failing checks against the collection interfaces are comparatively slow
+        if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return mix(value.hashCode());
+        }
+        if (value instanceof Map) {
+            // Entries are combined by a sum, which does not depend on their order
+            long result = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                result += mix(fingerprint(entry.getKey()) * 31 + fingerprint(entry.getValue()));
+            }
+            return mix(result + 1);
+        }
+        if (value instanceof List) {
+            long result = 1;
+            for (Object element : (List<?>) value) {
+                result = mix(result * 31 + fingerprint(element));
+            }
+            return result;
+        }
+        return mix(value.hashCode());
+    }
+
+    private static long mix(long value) {
+        long result = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        result = (result ^ (result >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return result ^ (result >>> 33);
     }
 
     @Override
@@ -0,0 +1,60 @@
+package com.sap.broker.budgie.domain;
+
+import java.util.Locale;
+import java.util.UUID;
+
+// Selects service instances by any combination of their service, plan, id prefix and creation time. Criteria, which are
+// not set, match every instance. Instances without a creation time count as created at the epoch.
+public class ServiceInstanceFilter {
+
+    private final UUID serviceId;
+    private final UUID planId;
+    private final String idPrefix;
+    private final Long createdBefore;
+
+    public ServiceInstanceFilter(UUID serviceId, UUID planId, String idPrefix, Long createdBefore) {
+        this.serviceId = serviceId;
+        this.planId = planId;
+        this.idPrefix = idPrefix != null ? idPrefix.toLowerCase(Locale.ROOT) : null;
+        this.createdBefore = createdBefore;
+    }
+
+    public UUID getServiceId() {
+        return serviceId;
+    }
+
+    public UUID getPlanId() {
+        return planId;
+    }
+
+    public String getIdPrefix() {
+        return idPrefix;
+    }
+
+    public Long getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public boolean matchesId(UUID id) {
+        return idPrefix == null || id.toString()
+            .startsWith(idPrefix);
+    }
+
+    public boolean matches(ServiceInstance serviceInstance) {
+        if (!matchesId(serviceInstance.getId())) {
+            return false;
+        }
+        if (serviceId != null && !serviceId.equals(serviceInstance.getServiceId())) {
+            return false;
+        }
+        if (planId != null && !planId.equals(serviceInstance.getPlanId())) {
+            return false;
+        }
+        if (createdBefore != null) {
+            Long createdAt = serviceInstance.getCreatedAt();
+            return (createdAt != null ? createdAt : 0) < createdBefore;
+        }
+        return true;
+    }
+
+}
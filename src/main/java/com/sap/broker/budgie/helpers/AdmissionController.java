@@ -0,0 +1,120 @@
+package com.sap.broker.budgie.helpers;
+
+import java.text.MessageFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.domain.AdmissionStatistics;
+
+// Bounds the asynchronous operations, which have been accepted and have not completed yet, both across the broker and
+// per configuration. Admitting or rejecting an operation is a compare-and-set on the pending counters and allocates
+// nothing, once a configuration has been seen.
+@Component
+public class AdmissionController {
+
+    private final AdmissionLimit limit;
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final LongAdder admittedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final ConcurrentMap<String, Partition> partitions = new ConcurrentHashMap<>();
+
+    @Inject
+    public AdmissionController(ApplicationConfiguration configuration) {
+        this(configuration.getMaxPendingOperations(), configuration.getPendingOperationsRejectionStatus(),
+            configuration.getPendingOperationsRetryAfter());
+    }
+
+    public AdmissionController(int maxPendingOperations, int rejectionStatus, int retryAfter) {
+        if (maxPendingOperations < 1) {
+            throw new IllegalStateException("Maximum number of pending operations must be greater than 0: " + maxPendingOperations);
+        }
+        if (!isRejectionStatus(rejectionStatus)) {
+            throw new IllegalStateException(MessageFormat.format("Unsupported rejection status {0}!", rejectionStatus));
+        }
+        if (retryAfter < 0) {
+            throw new IllegalStateException("Retry after must not be negative: " + retryAfter);
+        }
+        this.limit = new AdmissionLimit(maxPendingOperations, rejectionStatus, retryAfter);
+    }
+
+    public static boolean isRejectionStatus(int status) {
+        return status == 429 || status == 503;
+    }
+
+    // Returns null, if the operation is admitted. It is then pending, until it is released. Otherwise the limit, which
+    // has been exceeded, is returned. The limit of the configuration may be null.
+    public AdmissionLimit tryAdmit(String configId, AdmissionLimit configurationLimit) {
+        Partition partition = getPartition(configId);
+        if (!tryIncrement(pendingCount, limit.getMaxPendingOperations())) {
+            reject(partition);
+            return limit;
+        }
+        if (!tryIncrement(partition.pendingCount, configurationLimit != null ? configurationLimit.getMaxPendingOperations()
+            : Integer.MAX_VALUE)) {
+            pendingCount.decrementAndGet();
+            reject(partition);
+            return configurationLimit;
+        }
+        admittedCount.increment();
+        partition.admittedCount.increment();
+        return null;
+    }
+
+    public void release(String configId) {
+        pendingCount.decrementAndGet();
+        getPartition(configId).pendingCount.decrementAndGet();
+    }
+
+    public AdmissionStatistics getStatistics() {
+        return new AdmissionStatistics(limit.getMaxPendingOperations(), pendingCount.get(), admittedCount.sum(), rejectedCount.sum());
+    }
+
+    // Null for a configuration id, for which no operation has been submitted
+    public AdmissionStatistics getStatistics(String configId, AdmissionLimit configurationLimit) {
+        Partition partition = partitions.get(configId);
+        if (partition == null) {
+            return null;
+        }
+        return new AdmissionStatistics(configurationLimit != null ? configurationLimit.getMaxPendingOperations() : null,
+            partition.pendingCount.get(), partition.admittedCount.sum(), partition.rejectedCount.sum());
+    }
+
+    private Partition getPartition(String configId) {
+        Partition partition = partitions.get(configId);
+        return partition != null ? partition : partitions.computeIfAbsent(configId, partitionId -> new Partition());
+    }
+
+    private void reject(Partition partition) {
+        rejectedCount.increment();
+        partition.rejectedCount.increment();
+    }
+
+    private static boolean tryIncrement(AtomicInteger counter, int max) {
+        while (true) {
+            int current = counter.get();
+            if (current >= max) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Kept, when the configuration is changed or removed, as its operations keep counting until they complete
+    private static final class Partition {
+
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final LongAdder admittedCount = new LongAdder();
+        private final LongAdder rejectedCount = new LongAdder();
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.sap.broker.budgie.helpers;
+
+// A limit on pending asynchronous operations together with the response to the operations beyond it. Created once per
+// configuration, so that rejecting an operation does not allocate one.
+public final class AdmissionLimit {
+
+    private final int maxPendingOperations;
+    private final int status;
+    private final Integer retryAfter;
+
+    public AdmissionLimit(int maxPendingOperations, int status, int retryAfter) {
+        this.maxPendingOperations = maxPendingOperations;
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public int getMaxPendingOperations() {
+        return maxPendingOperations;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    // In seconds, boxed once for the Retry-After header
+    public Integer getRetryAfter() {
+        return retryAfter;
+    }
+
+}
@@ -1,30 +1,114 @@
 package com.sap.broker.budgie.helpers;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+import com.sap.broker.budgie.configuration.behavior.FailConfiguration.OperationType;
+
 public class AsyncOperation implements Runnable {
 
-    private int milliseconds;
-    private Supplier<AsyncOperationState> operation;
-    private AsyncOperationState state;
+    private static final AsyncOperationState IN_PROGRESS = new AsyncOperationState(AsyncOperationState.State.IN_PROGRESS);
+
+    private final String configId;
+    private final OperationType operationType;
+    private final UUID instanceId;
+    private final UUID bindingId;
+    private volatile Supplier<AsyncOperationState> operation;
+    // Describes how far the operation has got, while it is in progress. Evaluated only when the state is read.
+    private volatile Supplier<String> progress;
+    private final CompletableFuture<AsyncOperationState> completion = new CompletableFuture<>();
+
+    public AsyncOperation(Supplier<AsyncOperationState> operation) {
+        this(null, null, null, null, operation);
+    }
 
-    public AsyncOperation(Supplier<AsyncOperationState> operation, int milliseconds) {
+    public AsyncOperation(String configId, OperationType operationType, UUID instanceId, UUID bindingId,
+        Supplier<AsyncOperationState> operation) {
+        this.configId = configId;
+        this.operationType = operationType;
+        this.instanceId = instanceId;
+        this.bindingId = bindingId;
         this.operation = operation;
-        this.milliseconds = milliseconds;
+    }
+
+    public UUID getId() {
+        return bindingId != null ? bindingId : instanceId;
+    }
+
+    public String getConfigId() {
+        return configId;
+    }
+
+    public OperationType getOperationType() {
+        return operationType;
+    }
+
+    public UUID getInstanceId() {
+        return instanceId;
+    }
+
+    public UUID getBindingId() {
+        return bindingId;
     }
 
     @Override
     public void run() {
+        Supplier<AsyncOperationState> currentOperation = operation;
+        if (currentOperation == null) {
+            return;
+        }
+        AsyncOperationState finalState;
         try {
-            state = new AsyncOperationState(AsyncOperationState.State.IN_PROGRESS);
-            Thread.sleep(milliseconds);
-            state = operation.get();
-        } catch (InterruptedException e) {
-            throw new IllegalStateException(e);
+            finalState = currentOperation.get();
+        } catch (RuntimeException e) {
+            finalState = new AsyncOperationState(AsyncOperationState.State.FAILED);
+            finalState.setDescription(e.getMessage());
         }
+        complete(finalState);
+    }
+
+    public boolean complete(AsyncOperationState finalState) {
+        operation = null;
+        return completion.complete(finalState);
+    }
+
+    public void whenCompleted(Consumer<AsyncOperation> listener) {
+        completion.thenRun(() -> listener.accept(this));
+    }
+
+    public CompletionStage<AsyncOperationState> toCompletionStage() {
+        return completion.thenApply(Function.identity());
+    }
+
+    // Completes with the final state of the operation or with the one of other, whichever comes first. Once other has won,
+    // the callback on the operation is unlinked again, so that waiters, which give up, do not pile up on it.
+    public CompletionStage<AsyncOperationState> completionOr(CompletableFuture<AsyncOperationState> other) {
+        return completion.applyToEither(other, Function.identity());
+    }
+
+    int getNumberOfDependents() {
+        return completion.getNumberOfDependents();
+    }
+
+    public void setProgress(Supplier<String> progress) {
+        this.progress = progress;
+    }
+
+    public boolean isCompleted() {
+        return completion.isDone();
     }
 
     public AsyncOperationState getOperationState() {
-        return state;
+        Supplier<String> currentProgress = progress;
+        if (currentProgress == null || completion.isDone()) {
+            return completion.getNow(IN_PROGRESS);
+        }
+        AsyncOperationState operationState = new AsyncOperationState(AsyncOperationState.State.IN_PROGRESS);
+        operationState.setDescription(currentProgress.get());
+        return operationState;
     }
 }
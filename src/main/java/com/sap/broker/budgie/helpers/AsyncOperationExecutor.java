@@ -1,12 +1,67 @@
 package com.sap.broker.budgie.helpers;
 
-import java.util.function.Supplier;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.domain.ExecutorStatistics;
+
+@Component
 public class AsyncOperationExecutor {
 
-    public static AsyncOperation execute(Supplier<AsyncOperationState> operation, int milliseconds) {
-        AsyncOperation asyncOperation = new AsyncOperation(operation, milliseconds);
-        new Thread(asyncOperation).start();
-        return asyncOperation;
+    private ThreadPoolExecutor executor;
+    private HashedWheelTimer timer;
+
+    @Inject
+    public AsyncOperationExecutor(ApplicationConfiguration configuration, BrokerClock clock) {
+        this(configuration.getAsyncPoolSize(), configuration.getTimerTickDuration(), configuration.getTimerWheelSize(), clock);
+    }
+
+    public AsyncOperationExecutor(int poolSize, long tickDuration, int wheelSize, BrokerClock clock) {
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            new DaemonThreadFactory("async-operation-"));
+        this.timer = new HashedWheelTimer("async-operation-timer", tickDuration, TimeUnit.MILLISECONDS, wheelSize, executor,
+            clock);
+    }
+
+    public HashedWheelTimer.Timeout schedule(Runnable task, long milliseconds) {
+        return timer.newTimeout(task, milliseconds, TimeUnit.MILLISECONDS);
+    }
+
+    public ExecutorStatistics getStatistics() {
+        return new ExecutorStatistics(executor.getCorePoolSize(), executor.getActiveCount(), timer.getPendingTimeouts(),
+            executor.getQueue().size(), executor.getCompletedTaskCount());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.stop();
+        executor.shutdownNow();
+    }
+
+    static class DaemonThreadFactory implements ThreadFactory {
+
+        private final String namePrefix;
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        DaemonThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
     }
 }
@@ -0,0 +1,95 @@
+package com.sap.broker.budgie.helpers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+
+@Component
+public class BrokerClock {
+
+    private final long startNanos;
+    private final long startMillis;
+    private final AtomicReference<Epoch> epoch;
+
+    @Inject
+    public BrokerClock(ApplicationConfiguration configuration) {
+        this(configuration.getTimeScale());
+    }
+
+    public BrokerClock(int timeScale) {
+        validateTimeScale(timeScale);
+        this.startNanos = System.nanoTime();
+        this.startMillis = System.currentTimeMillis();
+        this.epoch = new AtomicReference<>(new Epoch(startNanos, startNanos, timeScale));
+    }
+
+    public long nanoTime() {
+        return epoch.get().nanoTime(System.nanoTime());
+    }
+
+    public long currentTimeMillis() {
+        return startMillis + TimeUnit.NANOSECONDS.toMillis(nanoTime() - startNanos);
+    }
+
+    public int getTimeScale() {
+        return epoch.get().timeScale;
+    }
+
+    // The real time, in which the given duration passes on the broker clock at its current time scale
+    public long toRealNanos(long nanos) {
+        return nanos / getTimeScale();
+    }
+
+    public void setTimeScale(int timeScale) {
+        validateTimeScale(timeScale);
+        rebase(0, timeScale);
+    }
+
+    public void advance(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Time cannot be moved backwards: " + duration);
+        }
+        rebase(unit.toNanos(duration), -1);
+    }
+
+    private void rebase(long offsetNanos, int timeScale) {
+        while (true) {
+            Epoch current = epoch.get();
+            long realNanos = System.nanoTime();
+            Epoch next = new Epoch(realNanos, current.nanoTime(realNanos) + offsetNanos, timeScale > 0 ? timeScale : current.timeScale);
+            if (epoch.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static void validateTimeScale(int timeScale) {
+        if (timeScale < 1) {
+            throw new IllegalArgumentException("Time scale must be greater than 0: " + timeScale);
+        }
+    }
+
+    // Virtual time runs timeScale times faster than real time, starting from virtualNanos at realNanos
+    private static final class Epoch {
+
+        private final long realNanos;
+        private final long virtualNanos;
+        private final int timeScale;
+
+        Epoch(long realNanos, long virtualNanos, int timeScale) {
+            this.realNanos = realNanos;
+            this.virtualNanos = virtualNanos;
+            this.timeScale = timeScale;
+        }
+
+        long nanoTime(long currentRealNanos) {
+            return virtualNanos + (currentRealNanos - realNanos) * timeScale;
+        }
+
+    }
+}
@@ -0,0 +1,157 @@
+package com.sap.broker.budgie.helpers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.helpers.AsyncOperationExecutor.DaemonThreadFactory;
+
+@Component
+public class BulkOperationExecutor {
+
+    private static final int BATCH_SIZE = 256;
+    private final int maxPending;
+    private ThreadPoolExecutor executor;
+
+    @Inject
+    public BulkOperationExecutor(ApplicationConfiguration configuration) {
+        this(configuration.getBulkPoolSize(), configuration.getBulkMaxPending());
+    }
+
+    public BulkOperationExecutor(int poolSize, int maxPending) {
+        this.maxPending = maxPending;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            new DaemonThreadFactory("bulk-operation-"));
+    }
+
+    // Reads the items on the calling thread and runs the operation for each of them on the pool. Results are written on
+    // the calling thread in the order, in which the operations complete. At most maxPending items are read ahead of the
+    // written results, so neither a large request nor a slow client can make the items pile up in memory. If an item
+    // cannot be read, the results of the items read before it are still written, before the failure is rethrown.
+    public <T, R> void executeAll(Iterator<T> items, Function<T, CompletionStage<R>> operation, BiFunction<T, Throwable, R> failure,
+        ResultWriter<R> writer) throws IOException {
+        BlockingQueue<R> results = new LinkedBlockingQueue<>();
+        int pending = 0;
+        RuntimeException readFailure = null;
+        while (true) {
+            T item;
+            try {
+                if (!items.hasNext()) {
+                    break;
+                }
+                item = items.next();
+            } catch (RuntimeException e) {
+                readFailure = e;
+                break;
+            }
+            while (pending >= maxPending) {
+                writer.flush();
+                writer.write(take(results));
+                pending--;
+            }
+            executor.execute(() -> run(item, operation, failure, results));
+            pending++;
+            R result;
+            while ((result = results.poll()) != null) {
+                writer.write(result);
+                pending--;
+            }
+        }
+        while (pending > 0) {
+            writer.flush();
+            writer.write(take(results));
+            pending--;
+        }
+        if (readFailure != null) {
+            throw readFailure;
+        }
+    }
+
+    // Runs the operation for every item on all threads of the pool, without blocking the calling thread. The threads take
+    // the items from the shared iterator in batches, so they rarely contend for it and never wait for each other. The
+    // first failure stops the remaining items from being processed.
+    public <T> CompletableFuture<Void> executeAll(Iterator<T> items, Consumer<T> operation) {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        int workers = executor.getCorePoolSize();
+        AtomicInteger running = new AtomicInteger(workers);
+        for (int i = 0; i < workers; i++) {
+            executor.execute(() -> {
+                try {
+                    List<T> batch;
+                    while (!completion.isDone() && !(batch = nextBatch(items)).isEmpty()) {
+                        batch.forEach(operation);
+                    }
+                } catch (RuntimeException e) {
+                    completion.completeExceptionally(e);
+                }
+                if (running.decrementAndGet() == 0) {
+                    completion.complete(null);
+                }
+            });
+        }
+        return completion;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static <T, R> void run(T item, Function<T, CompletionStage<R>> operation, BiFunction<T, Throwable, R> failure,
+        BlockingQueue<R> results) {
+        try {
+            operation.apply(item)
+                .whenComplete((result, error) -> results.add(error == null ? result : failure.apply(item, error)));
+        } catch (RuntimeException e) {
+            results.add(failure.apply(item, e));
+        }
+    }
+
+    private static <T> List<T> nextBatch(Iterator<T> items) {
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+        synchronized (items) {
+            while (batch.size() < BATCH_SIZE && items.hasNext()) {
+                batch.add(items.next());
+            }
+        }
+        return batch;
+    }
+
+    private static <R> R take(BlockingQueue<R> results) throws InterruptedIOException {
+        try {
+            return results.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for bulk operations!");
+        }
+    }
+
+    public interface ResultWriter<R> {
+
+        void write(R result) throws IOException;
+
+        // Called before waiting for more results, so that the ones written so far reach the client
+        void flush() throws IOException;
+
+    }
+
+}
@@ -1,14 +1,24 @@
 package com.sap.broker.budgie.helpers;
 
 import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.configuration.behavior.AdmissionConfiguration;
+import com.sap.broker.budgie.configuration.behavior.CapacityConfiguration;
+import com.sap.broker.budgie.configuration.behavior.LatencyProfile;
+import com.sap.broker.budgie.configuration.behavior.RateLimitConfiguration;
 import com.sap.broker.budgie.configuration.behavior.ServiceBrokerConfiguration;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.Objects;
 
 @Component
 public class ConfigurationValidator {
 
+    // Keep the token intervals and bucket capacities of rate limits within nanoseconds, which fit into a long
+    private static final double MIN_REQUESTS_PER_SECOND = 0.001;
+    private static final int MAX_BURST = 1000000;
+
     private ApplicationConfiguration appConfiguration;
 
     @Inject
@@ -19,12 +29,17 @@ public class ConfigurationValidator {
     public boolean validate(ServiceBrokerConfiguration configuration) {
         return validateAsyncDuration(configuration) &&
                validateSyncDuration(configuration) &&
+               validateLatency(configuration.getAsyncLatency(), configuration.getAsyncDuration()) &&
+               validateLatency(configuration.getSyncLatency(), configuration.getSyncDuration()) &&
                validateOperationType(configuration) &&
                validateStatus(configuration) &&
                validateServiceNames(configuration) &&
                validatePlanNames(configuration) &&
                validateServiceIds(configuration) &&
-               validatePlanIds(configuration);
+               validatePlanIds(configuration) &&
+               validateRateLimits(configuration) &&
+               validateCapacity(configuration.getCapacity()) &&
+               validateAdmission(configuration.getAdmission());
     }
 
     private boolean validateAsyncDuration(ServiceBrokerConfiguration configuration) {
@@ -35,6 +50,56 @@ public class ConfigurationValidator {
         return configuration.getSyncDuration() == null || configuration.getSyncDuration() >= 0;
     }
 
+    private boolean validateLatency(LatencyProfile latency, Integer duration) {
+        if (latency == null) {
+            return true;
+        }
+        if (duration != null || latency.getDistribution() == null || !isNonNegativeOrNull(latency.getMin(), latency.getMax())) {
+            return false;
+        }
+        if (latency.getMin() != null && latency.getMax() != null && latency.getMin() > latency.getMax()) {
+            return false;
+        }
+        switch (latency.getDistribution()) {
+            case CONSTANT:
+                return isNonNegative(latency.getValue());
+            case UNIFORM:
+                return isNonNegative(latency.getMin(), latency.getMax());
+            case NORMAL:
+                return isNonNegative(latency.getMean(), latency.getStandardDeviation());
+            case LOG_NORMAL:
+                return isNonNegative(latency.getP50(), latency.getP99()) && latency.getP50() > 0 &&
+                       latency.getP50() <= latency.getP99();
+            case HISTOGRAM:
+                return isNonNegative(latency.getP50(), latency.getP90(), latency.getP99()) &&
+                       isOrdered(latency.getMin(), latency.getP50(), latency.getP90(), latency.getP99(), latency.getMax());
+            default:
+                return false;
+        }
+    }
+
+    private boolean isNonNegative(Integer... values) {
+        return Arrays.stream(values).allMatch(value -> value != null && value >= 0);
+    }
+
+    private boolean isNonNegativeOrNull(Integer... values) {
+        return Arrays.stream(values).allMatch(value -> value == null || value >= 0);
+    }
+
+    private boolean isOrdered(Integer... values) {
+        Integer previous = null;
+        for (Integer value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (previous != null && previous > value) {
+                return false;
+            }
+            previous = value;
+        }
+        return true;
+    }
+
     private boolean validateOperationType(ServiceBrokerConfiguration configuration) {
         if (configuration.getFailConfigurations() != null) {
             return configuration.getFailConfigurations().stream().allMatch(config -> config.getOperationType() != null);
@@ -91,4 +156,44 @@ public class ConfigurationValidator {
         }
         return true;
     }
+
+    private boolean validateRateLimits(ServiceBrokerConfiguration configuration) {
+        if (configuration.getRateLimits() != null) {
+            return configuration.getRateLimits().stream().allMatch(this::validateRateLimit);
+        }
+        return true;
+    }
+
+    private boolean validateRateLimit(RateLimitConfiguration rateLimit) {
+        if (rateLimit == null || rateLimit.getRequestsPerSecond() == null || !(rateLimit.getRequestsPerSecond() >= MIN_REQUESTS_PER_SECOND)) {
+            return false;
+        }
+        return rateLimit.getBurst() == null || rateLimit.getBurst() >= 1 && rateLimit.getBurst() <= MAX_BURST;
+    }
+
+    private boolean validateCapacity(CapacityConfiguration capacity) {
+        if (capacity == null) {
+            return true;
+        }
+        if (capacity.getMaxConcurrentOperations() == null || capacity.getMaxConcurrentOperations() < 1) {
+            return false;
+        }
+        if (capacity.getMaxQueueLength() != null && capacity.getMaxQueueLength() < 0) {
+            return false;
+        }
+        return capacity.getPriorityOrder() == null || capacity.getPriorityOrder().stream().allMatch(Objects::nonNull);
+    }
+
+    private boolean validateAdmission(AdmissionConfiguration admission) {
+        if (admission == null) {
+            return true;
+        }
+        if (admission.getMaxPendingOperations() == null || admission.getMaxPendingOperations() < 1) {
+            return false;
+        }
+        if (admission.getStatus() != null && !AdmissionController.isRejectionStatus(admission.getStatus())) {
+            return false;
+        }
+        return admission.getRetryAfter() == null || admission.getRetryAfter() >= 0;
+    }
 }
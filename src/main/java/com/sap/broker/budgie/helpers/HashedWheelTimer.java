@@ -0,0 +1,275 @@
+package com.sap.broker.budgie.helpers;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class HashedWheelTimer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private final long tickDuration;
+    private final HashedWheelBucket[] wheel;
+    private final int mask;
+    private final Executor taskExecutor;
+    private final BrokerClock clock;
+    private final Queue<HashedWheelTimeout> timeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<HashedWheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingTimeouts = new AtomicLong();
+    private final Thread workerThread;
+    private final long startTime;
+    private volatile boolean running = true;
+    private long tick;
+
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel, Executor taskExecutor) {
+        this(name, tickDuration, unit, ticksPerWheel, taskExecutor, new BrokerClock(1));
+    }
+
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel, Executor taskExecutor, BrokerClock clock) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration must be greater than 0: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("Ticks per wheel must be greater than 0: " + ticksPerWheel);
+        }
+        this.tickDuration = unit.toNanos(tickDuration);
+        this.wheel = createWheel(ticksPerWheel);
+        this.mask = wheel.length - 1;
+        this.taskExecutor = taskExecutor;
+        this.clock = clock;
+        this.startTime = clock.nanoTime();
+        this.workerThread = new Thread(this::work, name);
+        this.workerThread.setDaemon(true);
+        this.workerThread.start();
+    }
+
+    private static HashedWheelBucket[] createWheel(int ticksPerWheel) {
+        int normalizedTicksPerWheel = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        HashedWheelBucket[] wheel = new HashedWheelBucket[Math.max(normalizedTicksPerWheel, 1)];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new HashedWheelBucket();
+        }
+        return wheel;
+    }
+
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timer has been stopped!");
+        }
+        long deadline = clock.nanoTime() - startTime + unit.toNanos(Math.max(delay, 0));
+        HashedWheelTimeout timeout = new HashedWheelTimeout(this, task, deadline);
+        pendingTimeouts.incrementAndGet();
+        timeouts.add(timeout);
+        return timeout;
+    }
+
+    public long getPendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    public void stop() {
+        running = false;
+        workerThread.interrupt();
+    }
+
+    private void work() {
+        while (running) {
+            long elapsedTicks = waitForNextTick();
+            if (elapsedTicks <= 0) {
+                continue;
+            }
+            processCancelledTimeouts();
+            transferTimeoutsToBuckets();
+            expireTimeouts(elapsedTicks);
+        }
+    }
+
+    // Returns the number of ticks, which have passed since the last call. It is more than one when the clock runs
+    // faster than the worker can sleep or has been advanced explicitly.
+    private long waitForNextTick() {
+        long deadline = tickDuration * (tick + 1);
+        while (true) {
+            long currentTime = clock.nanoTime() - startTime;
+            if (currentTime >= deadline) {
+                return currentTime / tickDuration - tick;
+            }
+            long sleepTimeMs = (deadline - currentTime) / clock.getTimeScale() / 1000000;
+            try {
+                Thread.sleep(Math.max(sleepTimeMs, 1));
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    private void expireTimeouts(long elapsedTicks) {
+        // Every bucket is visited at most once, even if the clock has advanced by many rounds of the wheel
+        long bucketsToVisit = Math.min(elapsedTicks, wheel.length);
+        for (long i = 0; i < bucketsToVisit; i++) {
+            long visits = (elapsedTicks - i + wheel.length - 1) / wheel.length;
+            wheel[(int) ((tick + i) & mask)].expireTimeouts(visits);
+        }
+        tick += elapsedTicks;
+    }
+
+    private void transferTimeoutsToBuckets() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            HashedWheelTimeout timeout = timeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long calculatedTicks = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (calculatedTicks - tick) / wheel.length;
+            long ticks = Math.max(calculatedTicks, tick);
+            wheel[(int) (ticks & mask)].addTimeout(timeout);
+        }
+    }
+
+    private void processCancelledTimeouts() {
+        HashedWheelTimeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    public interface Timeout {
+
+        boolean cancel();
+
+        boolean isExpired();
+
+        boolean isCancelled();
+
+    }
+
+    private static final class HashedWheelTimeout implements Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<HashedWheelTimeout> STATE_UPDATER = AtomicIntegerFieldUpdater
+            .newUpdater(HashedWheelTimeout.class, "state");
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = ST_INIT;
+
+        // Accessed only by the worker thread
+        private long remainingRounds;
+        private HashedWheelTimeout next;
+        private HashedWheelTimeout prev;
+        private HashedWheelBucket bucket;
+
+        HashedWheelTimeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            try {
+                timer.taskExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn(e.getMessage(), e);
+            }
+        }
+
+    }
+
+    private static final class HashedWheelBucket {
+
+        private HashedWheelTimeout head;
+        private HashedWheelTimeout tail;
+
+        void addTimeout(HashedWheelTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expireTimeouts(long visits) {
+            HashedWheelTimeout timeout = head;
+            while (timeout != null) {
+                HashedWheelTimeout next = timeout.next;
+                if (timeout.remainingRounds < visits) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds -= visits;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(HashedWheelTimeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = timeout.next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.sap.broker.budgie.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.configuration.behavior.FailConfiguration.OperationType;
+import com.sap.broker.budgie.domain.AsyncOperationEvent;
+import com.sap.broker.budgie.helpers.AsyncOperation;
+import com.sap.broker.budgie.helpers.BrokerClock;
+
+@Component
+public class AsyncOperationEventBroadcaster {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final String EVENT_NAME = "operation";
+    // Each subscriber is served by at most one sender at a time, so a few threads are enough for any number of them
+    private static final int SENDER_THREADS = 2;
+
+    private final int bufferSize;
+    private final BrokerClock clock;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders = Executors.newFixedThreadPool(SENDER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "async-operation-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Inject
+    public AsyncOperationEventBroadcaster(ApplicationConfiguration configuration, BrokerClock clock) {
+        this(configuration.getEventBufferSize(), clock);
+    }
+
+    public AsyncOperationEventBroadcaster(int bufferSize, BrokerClock clock) {
+        this.bufferSize = bufferSize;
+        this.clock = clock;
+    }
+
+    public void subscribe(String configId, UUID instanceId, OperationType operationType, OverflowPolicy overflowPolicy, SseEventSink sink,
+        Sse sse) {
+        subscribers.add(new Subscriber(configId, instanceId, operationType, overflowPolicy, sink, sse));
+    }
+
+    public void publish(AsyncOperation asyncOperation) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        AsyncOperationEvent event = new AsyncOperationEvent(asyncOperation.getConfigId(), asyncOperation.getOperationType(),
+            asyncOperation.getInstanceId(), asyncOperation.getBindingId(), asyncOperation.getOperationState(), clock.currentTimeMillis());
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    public int getSubscribersCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        senders.shutdownNow();
+    }
+
+    public enum OverflowPolicy {
+        DROP, DISCONNECT
+    }
+
+    private class Subscriber {
+
+        private final String configId;
+        private final UUID instanceId;
+        private final OperationType operationType;
+        private final OverflowPolicy overflowPolicy;
+        private final SseEventSink sink;
+        private final Sse sse;
+        private final BlockingQueue<AsyncOperationEvent> events = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicLong eventId = new AtomicLong();
+
+        Subscriber(String configId, UUID instanceId, OperationType operationType, OverflowPolicy overflowPolicy, SseEventSink sink, Sse sse) {
+            this.configId = configId;
+            this.instanceId = instanceId;
+            this.operationType = operationType;
+            this.overflowPolicy = overflowPolicy;
+            this.sink = sink;
+            this.sse = sse;
+        }
+
+        boolean accepts(AsyncOperationEvent event) {
+            return Objects.equals(configId, event.getConfigId()) && (instanceId == null || instanceId.equals(event.getInstanceId()))
+                && (operationType == null || operationType == event.getOperationType());
+        }
+
+        void offer(AsyncOperationEvent event) {
+            if (!events.offer(event) && overflowPolicy == OverflowPolicy.DISCONNECT) {
+                close();
+                return;
+            }
+            scheduleSending();
+        }
+
+        private void scheduleSending() {
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        // Sends the buffered events one after the other. A send, which has not completed yet, keeps the subscriber in the
+        // sending state and continues from its completion, so events queue up in the bounded buffer meanwhile and a
+        // failed send is noticed, whenever it happens.
+        private void send() {
+            AsyncOperationEvent event;
+            while ((event = events.poll()) != null) {
+                if (sink.isClosed()) {
+                    close();
+                    return;
+                }
+                CompletableFuture<?> sent;
+                try {
+                    sent = sink.send(toOutboundEvent(event))
+                        .toCompletableFuture();
+                } catch (RuntimeException e) {
+                    LOGGER.warn(e.getMessage(), e);
+                    close();
+                    return;
+                }
+                if (!sent.isDone()) {
+                    sent.whenComplete((result, failure) -> {
+                        if (failure != null) {
+                            LOGGER.debug(failure.getMessage(), failure);
+                            close();
+                            return;
+                        }
+                        senders.execute(this::send);
+                    });
+                    return;
+                }
+                if (sent.isCompletedExceptionally()) {
+                    close();
+                    return;
+                }
+            }
+            sending.set(false);
+            // An event offered after the last poll has not scheduled sending, as the flag was still set
+            if (!events.isEmpty()) {
+                scheduleSending();
+            }
+        }
+
+        private OutboundSseEvent toOutboundEvent(AsyncOperationEvent event) {
+            return sse.newEventBuilder()
+                .name(EVENT_NAME)
+                .id(Long.toString(eventId.incrementAndGet()))
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(AsyncOperationEvent.class, event)
+                .build();
+        }
+
+        void close() {
+            subscribers.remove(this);
+            events.clear();
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                LOGGER.debug(e.getMessage(), e);
+            }
+        }
+
+    }
+
+}
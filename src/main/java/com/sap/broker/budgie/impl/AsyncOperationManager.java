@@ -1,22 +1,256 @@
 package com.sap.broker.budgie.impl;
 
-import com.sap.broker.budgie.helpers.AsyncOperation;
-import org.springframework.stereotype.Component;
-
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.helpers.AsyncOperation;
+import com.sap.broker.budgie.helpers.AsyncOperationExecutor;
+import com.sap.broker.budgie.helpers.AsyncOperationState;
+import com.sap.broker.budgie.helpers.BrokerClock;
 
 @Component
 public class AsyncOperationManager {
 
-    private Map<UUID, AsyncOperation> asyncOperations = new ConcurrentHashMap<>();
+    private static final long EVICTION_INTERVAL = TimeUnit.SECONDS.toMillis(1);
 
-    public synchronized AsyncOperation getOperation(UUID id) {
-        return asyncOperations.get(id);
+    private final long timeToLive;
+    private final int maxEntries;
+    private final int maxTombstones;
+    private final AsyncOperationEventBroadcaster eventBroadcaster;
+    private final AsyncOperationExecutor asyncOperationExecutor;
+    private final BrokerClock clock;
+
+    // The operations of every configuration are kept apart, so that dropping them does not touch the others. The
+    // eviction queues are shared and keep a reference to the partition, so entries of a dropped one just age out.
+    private ConcurrentMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private Queue<CompletedOperation> completedOperations = new ConcurrentLinkedQueue<>();
+    private Queue<Tombstone> tombstoneIds = new ConcurrentLinkedQueue<>();
+    private AtomicInteger completedOperationsCount = new AtomicInteger();
+    private AtomicInteger tombstonesCount = new AtomicInteger();
+    private AtomicInteger queuedTombstonesCount = new AtomicInteger();
+    private AtomicBoolean evicting = new AtomicBoolean();
+
+    @Inject
+    public AsyncOperationManager(ApplicationConfiguration configuration, AsyncOperationEventBroadcaster eventBroadcaster,
+        AsyncOperationExecutor asyncOperationExecutor, BrokerClock clock) {
+        this(configuration.getAsyncOperationTimeToLive(), configuration.getAsyncOperationMaxEntries(),
+            configuration.getAsyncOperationMaxTombstones(), eventBroadcaster, asyncOperationExecutor, clock);
+    }
+
+    public AsyncOperationManager(long timeToLive, int maxEntries, int maxTombstones, AsyncOperationEventBroadcaster eventBroadcaster,
+        AsyncOperationExecutor asyncOperationExecutor, BrokerClock clock) {
+        this.timeToLive = timeToLive;
+        this.maxEntries = maxEntries;
+        this.maxTombstones = maxTombstones;
+        this.eventBroadcaster = eventBroadcaster;
+        this.asyncOperationExecutor = asyncOperationExecutor;
+        this.clock = clock;
+        scheduleEviction();
     }
 
-    public synchronized void addOperation(UUID id, AsyncOperation asyncOperation) {
-        asyncOperations.put(id, asyncOperation);
+    public AsyncOperation getOperation(String configId, UUID id) {
+        Partition partition = partitions.get(configId);
+        return partition != null ? partition.asyncOperations.get(id) : null;
+    }
+
+    public AsyncOperationState getOperationState(String configId, UUID id) {
+        Partition partition = partitions.get(configId);
+        if (partition == null) {
+            return null;
+        }
+        AsyncOperation asyncOperation = partition.asyncOperations.get(id);
+        if (asyncOperation != null) {
+            return asyncOperation.getOperationState();
+        }
+        return partition.tombstones.get(id);
+    }
+
+    public void addOperation(String configId, UUID id, AsyncOperation asyncOperation) {
+        Partition partition = partitions.computeIfAbsent(configId, partitionId -> new Partition());
+        partition.asyncOperations.put(id, asyncOperation);
+        if (partition.tombstones.remove(id) != null) {
+            tombstonesCount.decrementAndGet();
+        }
+        eventBroadcaster.publish(asyncOperation);
+        asyncOperation.whenCompleted(completedOperation -> onCompletion(partition, id, completedOperation));
+        evict();
+    }
+
+    // Only removes the given operation, not one, which has replaced it since
+    public void removeOperation(String configId, UUID id, AsyncOperation asyncOperation) {
+        Partition partition = partitions.get(configId);
+        if (partition != null) {
+            partition.asyncOperations.remove(id, asyncOperation);
+        }
+    }
+
+    // Operations in progress still complete, but their state is no longer reported
+    public void deleteAll(String configId) {
+        partitions.remove(configId);
+    }
+
+    public Set<String> getConfigIds() {
+        return partitions.keySet();
+    }
+
+    public int getOperationsCount() {
+        return partitions.values()
+            .stream()
+            .mapToInt(partition -> partition.asyncOperations.size())
+            .sum();
+    }
+
+    public int getOperationsCount(String configId) {
+        Partition partition = partitions.get(configId);
+        return partition != null ? partition.asyncOperations.size() : 0;
+    }
+
+    public int getTombstonesCount() {
+        return partitions.values()
+            .stream()
+            .mapToInt(partition -> partition.tombstones.size())
+            .sum();
+    }
+
+    public int getTombstonesCount(String configId) {
+        Partition partition = partitions.get(configId);
+        return partition != null ? partition.tombstones.size() : 0;
+    }
+
+    private void onCompletion(Partition partition, UUID id, AsyncOperation asyncOperation) {
+        eventBroadcaster.publish(asyncOperation);
+        // Removed or replaced operations are not retained
+        if (partition.asyncOperations.get(id) != asyncOperation) {
+            return;
+        }
+        completedOperations.add(new CompletedOperation(partition, id, asyncOperation, clock.currentTimeMillis()));
+        completedOperationsCount.incrementAndGet();
+        evict();
+    }
+
+    // Operations also expire while no new ones are added or completed
+    private void scheduleEviction() {
+        try {
+            asyncOperationExecutor.schedule(() -> {
+                try {
+                    evict();
+                } finally {
+                    scheduleEviction();
+                }
+            }, EVICTION_INTERVAL);
+        } catch (IllegalStateException e) {
+            // The executor has been shut down
+        }
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            evictCompletedOperations(clock.currentTimeMillis());
+            evictTombstones();
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private void evictCompletedOperations(long now) {
+        CompletedOperation completedOperation;
+        while ((completedOperation = completedOperations.peek()) != null) {
+            if (completedOperationsCount.get() <= maxEntries && !completedOperation.isExpired(now, timeToLive)) {
+                return;
+            }
+            completedOperations.poll();
+            completedOperationsCount.decrementAndGet();
+            replaceWithTombstone(completedOperation.partition, completedOperation.id, completedOperation.asyncOperation);
+        }
+    }
+
+    private void replaceWithTombstone(Partition partition, UUID id, AsyncOperation asyncOperation) {
+        if (maxTombstones <= 0) {
+            partition.asyncOperations.remove(id, asyncOperation);
+            return;
+        }
+        AsyncOperationState state = asyncOperation.getOperationState();
+        if (partition.tombstones.put(id, state) != null) {
+            tombstonesCount.decrementAndGet();
+        }
+        if (!partition.asyncOperations.remove(id, asyncOperation)) {
+            partition.tombstones.remove(id, state);
+            return;
+        }
+        tombstoneIds.add(new Tombstone(partition, id, state));
+        tombstonesCount.incrementAndGet();
+        queuedTombstonesCount.incrementAndGet();
+    }
+
+    // Tombstones replaced by a new operation stay in the queue until they are polled, so the queue is bounded as well
+    private void evictTombstones() {
+        while (tombstonesCount.get() > maxTombstones || queuedTombstonesCount.get() > 2 * maxTombstones) {
+            Tombstone tombstone = tombstoneIds.poll();
+            if (tombstone == null) {
+                return;
+            }
+            queuedTombstonesCount.decrementAndGet();
+            // Only the tombstone queued here is dropped, not a newer one for the same id
+            if (tombstone.partition.tombstones.remove(tombstone.id, tombstone.state)) {
+                tombstonesCount.decrementAndGet();
+            }
+        }
+    }
+
+    private static class Partition {
+
+        private final Map<UUID, AsyncOperation> asyncOperations = new ConcurrentHashMap<>();
+        private final Map<UUID, AsyncOperationState> tombstones = new ConcurrentHashMap<>();
+
+    }
+
+    private static class Tombstone {
+
+        private final Partition partition;
+        private final UUID id;
+        private final AsyncOperationState state;
+
+        Tombstone(Partition partition, UUID id, AsyncOperationState state) {
+            this.partition = partition;
+            this.id = id;
+            this.state = state;
+        }
+
+    }
+
+    private static class CompletedOperation {
+
+        private final Partition partition;
+        private final UUID id;
+        private final AsyncOperation asyncOperation;
+        private final long completionTime;
+
+        CompletedOperation(Partition partition, UUID id, AsyncOperation asyncOperation, long completionTime) {
+            this.partition = partition;
+            this.id = id;
+            this.asyncOperation = asyncOperation;
+            this.completionTime = completionTime;
+        }
+
+        boolean isExpired(long now, long timeToLive) {
+            return completionTime + timeToLive <= now;
+        }
+
     }
 }
@@ -0,0 +1,158 @@
+package com.sap.broker.budgie.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.UUID;
+
+import com.google.gson.Gson;
+import com.sap.broker.budgie.configuration.behavior.ServiceBrokerConfiguration;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+
+// Binary encoding of the changes to the broker state, shared by the journal and snapshots. Every change starts with
+// its type, ids are written as two longs, and strings and objects as length-prefixed UTF-8. Changes of service instances
+// start with the id of the configuration, whose partition they belong to.
+class ChangeCodec {
+
+    static final byte SERVICE_INSTANCE = 1;
+    static final byte SERVICE_INSTANCE_DELETION = 2;
+    static final byte BINDING = 3;
+    static final byte UNBINDING = 4;
+    static final byte CONFIGURATION = 5;
+    static final byte CONFIGURATION_REMOVAL = 6;
+    static final byte RESTORE = 7;
+    static final byte PARTITION_DELETION = 8;
+
+    private final Gson gson;
+
+    ChangeCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    byte[] encodeServiceInstance(String configId, ServiceInstance serviceInstance) {
+        byte[] configIdBytes = toBytes(configId);
+        byte[] json = toJson(serviceInstance);
+        return putBytes(putBytes(ByteBuffer.allocate(1 + 4 + configIdBytes.length + 4 + json.length)
+            .put(SERVICE_INSTANCE), configIdBytes), json).array();
+    }
+
+    byte[] encodeServiceInstanceDeletion(String configId, UUID id) {
+        byte[] configIdBytes = toBytes(configId);
+        ByteBuffer body = putBytes(ByteBuffer.allocate(1 + 4 + configIdBytes.length + 16)
+            .put(SERVICE_INSTANCE_DELETION), configIdBytes);
+        return putUuid(body, id).array();
+    }
+
+    byte[] encodeBinding(String configId, UUID id, UUID bindingId, BindingMetadata binding) {
+        byte[] configIdBytes = toBytes(configId);
+        byte[] json = toJson(binding);
+        ByteBuffer body = putBytes(ByteBuffer.allocate(1 + 4 + configIdBytes.length + 16 + 16 + 4 + json.length)
+            .put(BINDING), configIdBytes);
+        return putBytes(putUuid(putUuid(body, id), bindingId), json).array();
+    }
+
+    byte[] encodeUnbinding(String configId, UUID id, UUID bindingId) {
+        byte[] configIdBytes = toBytes(configId);
+        ByteBuffer body = putBytes(ByteBuffer.allocate(1 + 4 + configIdBytes.length + 16 + 16)
+            .put(UNBINDING), configIdBytes);
+        return putUuid(putUuid(body, id), bindingId).array();
+    }
+
+    byte[] encodePartitionDeletion(String configId) {
+        return encodeString(PARTITION_DELETION, configId);
+    }
+
+    byte[] encodeConfiguration(String id, ServiceBrokerConfiguration configuration) {
+        byte[] idBytes = toBytes(id);
+        byte[] json = toJson(configuration);
+        return putBytes(putBytes(ByteBuffer.allocate(1 + 4 + idBytes.length + 4 + json.length)
+            .put(CONFIGURATION), idBytes), json).array();
+    }
+
+    byte[] encodeConfigurationRemoval(String id) {
+        return encodeString(CONFIGURATION_REMOVAL, id);
+    }
+
+    byte[] encodeRestore(String snapshot) {
+        return encodeString(RESTORE, snapshot);
+    }
+
+    static byte getType(ByteBuffer body) {
+        return body.get(body.position());
+    }
+
+    String decodeRestore(ByteBuffer body) {
+        body.get();
+        return getString(body);
+    }
+
+    void decode(ByteBuffer body, ChangeListener listener) {
+        byte type = body.get();
+        switch (type) {
+            case SERVICE_INSTANCE:
+                String configId = getString(body);
+                listener.onServiceInstance(configId, gson.fromJson(getString(body), ServiceInstance.class));
+                break;
+            case SERVICE_INSTANCE_DELETION:
+                listener.onServiceInstanceDeletion(getString(body), getUuid(body));
+                break;
+            case BINDING:
+                configId = getString(body);
+                UUID id = getUuid(body);
+                UUID bindingId = getUuid(body);
+                listener.onBinding(configId, id, bindingId, gson.fromJson(getString(body), BindingMetadata.class));
+                break;
+            case UNBINDING:
+                listener.onUnbinding(getString(body), getUuid(body), getUuid(body));
+                break;
+            case PARTITION_DELETION:
+                listener.onPartitionDeletion(getString(body));
+                break;
+            case CONFIGURATION:
+                configId = getString(body);
+                listener.onConfiguration(configId, gson.fromJson(getString(body), ServiceBrokerConfiguration.class));
+                break;
+            case CONFIGURATION_REMOVAL:
+                listener.onConfigurationRemoval(getString(body));
+                break;
+            default:
+                throw new IllegalArgumentException(MessageFormat.format("Unknown change type {0}!", type));
+        }
+    }
+
+    private byte[] toJson(Object object) {
+        return toBytes(gson.toJson(object));
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeString(byte type, String value) {
+        byte[] bytes = toBytes(value);
+        return putBytes(ByteBuffer.allocate(1 + 4 + bytes.length)
+            .put(type), bytes).array();
+    }
+
+    private static ByteBuffer putBytes(ByteBuffer buffer, byte[] bytes) {
+        return buffer.putInt(bytes.length)
+            .put(bytes);
+    }
+
+    private static ByteBuffer putUuid(ByteBuffer buffer, UUID uuid) {
+        return buffer.putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.sap.broker.budgie.impl;
+
+import java.util.UUID;
+
+import com.sap.broker.budgie.configuration.behavior.ServiceBrokerConfiguration;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+
+public interface ChangeListener {
+
+    void onServiceInstance(String configId, ServiceInstance serviceInstance);
+
+    void onServiceInstanceDeletion(String configId, UUID id);
+
+    void onBinding(String configId, UUID id, UUID bindingId, BindingMetadata binding);
+
+    void onUnbinding(String configId, UUID id, UUID bindingId);
+
+    void onPartitionDeletion(String configId);
+
+    void onConfiguration(String id, ServiceBrokerConfiguration configuration);
+
+    void onConfigurationRemoval(String id);
+
+}
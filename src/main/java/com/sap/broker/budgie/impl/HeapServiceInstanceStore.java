@@ -0,0 +1,80 @@
+package com.sap.broker.budgie.impl;
+
+import java.text.MessageFormat;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.exception.NotFoundException;
+
+public class HeapServiceInstanceStore implements ServiceInstanceStore {
+
+    // Ordered by id, so that listing can be resumed from any id without copying the instances
+    private ConcurrentNavigableMap<UUID, ServiceInstance> serviceInstances = new ConcurrentSkipListMap<>();
+
+    @Override
+    public ServiceInstance get(UUID id) {
+        return serviceInstances.get(id);
+    }
+
+    @Override
+    public ServiceInstance put(ServiceInstance serviceInstance) {
+        return serviceInstances.put(serviceInstance.getId(), serviceInstance);
+    }
+
+    @Override
+    public ServiceInstance remove(UUID id) {
+        return serviceInstances.remove(id);
+    }
+
+    @Override
+    public long getFingerprint(UUID id) {
+        ServiceInstance serviceInstance = serviceInstances.get(id);
+        return serviceInstance != null ? serviceInstance.getFingerprint() : 0;
+    }
+
+    @Override
+    public Stream<ServiceInstance> getAll(UUID after) {
+        ConcurrentNavigableMap<UUID, ServiceInstance> instances = after != null ? serviceInstances.tailMap(after, false) : serviceInstances;
+        return instances.values()
+            .stream();
+    }
+
+    @Override
+    public Stream<UUID> getIds() {
+        return serviceInstances.keySet()
+            .stream();
+    }
+
+    @Override
+    public int size() {
+        return serviceInstances.size();
+    }
+
+    @Override
+    public BindingMetadata bindIfAbsent(UUID id, UUID bindingId, BindingMetadata binding) {
+        return getRequired(id).bindIfAbsent(bindingId, binding);
+    }
+
+    @Override
+    public BindingMetadata unbind(UUID id, UUID bindingId) {
+        return getRequired(id).unbind(bindingId);
+    }
+
+    @Override
+    public ServiceInstanceStore createEmpty() {
+        return new HeapServiceInstanceStore();
+    }
+
+    private ServiceInstance getRequired(UUID id) {
+        ServiceInstance serviceInstance = serviceInstances.get(id);
+        if (serviceInstance == null) {
+            throw new NotFoundException(MessageFormat.format("Service instance \"{0}\" not found!", id));
+        }
+        return serviceInstance;
+    }
+
+}
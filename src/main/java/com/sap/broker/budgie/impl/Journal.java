@@ -0,0 +1,528 @@
+package com.sap.broker.budgie.impl;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.google.gson.Gson;
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.configuration.behavior.ServiceBrokerConfiguration;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+
+@Component
+public class Journal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d{10})\\.log");
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_BATCH_SIZE = 4096;
+    private static final long IDLE_POLL_TIMEOUT = 1000;
+
+    private static final Entry STOP = new Entry(new byte[0], null, null);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncInterval;
+    private final ChangeCodec codec;
+    private final BlockingQueue<Entry> pending = new LinkedBlockingQueue<>();
+    private final List<Capture> captures = new CopyOnWriteArrayList<>();
+    private volatile boolean replaying;
+    private Thread writerThread;
+
+    // Accessed only by the writer thread, once recovery has finished
+    private long segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private boolean dirty;
+    private long lastForce = System.nanoTime();
+    // The snapshot of the last restore, which is deleted once another restore has replaced it
+    private Path restoredSnapshot;
+
+    @Inject
+    public Journal(ApplicationConfiguration configuration, Gson gson) {
+        this(configuration.getJournalDirectory() != null ? Paths.get(configuration.getJournalDirectory()) : null,
+            configuration.getJournalSegmentSize(), getFsyncPolicy(configuration.getJournalFsync()), configuration.getJournalFsyncInterval(),
+            gson);
+    }
+
+    public Journal(Path directory, int segmentSize, FsyncPolicy fsyncPolicy, long fsyncInterval, Gson gson) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncInterval = fsyncInterval;
+        this.codec = new ChangeCodec(gson);
+    }
+
+    private static FsyncPolicy getFsyncPolicy(String fsyncPolicy) {
+        try {
+            return FsyncPolicy.valueOf(fsyncPolicy.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(MessageFormat.format("Unknown journal fsync policy \"{0}\"!", fsyncPolicy));
+        }
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    public void appendServiceInstance(String configId, ServiceInstance serviceInstance) {
+        if (isAppending()) {
+            append(codec.encodeServiceInstance(configId, serviceInstance));
+        }
+    }
+
+    public void appendServiceInstanceDeletion(String configId, UUID id) {
+        if (isAppending()) {
+            append(codec.encodeServiceInstanceDeletion(configId, id));
+        }
+    }
+
+    public void appendBinding(String configId, UUID id, UUID bindingId, BindingMetadata binding) {
+        if (isAppending()) {
+            append(codec.encodeBinding(configId, id, bindingId, binding));
+        }
+    }
+
+    public void appendUnbinding(String configId, UUID id, UUID bindingId) {
+        if (isAppending()) {
+            append(codec.encodeUnbinding(configId, id, bindingId));
+        }
+    }
+
+    public void appendPartitionDeletion(String configId) {
+        if (isAppending()) {
+            append(codec.encodePartitionDeletion(configId));
+        }
+    }
+
+    public void appendConfiguration(String id, ServiceBrokerConfiguration configuration) {
+        if (isAppending()) {
+            append(codec.encodeConfiguration(id, configuration));
+        }
+    }
+
+    public void appendConfigurationRemoval(String id) {
+        if (isAppending()) {
+            append(codec.encodeConfigurationRemoval(id));
+        }
+    }
+
+    // Records that the whole state has been replaced by a snapshot, which has been created with newSnapshotPath()
+    public void appendRestore(Path snapshot) {
+        if (isEnabled() && !replaying) {
+            append(codec.encodeRestore(snapshot.getFileName()
+                .toString()), snapshot);
+        }
+    }
+
+    public Path newSnapshotPath() throws IOException {
+        Files.createDirectories(directory);
+        return directory.resolve("snapshot-" + UUID.randomUUID() + ".bin");
+    }
+
+    // Collects all changes appended from now on until the capture is closed, even if the journal is disabled
+    public Capture capture() {
+        Capture capture = new Capture();
+        captures.add(capture);
+        return capture;
+    }
+
+    // Replays all journaled changes to the listener and starts accepting new entries. Changes made by the listener
+    // itself are not journaled again. A restore starts a segment of its own and replaces everything before it, so replay
+    // starts from the last segment, which starts with a restore, and the ones before it are deleted.
+    public void recover(Listener listener) throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        Files.createDirectories(directory);
+        long start = System.nanoTime();
+        long entries = 0;
+        int position = 0;
+        List<Long> segmentNumbers = getSegmentNumbers();
+        int firstSegment = getLastRestoreSegment(segmentNumbers);
+        deleteSegments(segmentNumbers.subList(0, firstSegment));
+        segmentNumbers = new ArrayList<>(segmentNumbers.subList(firstSegment, segmentNumbers.size()));
+        replaying = true;
+        try {
+            for (int i = 0; i < segmentNumbers.size(); i++) {
+                Path segmentPath = getSegmentPath(segmentNumbers.get(i));
+                try (FileChannel readChannel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+                    ByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                    entries += replay(buffer, listener);
+                    position = buffer.position();
+                    // A segment is only rolled over once all of its entries have been written, so only the last one may end
+                    // with an entry, which has not been fully written. Anywhere else, the changes after it would be
+                    // applied without the lost ones.
+                    if (i < segmentNumbers.size() - 1 && !isZeroed(buffer)) {
+                        throw new IOException(MessageFormat.format("Journal segment \"{0}\" is damaged at offset {1}!", segmentPath,
+                            Integer.toString(position)));
+                    }
+                }
+            }
+        } finally {
+            replaying = false;
+        }
+        LOGGER.info("Replayed {} journal entries from {} segments in {} ms", entries, segmentNumbers.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (!segmentNumbers.isEmpty()) {
+            openSegment(segmentNumbers.get(segmentNumbers.size() - 1), 0);
+            truncate(position);
+        }
+        writerThread = new Thread(this::write, "journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writerThread != null) {
+            pending.add(STOP);
+            writerThread.join();
+            writerThread = null;
+        }
+    }
+
+    private boolean isAppending() {
+        return isEnabled() && !replaying || !captures.isEmpty();
+    }
+
+    // Only the encoding is done by the caller. The entry is written and synced by the writer thread, together with
+    // all other entries, which have been appended meanwhile. Callers wait for that only if every change must be durable.
+    private void append(byte[] body) {
+        append(body, null);
+    }
+
+    private void append(byte[] body, Path snapshot) {
+        for (Capture capture : captures) {
+            capture.add(body);
+        }
+        if (!isEnabled() || replaying) {
+            return;
+        }
+        Entry entry = new Entry(body, fsyncPolicy == FsyncPolicy.ALWAYS ? new CompletableFuture<>() : null, snapshot);
+        pending.add(entry);
+        if (entry.committed != null) {
+            try {
+                entry.committed.join();
+            } catch (CompletionException e) {
+                throw new IllegalStateException(MessageFormat.format("Could not write to journal \"{0}\"!", directory), e.getCause());
+            }
+        }
+    }
+
+    private long replay(ByteBuffer buffer, Listener listener) throws IOException {
+        long entries = 0;
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            // A zero length marks the end of the segment, anything invalid is an entry which has not been fully written
+            if (length <= 0 || length > buffer.remaining() || checksum != checksum(crc, buffer, length)) {
+                buffer.position(start);
+                break;
+            }
+            ByteBuffer body = buffer.slice();
+            body.limit(length);
+            buffer.position(buffer.position() + length);
+            if (ChangeCodec.getType(body) == ChangeCodec.RESTORE) {
+                restoredSnapshot = directory.resolve(codec.decodeRestore(body));
+                listener.onRestore(restoredSnapshot);
+            } else {
+                codec.decode(body, listener);
+            }
+            entries++;
+        }
+        return entries;
+    }
+
+    private static boolean isZeroed(ByteBuffer buffer) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int checksum(CRC32 crc, ByteBuffer buffer, int length) {
+        ByteBuffer body = buffer.slice();
+        body.limit(length);
+        crc.reset();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private void write() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        boolean stopped = false;
+        while (!stopped) {
+            Entry entry = poll();
+            if (entry != null) {
+                batch.add(entry);
+                pending.drainTo(batch, MAX_BATCH_SIZE - 1);
+            }
+            stopped = batch.remove(STOP);
+            try {
+                for (Entry batchEntry : batch) {
+                    write(batchEntry);
+                }
+                if (shouldForce(stopped)) {
+                    force();
+                }
+                complete(batch, null);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error(MessageFormat.format("Could not write to journal \"{0}\": {1}", directory, e.getMessage()), e);
+                complete(batch, e);
+            }
+            batch.clear();
+        }
+        close();
+    }
+
+    private Entry poll() {
+        try {
+            return pending.poll(fsyncPolicy == FsyncPolicy.INTERVAL ? fsyncInterval : IDLE_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+            return STOP;
+        }
+    }
+
+    private void write(Entry entry) throws IOException {
+        if (entry.snapshot == null) {
+            write(entry.body);
+            return;
+        }
+        roll(entry.body.length);
+        write(entry.body);
+        // The older segments and snapshot are only deleted, once the restore, which replaces them, is on disk
+        force();
+        deleteSegments(getSegmentNumbers().stream()
+            .filter(number -> number < segmentNumber)
+            .collect(Collectors.toList()));
+        if (restoredSnapshot != null && !restoredSnapshot.equals(entry.snapshot)) {
+            delete(restoredSnapshot);
+        }
+        restoredSnapshot = entry.snapshot;
+    }
+
+    private void write(byte[] body) throws IOException {
+        if (segment == null || segment.remaining() < HEADER_SIZE + body.length) {
+            roll(body.length);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        segment.putInt(body.length)
+            .putInt((int) crc.getValue())
+            .put(body);
+        dirty = true;
+    }
+
+    private boolean shouldForce(boolean stopped) {
+        if (!dirty || fsyncPolicy == FsyncPolicy.NEVER) {
+            return false;
+        }
+        return fsyncPolicy == FsyncPolicy.ALWAYS || stopped
+            || System.nanoTime() - lastForce >= TimeUnit.MILLISECONDS.toNanos(fsyncInterval);
+    }
+
+    private void force() {
+        segment.force();
+        dirty = false;
+        lastForce = System.nanoTime();
+    }
+
+    private static void complete(List<Entry> batch, Throwable failure) {
+        for (Entry entry : batch) {
+            if (entry.committed == null) {
+                continue;
+            }
+            if (failure == null) {
+                entry.committed.complete(null);
+            } else {
+                entry.committed.completeExceptionally(failure);
+            }
+        }
+    }
+
+    // Entries larger than a segment get a segment of their own
+    private void roll(int length) throws IOException {
+        if (segment != null) {
+            if (dirty && fsyncPolicy != FsyncPolicy.NEVER) {
+                force();
+            }
+            channel.close();
+        }
+        openSegment(segmentNumber + 1, Math.max(segmentSize, HEADER_SIZE + length));
+    }
+
+    private void openSegment(long number, int size) throws IOException {
+        channel = FileChannel.open(getSegmentPath(number), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+        segmentNumber = number;
+        dirty = false;
+    }
+
+    // Clears what is left of an entry, which has not been fully written, so that it is not taken for the end of the
+    // entries appended after it
+    private void truncate(int position) {
+        segment.position(position);
+        while (segment.hasRemaining()) {
+            segment.put((byte) 0);
+        }
+        segment.position(position);
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            segment.force();
+        }
+    }
+
+    private void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warn(e.getMessage(), e);
+        }
+    }
+
+    // The index of the last segment, which starts with a restore, or 0 if there is none
+    private int getLastRestoreSegment(List<Long> segmentNumbers) throws IOException {
+        for (int i = segmentNumbers.size() - 1; i > 0; i--) {
+            try (FileChannel readChannel = FileChannel.open(getSegmentPath(segmentNumbers.get(i)), StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 1);
+                readChannel.read(header, 0);
+                if (!header.hasRemaining() && header.getInt(0) > 0 && header.get(HEADER_SIZE) == ChangeCodec.RESTORE) {
+                    return i;
+                }
+            }
+        }
+        return 0;
+    }
+
+    // Entries before a restore are never replayed, so failing to delete them only costs disk space
+    private void deleteSegments(List<Long> segmentNumbers) {
+        for (long number : segmentNumbers) {
+            delete(getSegmentPath(number));
+        }
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn(MessageFormat.format("Could not delete \"{0}\": {1}", file, e.getMessage()), e);
+        }
+    }
+
+    private List<Long> getSegmentNumbers() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> SEGMENT_NAME.matcher(file.getFileName()
+                .toString()))
+                .filter(Matcher::matches)
+                .map(matcher -> Long.parseLong(matcher.group(1)))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private Path getSegmentPath(long number) {
+        return directory.resolve(String.format("journal-%010d.log", number));
+    }
+
+    public enum FsyncPolicy {
+        // Leaves syncing to the operating system
+        NEVER,
+        // Syncs the entries written within an interval together
+        INTERVAL,
+        // Syncs every group of entries before the changes in it are acknowledged
+        ALWAYS
+    }
+
+    public interface Listener extends ChangeListener {
+
+        void onRestore(Path snapshot) throws IOException;
+
+    }
+
+    public final class Capture implements AutoCloseable {
+
+        private final Queue<byte[]> changes = new ConcurrentLinkedQueue<>();
+        private boolean closed;
+
+        private Capture() {
+        }
+
+        private synchronized void add(byte[] change) {
+            if (!closed) {
+                changes.add(change);
+            }
+        }
+
+        // Changes, which are appended after the capture has been closed, are not collected
+        public List<byte[]> getChanges() {
+            return new ArrayList<>(changes);
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+            }
+            captures.remove(this);
+        }
+
+    }
+
+    private static final class Entry {
+
+        private final byte[] body;
+        private final CompletableFuture<Void> committed;
+        // Only set for a restore
+        private final Path snapshot;
+
+        Entry(byte[] body, CompletableFuture<Void> committed, Path snapshot) {
+            this.body = body;
+            this.committed = committed;
+            this.snapshot = snapshot;
+        }
+
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.sap.broker.budgie.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.sap.broker.budgie.configuration.behavior.ConfigurationManager;
+import com.sap.broker.budgie.configuration.behavior.ServiceBrokerConfiguration;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.exception.NotFoundException;
+
+@Component
+public class JournalRecovery implements Journal.Listener {
+
+    private Journal journal;
+    private ServiceBroker serviceBroker;
+    private ConfigurationManager configurationManager;
+    private SnapshotManager snapshotManager;
+
+    @Inject
+    public JournalRecovery(Journal journal, ServiceBroker serviceBroker, ConfigurationManager configurationManager,
+        SnapshotManager snapshotManager) {
+        this.journal = journal;
+        this.serviceBroker = serviceBroker;
+        this.configurationManager = configurationManager;
+        this.snapshotManager = snapshotManager;
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        journal.recover(this);
+    }
+
+    @Override
+    public void onServiceInstance(String configId, ServiceInstance serviceInstance) {
+        serviceBroker.update(configId, serviceInstance);
+    }
+
+    // Only changes which have succeeded are journaled, so instances are missing only if a damaged part of the journal
+    // has been skipped. That should not keep the broker from starting.
+    @Override
+    public void onServiceInstanceDeletion(String configId, UUID id) {
+        try {
+            serviceBroker.delete(configId, id);
+        } catch (NotFoundException e) {
+            // Already deleted
+        }
+    }
+
+    @Override
+    public void onBinding(String configId, UUID id, UUID bindingId, BindingMetadata binding) {
+        try {
+            serviceBroker.bindIfAbsent(configId, id, bindingId, binding);
+        } catch (NotFoundException e) {
+            // Already deleted
+        }
+    }
+
+    @Override
+    public void onUnbinding(String configId, UUID id, UUID bindingId) {
+        try {
+            serviceBroker.unbind(configId, id, bindingId);
+        } catch (NotFoundException e) {
+            // Already deleted
+        }
+    }
+
+    @Override
+    public void onPartitionDeletion(String configId) {
+        serviceBroker.deleteAll(configId);
+    }
+
+    @Override
+    public void onConfiguration(String id, ServiceBrokerConfiguration configuration) {
+        configurationManager.addConfiguration(id, configuration);
+    }
+
+    @Override
+    public void onConfigurationRemoval(String id) {
+        configurationManager.removeConfiguration(id);
+    }
+
+    @Override
+    public void onRestore(Path snapshot) throws IOException {
+        snapshotManager.importSnapshot(snapshot);
+    }
+
+}
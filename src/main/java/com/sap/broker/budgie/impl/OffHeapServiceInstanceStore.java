@@ -0,0 +1,617 @@
+package com.sap.broker.budgie.impl;
+
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.exception.NotFoundException;
+
+// Keeps ids as primitive longs in an open addressing table and everything else as serialized records in direct buffers, so that
+// millions of service instances cost the garbage collector only a few large arrays. Service instances are materialized on read.
+public class OffHeapServiceInstanceStore implements ServiceInstanceStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double MAX_LOAD_FACTOR = 0.6;
+    private static final int MIN_SIZE_CLASS = 6;
+    private static final int BATCH_SIZE = 256;
+    private static final long EMPTY = 0;
+    private static final byte HAS_SERVICE_ID = 1;
+    private static final byte HAS_PLAN_ID = 2;
+    private static final int NULL_LENGTH = -1;
+    // The fingerprint follows the length and the flags of a record
+    private static final int FINGERPRINT_OFFSET = Integer.BYTES + Byte.BYTES;
+    private static final Type PARAMETERS_TYPE = new TypeToken<Map<String, Object>>() {
+    }.getType();
+    private static final Type BINDINGS_TYPE = new TypeToken<Map<UUID, BindingMetadata>>() {
+    }.getType();
+
+    private final Gson gson;
+    private final int slabSize;
+    private final int maxSizeClass;
+    // Every store hashes differently, so that the entries listed from one store do not arrive in the order of their home
+    // slots when they are put into another, which would pile them up in a single cluster
+    private final long seed = ThreadLocalRandom.current()
+        .nextLong();
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    // Linear probing table, in which the home slot of an id is given by the top bits of its hash and every cluster is sorted by
+    // (hash, id). Therefore the whole table is sorted, which keeps listing stable across inserts, removals and resizes.
+    private long[] mostSignificantBits;
+    private long[] leastSignificantBits;
+    private long[] addresses;
+    private int capacity;
+    private int shift;
+    private int size;
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final LongStack[] freeRecords;
+    private int slabPosition;
+    private long usedBytes;
+
+    public OffHeapServiceInstanceStore(Gson gson, int slabSize) {
+        if (slabSize < 1 << MIN_SIZE_CLASS) {
+            throw new IllegalArgumentException("Slab size must be at least " + (1 << MIN_SIZE_CLASS) + " bytes: " + slabSize);
+        }
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        this.gson = gson;
+        this.slabSize = slabSize;
+        this.maxSizeClass = 31 - Integer.numberOfLeadingZeros(slabSize);
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+        this.freeRecords = new LongStack[maxSizeClass + 1];
+        for (int i = MIN_SIZE_CLASS; i <= maxSizeClass; i++) {
+            freeRecords[i] = new LongStack();
+        }
+        resize(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public ServiceInstance get(UUID id) {
+        readLock.lock();
+        try {
+            int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return slot >= 0 ? materialize(slot) : null;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public ServiceInstance put(ServiceInstance serviceInstance) {
+        Record record = new Record(serviceInstance.getServiceId(), serviceInstance.getPlanId(), serviceInstance.getFingerprint(),
+            serviceInstance.getCreatedAt(), toJson(serviceInstance.getParameters()), toJson(serviceInstance.getBindings()));
+        long mostSignificantBits = serviceInstance.getId()
+            .getMostSignificantBits();
+        long leastSignificantBits = serviceInstance.getId()
+            .getLeastSignificantBits();
+        writeLock.lock();
+        try {
+            int slot = find(mostSignificantBits, leastSignificantBits);
+            if (slot >= 0) {
+                ServiceInstance previousServiceInstance = materialize(slot);
+                replace(slot, record);
+                return previousServiceInstance;
+            }
+            long address = write(record);
+            while (!insert(-slot - 1, mostSignificantBits, leastSignificantBits, address)) {
+                resize(capacity * 2);
+                slot = find(mostSignificantBits, leastSignificantBits);
+            }
+            if (++size > capacity * MAX_LOAD_FACTOR) {
+                resize(capacity * 2);
+            }
+            return null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public ServiceInstance remove(UUID id) {
+        writeLock.lock();
+        try {
+            int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot < 0) {
+                return null;
+            }
+            ServiceInstance serviceInstance = materialize(slot);
+            free(addresses[slot]);
+            removeSlot(slot);
+            size--;
+            return serviceInstance;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long getFingerprint(UUID id) {
+        readLock.lock();
+        try {
+            int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot < 0) {
+                return 0;
+            }
+            ByteBuffer buffer = getRecordBuffer(addresses[slot]);
+            return buffer.getLong(buffer.position() + FINGERPRINT_OFFSET);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Stream<ServiceInstance> getAll(UUID after) {
+        return stream(new BatchIterator<ServiceInstance>(after) {
+
+            @Override
+            protected ServiceInstance readSlot(int slot) {
+                return materialize(slot);
+            }
+
+        });
+    }
+
+    @Override
+    public Stream<UUID> getIds() {
+        return stream(new BatchIterator<UUID>(null) {
+
+            @Override
+            protected UUID readSlot(int slot) {
+                return new UUID(mostSignificantBits[slot], leastSignificantBits[slot]);
+            }
+
+        });
+    }
+
+    @Override
+    public int size() {
+        readLock.lock();
+        try {
+            return size;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public BindingMetadata bindIfAbsent(UUID id, UUID bindingId, BindingMetadata binding) {
+        binding.setId(bindingId);
+        writeLock.lock();
+        try {
+            int slot = findRequired(id);
+            Record record = read(addresses[slot]);
+            Map<UUID, BindingMetadata> bindings = fromJson(record.bindings, BINDINGS_TYPE);
+            if (bindings == null) {
+                bindings = new HashMap<>();
+            }
+            BindingMetadata existingBinding = bindings.putIfAbsent(bindingId, binding);
+            if (existingBinding == null) {
+                replace(slot, record.withBindings(toJson(bindings)));
+            }
+            return existingBinding;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public BindingMetadata unbind(UUID id, UUID bindingId) {
+        writeLock.lock();
+        try {
+            int slot = findRequired(id);
+            Record record = read(addresses[slot]);
+            Map<UUID, BindingMetadata> bindings = fromJson(record.bindings, BINDINGS_TYPE);
+            BindingMetadata binding = bindings != null ? bindings.remove(bindingId) : null;
+            if (binding != null) {
+                replace(slot, record.withBindings(toJson(bindings)));
+            }
+            return binding;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public ServiceInstanceStore createEmpty() {
+        return new OffHeapServiceInstanceStore(gson, slabSize);
+    }
+
+    public long getAllocatedBytes() {
+        readLock.lock();
+        try {
+            return (long) slabs.size() * slabSize;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public long getUsedBytes() {
+        readLock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private int findRequired(UUID id) {
+        int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (slot < 0) {
+            throw new NotFoundException(MessageFormat.format("Service instance \"{0}\" not found!", id));
+        }
+        return slot;
+    }
+
+    // Returns the slot of the id or, if it is absent, (-(insertion slot) - 1)
+    private int find(long mostSignificantBits, long leastSignificantBits) {
+        long hash = hash(mostSignificantBits, leastSignificantBits);
+        int slot = home(hash);
+        while (slot < addresses.length && addresses[slot] != EMPTY) {
+            int result = compare(slot, hash, mostSignificantBits, leastSignificantBits);
+            if (result == 0) {
+                return slot;
+            }
+            if (result > 0) {
+                break;
+            }
+            slot++;
+        }
+        return -slot - 1;
+    }
+
+    // Returns the first occupied slot, whose entry is ordered after the id
+    private int findNext(long mostSignificantBits, long leastSignificantBits) {
+        long hash = hash(mostSignificantBits, leastSignificantBits);
+        int slot = home(hash);
+        while (slot < addresses.length && (addresses[slot] == EMPTY || compare(slot, hash, mostSignificantBits, leastSignificantBits) <= 0)) {
+            slot++;
+        }
+        return slot;
+    }
+
+    private boolean insert(int slot, long mostSignificantBits, long leastSignificantBits, long address) {
+        int emptySlot = slot;
+        while (emptySlot < addresses.length && addresses[emptySlot] != EMPTY) {
+            emptySlot++;
+        }
+        if (emptySlot == addresses.length) {
+            return false;
+        }
+        int length = emptySlot - slot;
+        System.arraycopy(this.mostSignificantBits, slot, this.mostSignificantBits, slot + 1, length);
+        System.arraycopy(this.leastSignificantBits, slot, this.leastSignificantBits, slot + 1, length);
+        System.arraycopy(addresses, slot, addresses, slot + 1, length);
+        this.mostSignificantBits[slot] = mostSignificantBits;
+        this.leastSignificantBits[slot] = leastSignificantBits;
+        addresses[slot] = address;
+        return true;
+    }
+
+    // Shifts the rest of the cluster back, so that no entry is separated from its home slot by an empty slot
+    private void removeSlot(int slot) {
+        int hole = slot;
+        int next = slot + 1;
+        while (next < addresses.length && addresses[next] != EMPTY && home(hash(mostSignificantBits[next], leastSignificantBits[next])) <= hole) {
+            mostSignificantBits[hole] = mostSignificantBits[next];
+            leastSignificantBits[hole] = leastSignificantBits[next];
+            addresses[hole] = addresses[next];
+            hole = next++;
+        }
+        addresses[hole] = EMPTY;
+    }
+
+    private void replace(int slot, Record record) {
+        long address = write(record);
+        free(addresses[slot]);
+        addresses[slot] = address;
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldMostSignificantBits = mostSignificantBits;
+        long[] oldLeastSignificantBits = leastSignificantBits;
+        long[] oldAddresses = addresses;
+        while (true) {
+            int newShift = Long.SIZE - Integer.numberOfTrailingZeros(newCapacity);
+            int length = newCapacity + Math.max(newCapacity / 16, 64);
+            mostSignificantBits = new long[length];
+            leastSignificantBits = new long[length];
+            addresses = new long[length];
+            capacity = newCapacity;
+            shift = newShift;
+            if (oldAddresses == null || copy(oldMostSignificantBits, oldLeastSignificantBits, oldAddresses)) {
+                return;
+            }
+            newCapacity *= 2;
+        }
+    }
+
+    // Entries are copied in their order, so every entry is placed at its home slot or right after the previous entry
+    private boolean copy(long[] oldMostSignificantBits, long[] oldLeastSignificantBits, long[] oldAddresses) {
+        int previousSlot = -1;
+        for (int i = 0; i < oldAddresses.length; i++) {
+            if (oldAddresses[i] == EMPTY) {
+                continue;
+            }
+            int slot = Math.max(home(hash(oldMostSignificantBits[i], oldLeastSignificantBits[i])), previousSlot + 1);
+            if (slot >= addresses.length) {
+                return false;
+            }
+            mostSignificantBits[slot] = oldMostSignificantBits[i];
+            leastSignificantBits[slot] = oldLeastSignificantBits[i];
+            addresses[slot] = oldAddresses[i];
+            previousSlot = slot;
+        }
+        return true;
+    }
+
+    private int home(long hash) {
+        return (int) (hash >>> shift);
+    }
+
+    private int compare(int slot, long hash, long mostSignificantBits, long leastSignificantBits) {
+        int result = Long.compareUnsigned(hash(this.mostSignificantBits[slot], this.leastSignificantBits[slot]), hash);
+        if (result != 0) {
+            return result;
+        }
+        result = Long.compare(this.mostSignificantBits[slot], mostSignificantBits);
+        return result != 0 ? result : Long.compare(this.leastSignificantBits[slot], leastSignificantBits);
+    }
+
+    private long hash(long mostSignificantBits, long leastSignificantBits) {
+        long hash = (mostSignificantBits ^ seed) * 0x9E3779B97F4A7C15L + leastSignificantBits;
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private ServiceInstance materialize(int slot) {
+        Record record = read(addresses[slot]);
+        ServiceInstance serviceInstance = new ServiceInstance(new UUID(mostSignificantBits[slot], leastSignificantBits[slot]),
+            record.serviceId, record.planId);
+        serviceInstance.setParameters(fromJson(record.parameters, PARAMETERS_TYPE));
+        serviceInstance.setBindings(fromJson(record.bindings, BINDINGS_TYPE));
+        serviceInstance.setCreatedAt(record.createdAt);
+        return serviceInstance;
+    }
+
+    private long write(Record record) {
+        int length = record.length();
+        long address = allocate(length);
+        ByteBuffer buffer = getRecordBuffer(address);
+        buffer.putInt(length);
+        buffer.put((byte) ((record.serviceId != null ? HAS_SERVICE_ID : 0) | (record.planId != null ? HAS_PLAN_ID : 0)));
+        buffer.putLong(record.fingerprint);
+        // Zero stands for an unknown creation time
+        buffer.putLong(record.createdAt != null ? record.createdAt : 0);
+        putId(buffer, record.serviceId);
+        putId(buffer, record.planId);
+        putBytes(buffer, record.parameters);
+        putBytes(buffer, record.bindings);
+        return address;
+    }
+
+    private Record read(long address) {
+        ByteBuffer buffer = getRecordBuffer(address);
+        buffer.getInt();
+        byte flags = buffer.get();
+        long fingerprint = buffer.getLong();
+        long createdAt = buffer.getLong();
+        UUID serviceId = getId(buffer, (flags & HAS_SERVICE_ID) != 0);
+        UUID planId = getId(buffer, (flags & HAS_PLAN_ID) != 0);
+        byte[] parameters = getBytes(buffer);
+        byte[] bindings = getBytes(buffer);
+        return new Record(serviceId, planId, fingerprint, createdAt != 0 ? createdAt : null, parameters, bindings);
+    }
+
+    private long allocate(int length) {
+        int sizeClass = Math.max(Integer.SIZE - Integer.numberOfLeadingZeros(length - 1), MIN_SIZE_CLASS);
+        if (sizeClass > maxSizeClass) {
+            throw new IllegalArgumentException(MessageFormat.format("Service instance of {0} bytes does not fit in a slab!", length));
+        }
+        int recordSize = 1 << sizeClass;
+        usedBytes += recordSize;
+        if (!freeRecords[sizeClass].isEmpty()) {
+            return freeRecords[sizeClass].pop();
+        }
+        if (slabs.isEmpty() || slabPosition + recordSize > slabSize) {
+            slabs.add(ByteBuffer.allocateDirect(slabSize));
+            slabPosition = 0;
+        }
+        long address = ((long) slabs.size() << Integer.SIZE) | slabPosition;
+        slabPosition += recordSize;
+        return address;
+    }
+
+    private void free(long address) {
+        int length = getRecordBuffer(address).getInt();
+        int sizeClass = Math.max(Integer.SIZE - Integer.numberOfLeadingZeros(length - 1), MIN_SIZE_CLASS);
+        usedBytes -= 1 << sizeClass;
+        freeRecords[sizeClass].push(address);
+    }
+
+    // Slabs are shared between threads, so every access works on its own view
+    private ByteBuffer getRecordBuffer(long address) {
+        ByteBuffer buffer = slabs.get((int) (address >>> Integer.SIZE) - 1)
+            .duplicate();
+        buffer.position((int) address);
+        return buffer;
+    }
+
+    private byte[] toJson(Object object) {
+        return object != null ? gson.toJson(object)
+            .getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private <T> T fromJson(byte[] json, Type type) {
+        return json != null ? gson.fromJson(new String(json, StandardCharsets.UTF_8), type) : null;
+    }
+
+    private static void putId(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id != null ? id.getMostSignificantBits() : 0);
+        buffer.putLong(id != null ? id.getLeastSignificantBits() : 0);
+    }
+
+    private static UUID getId(ByteBuffer buffer, boolean present) {
+        long mostSignificantBits = buffer.getLong();
+        long leastSignificantBits = buffer.getLong();
+        return present ? new UUID(mostSignificantBits, leastSignificantBits) : null;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static <T> Stream<T> stream(Iterator<T> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private static class Record {
+
+        private static final int HEADER_LENGTH = Integer.BYTES + Byte.BYTES + 6 * Long.BYTES + 2 * Integer.BYTES;
+
+        private final UUID serviceId;
+        private final UUID planId;
+        private final long fingerprint;
+        private final Long createdAt;
+        private final byte[] parameters;
+        private final byte[] bindings;
+
+        Record(UUID serviceId, UUID planId, long fingerprint, Long createdAt, byte[] parameters, byte[] bindings) {
+            this.serviceId = serviceId;
+            this.planId = planId;
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+            this.parameters = parameters;
+            this.bindings = bindings;
+        }
+
+        Record withBindings(byte[] bindings) {
+            return new Record(serviceId, planId, fingerprint, createdAt, parameters, bindings);
+        }
+
+        int length() {
+            return HEADER_LENGTH + (parameters != null ? parameters.length : 0) + (bindings != null ? bindings.length : 0);
+        }
+
+    }
+
+    // Reads the table in batches, each under the read lock, and continues after the last id of the previous batch, so
+    // that long listings do not block writes
+    private abstract class BatchIterator<T> implements Iterator<T> {
+
+        private final Deque<T> batch = new ArrayDeque<>();
+        private long lastMostSignificantBits;
+        private long lastLeastSignificantBits;
+        private boolean started;
+        private boolean exhausted;
+
+        BatchIterator(UUID after) {
+            if (after != null) {
+                lastMostSignificantBits = after.getMostSignificantBits();
+                lastLeastSignificantBits = after.getLeastSignificantBits();
+                started = true;
+            }
+        }
+
+        protected abstract T readSlot(int slot);
+
+        @Override
+        public boolean hasNext() {
+            if (batch.isEmpty() && !exhausted) {
+                fetch();
+            }
+            return !batch.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch.poll();
+        }
+
+        private void fetch() {
+            readLock.lock();
+            try {
+                int slot = started ? findNext(lastMostSignificantBits, lastLeastSignificantBits) : 0;
+                while (slot < addresses.length && batch.size() < BATCH_SIZE) {
+                    if (addresses[slot] != EMPTY) {
+                        batch.add(readSlot(slot));
+                        lastMostSignificantBits = mostSignificantBits[slot];
+                        lastLeastSignificantBits = leastSignificantBits[slot];
+                        started = true;
+                    }
+                    slot++;
+                }
+                exhausted = batch.size() < BATCH_SIZE;
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+    }
+
+    private static class LongStack {
+
+        private long[] elements = new long[16];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long element) {
+            if (size == elements.length) {
+                long[] newElements = new long[size * 2];
+                System.arraycopy(elements, 0, newElements, 0, size);
+                elements = newElements;
+            }
+            elements[size++] = element;
+        }
+
+        long pop() {
+            return elements[--size];
+        }
+
+    }
+
+}
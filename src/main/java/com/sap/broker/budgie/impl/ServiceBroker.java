@@ -1,68 +1,355 @@
 package com.sap.broker.budgie.impl;
 
 import java.text.MessageFormat;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
 import org.springframework.stereotype.Component;
 
 import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.domain.BindingMetadata;
 import com.sap.broker.budgie.domain.Catalog;
 import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.domain.ServiceInstanceFilter;
 import com.sap.broker.budgie.exception.NotFoundException;
+import com.sap.broker.budgie.helpers.BrokerClock;
 
 @Component
 public class ServiceBroker {
 
+    private static final int LOCK_STRIPES = 64;
+
     private ApplicationConfiguration configuration;
-    private Map<UUID, ServiceInstance> serviceInstances = new ConcurrentHashMap<>();
+    // Only used to create the stores of new partitions
+    private ServiceInstanceStore serviceInstanceStore;
+    // The service instances of every configuration are kept apart, so that listing and deleting them do not touch the
+    // others. A partition is created on the first write to it.
+    private volatile ConcurrentMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private Journal journal;
+    private BrokerClock clock;
+    // Writes to the same instance id are serialized, so that the indexes and the journal always follow the store. Reads
+    // take no locks. A change, which cannot be journaled, is undone while the lock is still held, so that the failed
+    // request does not leave it behind in memory.
+    private Object[] locks = new Object[LOCK_STRIPES];
 
     @Inject
-    public ServiceBroker(ApplicationConfiguration configuration) {
+    public ServiceBroker(ApplicationConfiguration configuration, ServiceInstanceStore serviceInstanceStore, Journal journal,
+        BrokerClock clock) {
         this.configuration = configuration;
+        this.serviceInstanceStore = serviceInstanceStore;
+        this.journal = journal;
+        this.clock = clock;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
     }
 
     public Catalog getCatalog() {
         return configuration.getCatalog();
     }
 
-    public Collection<ServiceInstance> getAll() {
-        return serviceInstances.values();
+    public Set<String> getConfigIds() {
+        return partitions.keySet();
+    }
+
+    public int getServiceInstancesCount(String configId) {
+        Partition partition = partitions.get(configId);
+        return partition != null ? partition.store.size() : 0;
+    }
+
+    public Stream<ServiceInstance> getAll(String configId, UUID serviceId, UUID planId, UUID after) {
+        Partition partition = partitions.get(configId);
+        if (partition == null) {
+            return Stream.empty();
+        }
+        if (planId == null && serviceId == null) {
+            return partition.store.getAll(after);
+        }
+        NavigableSet<UUID> ids = planId != null ? partition.byPlanId.get(planId) : partition.byServiceId.get(serviceId);
+        if (ids == null) {
+            ids = Collections.emptyNavigableSet();
+        }
+        if (after != null) {
+            ids = ids.tailSet(after, false);
+        }
+        Stream<ServiceInstance> stream = ids.stream()
+            .map(partition.store::get)
+            .filter(Objects::nonNull);
+        if (planId != null && serviceId != null) {
+            stream = stream.filter(serviceInstance -> serviceId.equals(serviceInstance.getServiceId()));
+        }
+        return stream;
+    }
+
+    // Lists the ids of the service instances, which may match the filter, from an index if possible. The instances may
+    // change before they are deleted, so the filter is checked again by deleteIfMatches.
+    public Stream<UUID> getIds(String configId, ServiceInstanceFilter filter) {
+        Partition partition = partitions.get(configId);
+        if (partition == null) {
+            return Stream.empty();
+        }
+        Stream<UUID> ids;
+        if (filter.getPlanId() != null) {
+            ids = partition.byPlanId.getOrDefault(filter.getPlanId(), Collections.emptyNavigableSet())
+                .stream();
+        } else if (filter.getServiceId() != null) {
+            ids = partition.byServiceId.getOrDefault(filter.getServiceId(), Collections.emptyNavigableSet())
+                .stream();
+        } else {
+            ids = partition.store.getIds();
+        }
+        return filter.getIdPrefix() != null ? ids.filter(filter::matchesId) : ids;
     }
 
-    public ServiceInstance get(UUID id) {
-        return get(id, true);
+    public ServiceInstance get(String configId, UUID id) {
+        return get(configId, id, true);
     }
 
-    public ServiceInstance get(UUID id, boolean required) {
-        ServiceInstance serviceInstance = serviceInstances.get(id);
+    public ServiceInstance get(String configId, UUID id, boolean required) {
+        Partition partition = partitions.get(configId);
+        ServiceInstance serviceInstance = partition != null ? partition.store.get(id) : null;
         if (serviceInstance == null && required) {
             throw new NotFoundException(MessageFormat.format("Service instance \"{0}\" not found!", id));
         }
         return serviceInstance;
     }
 
-    public void create(ServiceInstance serviceInstance) {
-        serviceInstances.put(serviceInstance.getId(), serviceInstance);
+    // Recognizes a retried provisioning by its fingerprint first, so that the contents are compared only if they are
+    // probably equal
+    public boolean existsIdentical(String configId, ServiceInstance serviceInstance) {
+        Partition partition = partitions.get(configId);
+        if (partition == null || partition.store.getFingerprint(serviceInstance.getId()) != serviceInstance.getFingerprint()) {
+            return false;
+        }
+        return serviceInstance.equals(partition.store.get(serviceInstance.getId()));
+    }
+
+    public void create(String configId, ServiceInstance serviceInstance) {
+        serviceInstance.setCreatedAt(clock.currentTimeMillis());
+        put(configId, serviceInstance, false);
     }
 
-    public void update(ServiceInstance serviceInstance) {
-        serviceInstances.put(serviceInstance.getId(), serviceInstance);
+    // Keeps the creation time of the replaced service instance. Otherwise the given one is kept, e.g. when the instance
+    // is restored from the journal.
+    public void update(String configId, ServiceInstance serviceInstance) {
+        put(configId, serviceInstance, true);
     }
 
-    public void deleteAll() {
-        serviceInstances.clear();
+    // Drops the whole partition at once instead of removing its service instances one by one
+    public void deleteAll(String configId) {
+        withAllLocks(0, () -> {
+            Partition partition = partitions.remove(configId);
+            if (partition == null) {
+                return;
+            }
+            try {
+                journal.appendPartitionDeletion(configId);
+            } catch (RuntimeException e) {
+                partitions.put(configId, partition);
+                throw e;
+            }
+        });
     }
 
-    public void delete(UUID id) {
-        ServiceInstance serviceInstance = serviceInstances.remove(id);
+    public void delete(String configId, UUID id) {
+        ServiceInstance serviceInstance = remove(configId, id);
         if (serviceInstance == null) {
             throw new NotFoundException(MessageFormat.format("Service instance \"{0}\" not found!", id));
         }
     }
 
+    // Deletes the service instance together with its bindings, but only if it still matches the filter
+    public boolean deleteIfMatches(String configId, UUID id, ServiceInstanceFilter filter) {
+        synchronized (getLock(id)) {
+            Partition partition = partitions.get(configId);
+            ServiceInstance serviceInstance = partition != null ? partition.store.get(id) : null;
+            if (serviceInstance == null || !filter.matches(serviceInstance)) {
+                return false;
+            }
+            partition.store.remove(id);
+            partition.unindex(serviceInstance);
+            appendServiceInstanceDeletion(configId, partition, serviceInstance);
+            return true;
+        }
+    }
+
+    public BindingMetadata bindIfAbsent(String configId, UUID id, UUID bindingId, BindingMetadata binding) {
+        synchronized (getLock(id)) {
+            Partition partition = getRequiredPartition(configId, id);
+            BindingMetadata previousBinding = partition.store.bindIfAbsent(id, bindingId, binding);
+            if (previousBinding != null) {
+                return previousBinding;
+            }
+            try {
+                journal.appendBinding(configId, id, bindingId, binding);
+            } catch (RuntimeException e) {
+                partition.store.unbind(id, bindingId);
+                throw e;
+            }
+            return null;
+        }
+    }
+
+    public BindingMetadata unbind(String configId, UUID id, UUID bindingId) {
+        synchronized (getLock(id)) {
+            Partition partition = getRequiredPartition(configId, id);
+            BindingMetadata binding = partition.store.unbind(id, bindingId);
+            if (binding == null) {
+                return null;
+            }
+            try {
+                journal.appendUnbinding(configId, id, bindingId);
+            } catch (RuntimeException e) {
+                partition.store.bindIfAbsent(id, bindingId, binding);
+                throw e;
+            }
+            return binding;
+        }
+    }
+
+    // Replaces all partitions with the given stores. The indexes are built before any write is blocked. The action
+    // runs while no service instance can be changed, so that it can journal the replacement. The partitions are only
+    // replaced, once it has completed.
+    public void replaceAll(Map<String, ServiceInstanceStore> serviceInstances, Runnable action) {
+        ConcurrentMap<String, Partition> replacement = new ConcurrentHashMap<>();
+        for (Map.Entry<String, ServiceInstanceStore> entry : serviceInstances.entrySet()) {
+            Partition partition = new Partition(entry.getValue());
+            entry.getValue()
+                .getAll(null)
+                .forEach(partition::index);
+            replacement.put(entry.getKey(), partition);
+        }
+        withAllLocks(0, () -> {
+            action.run();
+            partitions = replacement;
+        });
+    }
+
+    private void withAllLocks(int stripe, Runnable action) {
+        if (stripe == LOCK_STRIPES) {
+            action.run();
+            return;
+        }
+        synchronized (locks[stripe]) {
+            withAllLocks(stripe + 1, action);
+        }
+    }
+
+    private void put(String configId, ServiceInstance serviceInstance, boolean keepCreatedAt) {
+        UUID id = serviceInstance.getId();
+        // Computed before taking the lock, so that a later retry only has to compute its own
+        serviceInstance.getFingerprint();
+        synchronized (getLock(id)) {
+            Partition partition = partitions.computeIfAbsent(configId, partitionId -> new Partition(serviceInstanceStore.createEmpty()));
+            if (keepCreatedAt) {
+                ServiceInstance currentServiceInstance = partition.store.get(id);
+                if (currentServiceInstance != null) {
+                    serviceInstance.setCreatedAt(currentServiceInstance.getCreatedAt());
+                }
+            }
+            ServiceInstance previousServiceInstance = partition.store.put(serviceInstance);
+            if (previousServiceInstance != null) {
+                partition.unindex(previousServiceInstance);
+            }
+            partition.index(serviceInstance);
+            try {
+                journal.appendServiceInstance(configId, serviceInstance);
+            } catch (RuntimeException e) {
+                partition.unindex(serviceInstance);
+                if (previousServiceInstance != null) {
+                    partition.store.put(previousServiceInstance);
+                    partition.index(previousServiceInstance);
+                } else {
+                    partition.store.remove(id);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private ServiceInstance remove(String configId, UUID id) {
+        synchronized (getLock(id)) {
+            Partition partition = partitions.get(configId);
+            ServiceInstance serviceInstance = partition != null ? partition.store.remove(id) : null;
+            if (serviceInstance != null) {
+                partition.unindex(serviceInstance);
+                appendServiceInstanceDeletion(configId, partition, serviceInstance);
+            }
+            return serviceInstance;
+        }
+    }
+
+    private void appendServiceInstanceDeletion(String configId, Partition partition, ServiceInstance serviceInstance) {
+        try {
+            journal.appendServiceInstanceDeletion(configId, serviceInstance.getId());
+        } catch (RuntimeException e) {
+            partition.store.put(serviceInstance);
+            partition.index(serviceInstance);
+            throw e;
+        }
+    }
+
+    private Partition getRequiredPartition(String configId, UUID id) {
+        Partition partition = partitions.get(configId);
+        if (partition == null) {
+            throw new NotFoundException(MessageFormat.format("Service instance \"{0}\" not found!", id));
+        }
+        return partition;
+    }
+
+    private Object getLock(UUID id) {
+        return locks[(id.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    // The service instances of a configuration together with their indexes
+    private static final class Partition {
+
+        private final ServiceInstanceStore store;
+        private final ConcurrentMap<UUID, NavigableSet<UUID>> byServiceId = new ConcurrentHashMap<>();
+        private final ConcurrentMap<UUID, NavigableSet<UUID>> byPlanId = new ConcurrentHashMap<>();
+
+        Partition(ServiceInstanceStore store) {
+            this.store = store;
+        }
+
+        // Empty index entries are kept, as their number is bounded by the catalog
+        void index(ServiceInstance serviceInstance) {
+            index(byServiceId, serviceInstance.getServiceId(), serviceInstance);
+            index(byPlanId, serviceInstance.getPlanId(), serviceInstance);
+        }
+
+        void unindex(ServiceInstance serviceInstance) {
+            unindex(byServiceId, serviceInstance.getServiceId(), serviceInstance);
+            unindex(byPlanId, serviceInstance.getPlanId(), serviceInstance);
+        }
+
+        private static void index(ConcurrentMap<UUID, NavigableSet<UUID>> index, UUID key, ServiceInstance serviceInstance) {
+            if (key != null) {
+                index.computeIfAbsent(key, indexKey -> new ConcurrentSkipListSet<>())
+                    .add(serviceInstance.getId());
+            }
+        }
+
+        private static void unindex(ConcurrentMap<UUID, NavigableSet<UUID>> index, UUID key, ServiceInstance serviceInstance) {
+            if (key == null) {
+                return;
+            }
+            NavigableSet<UUID> ids = index.get(key);
+            if (ids != null) {
+                ids.remove(serviceInstance.getId());
+            }
+        }
+
+    }
+
 }
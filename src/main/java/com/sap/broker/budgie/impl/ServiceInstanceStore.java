@@ -0,0 +1,35 @@
+package com.sap.broker.budgie.impl;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+
+public interface ServiceInstanceStore {
+
+    ServiceInstance get(UUID id);
+
+    // Returns the replaced service instance or null
+    ServiceInstance put(ServiceInstance serviceInstance);
+
+    ServiceInstance remove(UUID id);
+
+    // Returns the fingerprint of the stored service instance or 0, if it is absent, without materializing it
+    long getFingerprint(UUID id);
+
+    // Lists the service instances in an order, which is specific to the store, but does not change while they are stored
+    Stream<ServiceInstance> getAll(UUID after);
+
+    Stream<UUID> getIds();
+
+    int size();
+
+    BindingMetadata bindIfAbsent(UUID id, UUID bindingId, BindingMetadata binding);
+
+    BindingMetadata unbind(UUID id, UUID bindingId);
+
+    // Creates an empty store of the same kind, e.g. to load a snapshot into
+    ServiceInstanceStore createEmpty();
+
+}
@@ -0,0 +1,256 @@
+package com.sap.broker.budgie.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.google.gson.Gson;
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.configuration.behavior.ConfigurationManager;
+import com.sap.broker.budgie.configuration.behavior.ServiceBrokerConfiguration;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.Catalog;
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.domain.Visitor;
+import com.sap.broker.budgie.exception.NotFoundException;
+
+// A snapshot is a gzipped stream of a header, the optional catalog and the changes, which rebuild the whole state
+@Component
+public class SnapshotManager {
+
+    private static final int MAGIC = 0x42534E50;
+    private static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ApplicationConfiguration configuration;
+    private List<Visitor> catalogVisitors;
+    private ServiceBroker serviceBroker;
+    private ServiceInstanceStore serviceInstanceStore;
+    private ConfigurationManager configurationManager;
+    private Journal journal;
+    private Gson gson;
+    private ChangeCodec codec;
+    // Exports and imports are serialized, so that an export never captures the replacement of the whole state
+    private final Object lock = new Object();
+
+    @Inject
+    public SnapshotManager(ApplicationConfiguration configuration, List<Visitor> catalogVisitors, ServiceBroker serviceBroker,
+        ServiceInstanceStore serviceInstanceStore, ConfigurationManager configurationManager, Journal journal, Gson gson) {
+        this.configuration = configuration;
+        this.catalogVisitors = catalogVisitors;
+        this.serviceBroker = serviceBroker;
+        this.serviceInstanceStore = serviceInstanceStore;
+        this.configurationManager = configurationManager;
+        this.journal = journal;
+        this.gson = gson;
+        this.codec = new ChangeCodec(gson);
+    }
+
+    // The state is read while it is being changed. All changes made meanwhile are captured and written after it, so
+    // that importing the snapshot results in the state at the moment the export has finished reading.
+    public void exportSnapshot(OutputStream outputStream, boolean includeCatalog) throws IOException {
+        synchronized (lock) {
+            GZIPOutputStream gzipOutputStream = new FastGZIPOutputStream(outputStream);
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(gzipOutputStream, BUFFER_SIZE));
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeBoolean(includeCatalog);
+            if (includeCatalog) {
+                writeChange(output, gson.toJson(configuration.getCatalog())
+                    .getBytes(StandardCharsets.UTF_8));
+            }
+            // Closed once the state has been read, and not by try-with-resources, as the captured changes are written after that
+            Journal.Capture capture = journal.capture();
+            try {
+                for (Map.Entry<String, ServiceBrokerConfiguration> entry : configurationManager.getConfigurations()
+                    .entrySet()) {
+                    writeChange(output, codec.encodeConfiguration(entry.getKey(), entry.getValue()));
+                }
+                for (String configId : serviceBroker.getConfigIds()) {
+                    Iterator<ServiceInstance> serviceInstances = serviceBroker.getAll(configId, null, null, null)
+                        .iterator();
+                    while (serviceInstances.hasNext()) {
+                        writeChange(output, codec.encodeServiceInstance(configId, serviceInstances.next()));
+                    }
+                }
+            } finally {
+                capture.close();
+            }
+            for (byte[] change : capture.getChanges()) {
+                writeChange(output, change);
+            }
+            output.writeInt(0);
+            output.flush();
+            gzipOutputStream.finish();
+        }
+    }
+
+    // Loads the snapshot into empty stores, which then replace the current partitions at once. If the journal is enabled,
+    // the snapshot is kept next to it, so that it can be restored again on startup.
+    public void importSnapshot(InputStream inputStream) throws IOException {
+        synchronized (lock) {
+            if (!journal.isEnabled()) {
+                importSnapshot(inputStream, null);
+                return;
+            }
+            Path snapshot = journal.newSnapshotPath();
+            Files.copy(inputStream, snapshot);
+            try {
+                importSnapshot(snapshot);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(snapshot);
+                throw e;
+            }
+        }
+    }
+
+    public void importSnapshot(Path snapshot) throws IOException {
+        synchronized (lock) {
+            try (InputStream inputStream = Files.newInputStream(snapshot)) {
+                importSnapshot(inputStream, snapshot);
+            }
+        }
+    }
+
+    private void importSnapshot(InputStream inputStream, Path snapshot) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(inputStream, BUFFER_SIZE), BUFFER_SIZE));
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IllegalArgumentException("Unknown snapshot format!");
+        }
+        Catalog catalog = null;
+        if (input.readBoolean()) {
+            catalog = gson.fromJson(new String(readChange(input, input.readInt()), StandardCharsets.UTF_8), Catalog.class);
+            for (Visitor catalogVisitor : catalogVisitors) {
+                catalog.accept(catalogVisitor);
+            }
+        }
+        Loader loader = new Loader(serviceInstanceStore);
+        int length;
+        while ((length = input.readInt()) > 0) {
+            codec.decode(ByteBuffer.wrap(readChange(input, length)), loader);
+        }
+        Catalog restoredCatalog = catalog;
+        serviceBroker.replaceAll(loader.partitions, () -> configurationManager.replaceAll(loader.configurations, () -> {
+            // Journaled first, so that nothing has been replaced, if that fails
+            if (snapshot != null) {
+                journal.appendRestore(snapshot);
+            }
+            // The catalog comes first, as the names in the configurations are resolved against it
+            if (restoredCatalog != null) {
+                configuration.getCatalog()
+                    .setServices(restoredCatalog.getServices());
+            }
+        }));
+    }
+
+    private static void writeChange(DataOutputStream output, byte[] change) throws IOException {
+        output.writeInt(change.length);
+        output.write(change);
+    }
+
+    private static byte[] readChange(DataInputStream input, int length) throws IOException {
+        byte[] change = new byte[length];
+        input.readFully(change);
+        return change;
+    }
+
+    // Snapshots are mostly JSON, which compresses well even at the fastest level
+    private static final class FastGZIPOutputStream extends GZIPOutputStream {
+
+        FastGZIPOutputStream(OutputStream outputStream) throws IOException {
+            super(outputStream, BUFFER_SIZE);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+
+    }
+
+    // Applies the changes directly to the new stores, which are not visible to anyone else yet
+    private static final class Loader implements ChangeListener {
+
+        private final ServiceInstanceStore serviceInstanceStore;
+        private final Map<String, ServiceInstanceStore> partitions = new HashMap<>();
+        private final Map<String, ServiceBrokerConfiguration> configurations = new HashMap<>();
+
+        Loader(ServiceInstanceStore serviceInstanceStore) {
+            this.serviceInstanceStore = serviceInstanceStore;
+        }
+
+        @Override
+        public void onServiceInstance(String configId, ServiceInstance serviceInstance) {
+            partitions.computeIfAbsent(configId, partitionId -> serviceInstanceStore.createEmpty())
+                .put(serviceInstance);
+        }
+
+        @Override
+        public void onServiceInstanceDeletion(String configId, UUID id) {
+            ServiceInstanceStore partition = partitions.get(configId);
+            if (partition != null) {
+                partition.remove(id);
+            }
+        }
+
+        @Override
+        public void onBinding(String configId, UUID id, UUID bindingId, BindingMetadata binding) {
+            try {
+                getPartition(configId, id).bindIfAbsent(id, bindingId, binding);
+            } catch (NotFoundException e) {
+                // Deleted before the export has read it
+            }
+        }
+
+        @Override
+        public void onUnbinding(String configId, UUID id, UUID bindingId) {
+            try {
+                getPartition(configId, id).unbind(id, bindingId);
+            } catch (NotFoundException e) {
+                // Deleted before the export has read it
+            }
+        }
+
+        @Override
+        public void onPartitionDeletion(String configId) {
+            partitions.remove(configId);
+        }
+
+        @Override
+        public void onConfiguration(String id, ServiceBrokerConfiguration configuration) {
+            configurations.put(id, configuration);
+        }
+
+        @Override
+        public void onConfigurationRemoval(String id) {
+            configurations.remove(id);
+        }
+
+        private ServiceInstanceStore getPartition(String configId, UUID id) {
+            ServiceInstanceStore partition = partitions.get(configId);
+            if (partition == null) {
+                throw new NotFoundException(MessageFormat.format("Service instance \"{0}\" not found!", id));
+            }
+            return partition;
+        }
+
+    }
+
+}
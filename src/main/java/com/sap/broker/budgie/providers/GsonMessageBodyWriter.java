@@ -2,6 +2,8 @@ package com.sap.broker.budgie.providers;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 
@@ -35,9 +37,9 @@ public class GsonMessageBodyWriter<T> implements MessageBodyWriter<T> {
     public void writeTo(T t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
         MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
 
-        String stringJson = gson.toJson(t);
-        byte[] binaryJson = stringJson.getBytes(MediaTypeUtil.getCharset(mediaType));
-        entityStream.write(binaryJson);
+        Writer writer = new OutputStreamWriter(entityStream, MediaTypeUtil.getCharset(mediaType));
+        gson.toJson(t, writer);
+        writer.flush();
     }
 
     @Override
@@ -5,6 +5,7 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import com.sap.broker.budgie.configuration.behavior.ConfigurationManager;
 import com.sap.broker.budgie.domain.Catalog;
 import com.sap.broker.budgie.domain.Service;
 import com.sap.broker.budgie.domain.Visitor;
@@ -19,11 +20,13 @@ public class CatalogResource {
 
     private ServiceBroker serviceBroker;
     private List<Visitor> catalogVisitors;
+    private ConfigurationManager configurationManager;
 
     @Inject
-    public CatalogResource(ServiceBroker serviceBroker, List<Visitor> catalogVisitors) {
+    public CatalogResource(ServiceBroker serviceBroker, List<Visitor> catalogVisitors, ConfigurationManager configurationManager) {
         this.serviceBroker = serviceBroker;
         this.catalogVisitors = catalogVisitors;
+        this.configurationManager = configurationManager;
     }
 
     @GET
@@ -36,6 +39,7 @@ public class CatalogResource {
         Catalog catalog = serviceBroker.getCatalog();
         catalog.getServices().add(service);
         processCatalog(catalog);
+        configurationManager.onCatalogChange();
         return Response.status(Response.Status.CREATED).entity(service).build();
     }
 
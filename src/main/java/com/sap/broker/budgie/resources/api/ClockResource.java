@@ -0,0 +1,55 @@
+package com.sap.broker.budgie.resources.api;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+import com.sap.broker.budgie.domain.ClockState;
+import com.sap.broker.budgie.helpers.BrokerClock;
+
+@Path("/clock")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ClockResource {
+
+    private BrokerClock clock;
+
+    @Inject
+    public ClockResource(BrokerClock clock) {
+        this.clock = clock;
+    }
+
+    @GET
+    public ClockState getClock() {
+        return new ClockState(clock.currentTimeMillis(), clock.getTimeScale());
+    }
+
+    @PUT
+    public ClockState setTimeScale(ClockState clockState) {
+        if (clockState == null || clockState.getTimeScale() == null || clockState.getTimeScale() < 1) {
+            throw new BadRequestException("Time scale must be a positive integer!");
+        }
+        clock.setTimeScale(clockState.getTimeScale());
+        return getClock();
+    }
+
+    @POST
+    @Path("/advance")
+    public ClockState advance(@QueryParam("milliseconds") long milliseconds) {
+        if (milliseconds < 0) {
+            throw new BadRequestException("Time cannot be moved backwards!");
+        }
+        clock.advance(milliseconds, TimeUnit.MILLISECONDS);
+        return getClock();
+    }
+
+}
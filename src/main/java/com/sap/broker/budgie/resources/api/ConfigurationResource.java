@@ -2,6 +2,7 @@ package com.sap.broker.budgie.resources.api;
 
 import com.sap.broker.budgie.configuration.behavior.ServiceBrokerConfiguration;
 import com.sap.broker.budgie.configuration.behavior.ConfigurationManager;
+import com.sap.broker.budgie.configuration.behavior.ConfigurationSnapshot;
 import com.sap.broker.budgie.helpers.ConfigurationValidator;
 
 import javax.inject.Inject;
@@ -31,11 +32,11 @@ public class ConfigurationResource {
     @GET
     @Path("/{configId}")
     public Response getConfiguration(@PathParam("configId") String configId) {
-        ServiceBrokerConfiguration configuration = configurationManager.getConfiguration(configId);
-        if (configuration == null) {
+        ConfigurationSnapshot snapshot = configurationManager.getSnapshot(configId);
+        if (snapshot.getConfiguration() == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(configuration).build();
+        return configurationResponse(snapshot);
     }
 
     @PUT
@@ -44,8 +45,7 @@ public class ConfigurationResource {
         if (!configurationValidator.validate(configuration)) {
             return Response.status(Response.Status.BAD_REQUEST).build();
         }
-        configurationManager.addConfiguration(configId, configuration);
-        return Response.ok(configuration).build();
+        return configurationResponse(configurationManager.addConfiguration(configId, configuration));
     }
 
     @DELETE
@@ -56,4 +56,11 @@ public class ConfigurationResource {
         }
         return Response.ok().build();
     }
+
+    // The version of the snapshot is returned as entity tag, so that clients can tell, which configuration is in effect
+    private Response configurationResponse(ConfigurationSnapshot snapshot) {
+        return Response.ok(snapshot.getConfiguration())
+            .tag(Long.toString(snapshot.getVersion()))
+            .build();
+    }
 }
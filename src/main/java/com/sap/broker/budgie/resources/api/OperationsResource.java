@@ -0,0 +1,123 @@
+package com.sap.broker.budgie.resources.api;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.sap.broker.budgie.configuration.behavior.FailConfiguration.OperationType;
+import com.sap.broker.budgie.domain.OperationStatesRequest;
+import com.sap.broker.budgie.helpers.AsyncOperationState;
+import com.sap.broker.budgie.impl.AsyncOperationEventBroadcaster;
+import com.sap.broker.budgie.impl.AsyncOperationManager;
+import com.sap.broker.budgie.impl.AsyncOperationEventBroadcaster.OverflowPolicy;
+
+@Path("/configurations/{config_id}/v2/operations")
+public class OperationsResource {
+
+    private AsyncOperationManager asyncOperationManager;
+    private AsyncOperationEventBroadcaster eventBroadcaster;
+    private Gson gson;
+
+    @Inject
+    public OperationsResource(AsyncOperationManager asyncOperationManager, AsyncOperationEventBroadcaster eventBroadcaster, Gson gson) {
+        this.asyncOperationManager = asyncOperationManager;
+        this.eventBroadcaster = eventBroadcaster;
+        this.gson = gson;
+    }
+
+    @POST
+    @Path("/last_operations")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public StreamingOutput getLastOperations(@PathParam("config_id") String configId, OperationStatesRequest request) {
+        validate(request);
+        return outputStream -> {
+            JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+            writer.beginObject();
+            writeOperationStates(writer, configId, request.getInstanceIds());
+            writeOperationStates(writer, configId, request.getBindingIds());
+            writer.endObject();
+            writer.flush();
+        };
+    }
+
+    // Checked before anything is streamed, as the status of the response cannot be changed afterwards
+    private void validate(OperationStatesRequest request) {
+        if (request == null || (request.getInstanceIds() == null && request.getBindingIds() == null)) {
+            throw new BadRequestException("Request must contain \"instance_ids\" or \"binding_ids\"!");
+        }
+        validate(request.getInstanceIds(), "instance_ids");
+        validate(request.getBindingIds(), "binding_ids");
+    }
+
+    private void validate(List<UUID> ids, String property) {
+        if (ids != null && ids.contains(null)) {
+            throw new BadRequestException(MessageFormat.format("Property \"{0}\" must not contain null!", property));
+        }
+    }
+
+    private void writeOperationStates(JsonWriter writer, String configId, List<UUID> ids) throws IOException {
+        if (ids == null) {
+            return;
+        }
+        for (UUID id : ids) {
+            AsyncOperationState operationState = asyncOperationManager.getOperationState(configId, id);
+            if (operationState != null) {
+                writer.name(id.toString());
+                gson.toJson(operationState, AsyncOperationState.class, writer);
+            }
+        }
+    }
+
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void stream(@PathParam("config_id") String configId, @QueryParam("instance_id") UUID instanceId,
+        @QueryParam("operation_type") String operationType, @QueryParam("overflow") @DefaultValue("drop") String overflow,
+        @Context SseEventSink sink, @Context Sse sse) {
+        eventBroadcaster.subscribe(configId, instanceId, toOperationType(operationType), toOverflowPolicy(overflow), sink, sse);
+    }
+
+    private OperationType toOperationType(String operationType) {
+        if (operationType == null) {
+            return null;
+        }
+        return toEnum(OperationType.class, "operation_type", operationType);
+    }
+
+    private OverflowPolicy toOverflowPolicy(String overflow) {
+        return toEnum(OverflowPolicy.class, "overflow", overflow);
+    }
+
+    private <E extends Enum<E>> E toEnum(Class<E> enumType, String parameter, String value) {
+        try {
+            return Enum.valueOf(enumType, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(MessageFormat.format("Invalid value \"{0}\" of query parameter \"{1}\"!", value, parameter), e);
+        }
+    }
+
+}
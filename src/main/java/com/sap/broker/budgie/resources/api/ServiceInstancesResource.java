@@ -1,21 +1,62 @@
 package com.sap.broker.budgie.resources.api;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Link;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
-
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.configuration.behavior.BackendCapacity;
 import com.sap.broker.budgie.configuration.behavior.ConfigurationManager;
+import com.sap.broker.budgie.configuration.behavior.ConfigurationSnapshot;
 import com.sap.broker.budgie.configuration.behavior.FailConfiguration;
 import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.BulkDeletionResult;
+import com.sap.broker.budgie.domain.BulkOperationResult;
 import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.domain.ServiceInstanceFilter;
+import com.sap.broker.budgie.helpers.AdmissionController;
+import com.sap.broker.budgie.helpers.AdmissionLimit;
 import com.sap.broker.budgie.helpers.AsyncOperation;
 import com.sap.broker.budgie.helpers.AsyncOperationExecutor;
 import com.sap.broker.budgie.helpers.AsyncOperationState;
+import com.sap.broker.budgie.helpers.BrokerClock;
+import com.sap.broker.budgie.helpers.BulkOperationExecutor;
+import com.sap.broker.budgie.helpers.HashedWheelTimer;
 import com.sap.broker.budgie.impl.AsyncOperationManager;
 import com.sap.broker.budgie.impl.ServiceBroker;
 import org.springframework.http.HttpStatus;
@@ -26,98 +67,246 @@ import org.springframework.http.HttpStatus;
 public class ServiceInstancesResource {
 
     private static final String EMPTY_RESPONSE_BODY = "{}";
+    private static final int MAX_INITIAL_PAGE_CAPACITY = 1024;
     private ServiceBroker serviceBroker;
     private ConfigurationManager configurationManager;
     private AsyncOperationManager asyncOperationManager;
+    private AsyncOperationExecutor asyncOperationExecutor;
+    private BulkOperationExecutor bulkOperationExecutor;
+    private AdmissionController admissionController;
+    private BrokerClock clock;
+    private Gson gson;
+    private long maxLastOperationWait;
 
     @Inject
-    public ServiceInstancesResource(ServiceBroker serviceBroker, ConfigurationManager configurationManager, AsyncOperationManager asyncOperationManager) {
+    public ServiceInstancesResource(ServiceBroker serviceBroker, ConfigurationManager configurationManager, AsyncOperationManager asyncOperationManager,
+        AsyncOperationExecutor asyncOperationExecutor, BulkOperationExecutor bulkOperationExecutor, AdmissionController admissionController,
+        BrokerClock clock, Gson gson, ApplicationConfiguration applicationConfiguration) {
         this.serviceBroker = serviceBroker;
         this.configurationManager = configurationManager;
         this.asyncOperationManager = asyncOperationManager;
+        this.asyncOperationExecutor = asyncOperationExecutor;
+        this.bulkOperationExecutor = bulkOperationExecutor;
+        this.admissionController = admissionController;
+        this.clock = clock;
+        this.gson = gson;
+        this.maxLastOperationWait = applicationConfiguration.getMaxLastOperationWait();
     }
 
     @GET
-    public Collection<ServiceInstance> getAll() {
-        return serviceBroker.getAll();
+    public Response getAll(@PathParam("config_id") String configId, @QueryParam("service_id") UUID serviceId, @QueryParam("plan_id") UUID planId, @QueryParam("limit") Integer limit,
+        @QueryParam("cursor") String cursor, @Context UriInfo uriInfo) {
+        Stream<ServiceInstance> serviceInstances = serviceBroker.getAll(configId, serviceId, planId, decodeCursor(cursor));
+        if (limit == null) {
+            return Response.ok(streamServiceInstances(serviceInstances))
+                .build();
+        }
+        if (limit <= 0) {
+            throw new BadRequestException(MessageFormat.format("Invalid value \"{0}\" of query parameter \"limit\"!", limit));
+        }
+        List<ServiceInstance> page = new ArrayList<>(Math.min(limit, MAX_INITIAL_PAGE_CAPACITY));
+        Iterator<ServiceInstance> iterator = serviceInstances.iterator();
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        Response.ResponseBuilder response = Response.ok(page);
+        if (iterator.hasNext()) {
+            String nextCursor = encodeCursor(page.get(page.size() - 1)
+                .getId());
+            response.links(Link.fromUriBuilder(uriInfo.getRequestUriBuilder()
+                .replaceQueryParam("cursor", nextCursor))
+                .rel("next")
+                .build());
+        }
+        return response.build();
     }
 
     @GET
     @Path("/{instance_id}")
     public ServiceInstance get(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id) {
-        return serviceBroker.get(id);
+        return serviceBroker.get(configId, id);
     }
 
     @GET
     @Path("/{instance_id}/last_operation")
-    public Response getLastOperation(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id) {
-        AsyncOperation asyncOperation = asyncOperationManager.getOperation(id);
-        if (asyncOperation == null) {
-            return emptyBodyResponse(Status.BAD_REQUEST);
-        }
-        return Response.ok(asyncOperation.getOperationState()).build();
+    public void getLastOperation(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @QueryParam("wait") long wait,
+        @Suspended AsyncResponse asyncResponse) {
+        resumeWithOperationState(configId, id, wait, asyncResponse);
     }
 
     @PUT
     @Path("/{instance_id}")
-    public Response create(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @QueryParam("accepts_incomplete") boolean acceptIncomplete, ServiceInstance serviceInstance) {
-        if (configurationManager.isAsync(configId)) {
-            if (!acceptIncomplete) {
-                return emptyBodyResponse(HttpStatus.UNPROCESSABLE_ENTITY.value());
-            }
-            return createAsync(configId, id, serviceInstance);
+    public void create(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @QueryParam("accepts_incomplete") boolean acceptIncomplete, ServiceInstance serviceInstance,
+        @Suspended AsyncResponse asyncResponse) {
+        ConfigurationSnapshot configuration = configurationManager.getSnapshot(configId);
+        if (configuration.isAsync() && !acceptIncomplete) {
+            asyncResponse.resume(emptyBodyResponse(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+            return;
+        }
+        long waitNanos = configuration.tryAcquire(FailConfiguration.OperationType.CREATE, clock);
+        if (waitNanos > 0) {
+            asyncResponse.resume(tooManyRequestsResponse(waitNanos));
+            return;
         }
-        return createSync(configId, id, serviceInstance);
+        if (configuration.isAsync()) {
+            asyncResponse.resume(createAsync(configId, configuration, id, serviceInstance));
+            return;
+        }
+        resumeAfterSpecifiedDuration(configuration, asyncResponse, () -> createSync(configId, configuration, id, serviceInstance));
+    }
+
+    // Items are provisioned like with PUT and in parallel. The results are streamed in the order, in which they complete.
+    @POST
+    @Path("/bulk")
+    public Response createAll(@PathParam("config_id") String configId, @QueryParam("accepts_incomplete") boolean acceptIncomplete,
+        InputStream serviceInstances) {
+        ConfigurationSnapshot configuration = configurationManager.getSnapshot(configId);
+        if (configuration.isAsync() && !acceptIncomplete) {
+            return emptyBodyResponse(HttpStatus.UNPROCESSABLE_ENTITY.value());
+        }
+        StreamingOutput results = outputStream -> {
+            JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(serviceInstances, StandardCharsets.UTF_8)));
+            JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+            writer.beginArray();
+            try {
+                bulkOperationExecutor.executeAll(readServiceInstances(reader),
+                    serviceInstance -> createInBulk(configId, configuration, serviceInstance), this::toBulkOperationResult, new BulkOperationExecutor.ResultWriter<BulkOperationResult>() {
+
+                        @Override
+                        public void write(BulkOperationResult result) {
+                            gson.toJson(result, BulkOperationResult.class, writer);
+                        }
+
+                        @Override
+                        public void flush() throws IOException {
+                            writer.flush();
+                        }
+
+                    });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (JsonParseException e) {
+                // The response has already started, so a malformed body is reported after the results of the items
+                // before it
+                gson.toJson(new BulkOperationResult(null, Status.BAD_REQUEST.getStatusCode(),
+                    MessageFormat.format("Malformed service instances: {0}", (e.getCause() != null ? e.getCause() : e).getMessage())),
+                    BulkOperationResult.class, writer);
+            }
+            writer.endArray();
+            writer.flush();
+        };
+        return Response.ok(results)
+            .build();
     }
 
     @PATCH
     @Path("/{instance_id}")
-    public Response update(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @QueryParam("accepts_incomplete") boolean acceptIncomplete, ServiceInstance serviceInstance) {
-        if (configurationManager.isAsync(configId)) {
-            if (!acceptIncomplete) {
-                return emptyBodyResponse(HttpStatus.UNPROCESSABLE_ENTITY.value());
-            }
-            return updateAsync(configId, id, serviceInstance);
+    public void update(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @QueryParam("accepts_incomplete") boolean acceptIncomplete, ServiceInstance serviceInstance,
+        @Suspended AsyncResponse asyncResponse) {
+        ConfigurationSnapshot configuration = configurationManager.getSnapshot(configId);
+        if (configuration.isAsync() && !acceptIncomplete) {
+            asyncResponse.resume(emptyBodyResponse(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+            return;
         }
-        return updateSync(configId, id, serviceInstance);
+        long waitNanos = configuration.tryAcquire(FailConfiguration.OperationType.UPDATE, clock);
+        if (waitNanos > 0) {
+            asyncResponse.resume(tooManyRequestsResponse(waitNanos));
+            return;
+        }
+        if (configuration.isAsync()) {
+            asyncResponse.resume(updateAsync(configId, configuration, id, serviceInstance));
+            return;
+        }
+        resumeAfterSpecifiedDuration(configuration, asyncResponse, () -> updateSync(configId, configuration, id, serviceInstance));
     }
 
+    // Without a filter, the whole partition is dropped at once. Otherwise the matching instances are deleted one by one
+    // in parallel on the bulk pool, while they can still be read. Fail configurations, durations and rate limits do not apply.
     @DELETE
-    public Response deleteAll(@PathParam("config_id") String configId) {
-        serviceBroker.deleteAll();
-        return emptyBodyResponse(Status.OK);
+    public void deleteAll(@PathParam("config_id") String configId, @QueryParam("service_id") UUID serviceId, @QueryParam("plan_id") UUID planId,
+        @QueryParam("id_prefix") String idPrefix, @QueryParam("older_than") Long olderThan, @QueryParam("accepts_incomplete") boolean acceptIncomplete,
+        @Suspended AsyncResponse asyncResponse) {
+        if (serviceId == null && planId == null && idPrefix == null && olderThan == null) {
+            serviceBroker.deleteAll(configId);
+            asyncOperationManager.deleteAll(configId);
+            asyncResponse.resume(emptyBodyResponse(Status.OK));
+            return;
+        }
+        if (olderThan != null && olderThan < 0) {
+            throw new BadRequestException(MessageFormat.format("Invalid value \"{0}\" of query parameter \"older_than\"!", olderThan));
+        }
+        ServiceInstanceFilter filter = new ServiceInstanceFilter(serviceId, planId, idPrefix,
+            olderThan != null ? clock.currentTimeMillis() - olderThan : null);
+        AtomicInteger deletedCount = new AtomicInteger();
+        CompletableFuture<Void> deletion = bulkOperationExecutor.executeAll(serviceBroker.getIds(configId, filter)
+            .iterator(), id -> {
+                if (serviceBroker.deleteIfMatches(configId, id, filter)) {
+                    deletedCount.incrementAndGet();
+                }
+            });
+        if (!acceptIncomplete) {
+            deletion.whenComplete((result, error) -> {
+                if (error != null) {
+                    asyncResponse.resume(error);
+                    return;
+                }
+                asyncResponse.resume(Response.ok(new BulkDeletionResult(null, deletedCount.get()))
+                    .build());
+            });
+            return;
+        }
+        // The deletion is reported like the last operation of a service instance, whose id is the one of the operation
+        AsyncOperation asyncOperation = new AsyncOperation(configId, FailConfiguration.OperationType.DELETE, UUID.randomUUID(), null, null);
+        asyncOperation.setProgress(() -> MessageFormat.format("Deleted {0} service instances", deletedCount.get()));
+        asyncOperationManager.addOperation(configId, asyncOperation.getId(), asyncOperation);
+        deletion.whenComplete((result, error) -> {
+            AsyncOperationState operationState = new AsyncOperationState(
+                error == null ? AsyncOperationState.State.SUCCEEDED : AsyncOperationState.State.FAILED);
+            operationState.setDescription(MessageFormat.format("Deleted {0} service instances", deletedCount.get()));
+            asyncOperation.complete(operationState);
+        });
+        asyncResponse.resume(Response.status(Status.ACCEPTED)
+            .entity(new BulkDeletionResult(asyncOperation.getId(), null))
+            .build());
     }
 
     @DELETE
     @Path("/{instance_id}")
-    public Response delete(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @QueryParam("accepts_incomplete") boolean acceptIncomplete) {
-        ServiceInstance serviceInstance = serviceBroker.get(id, false);
+    public void delete(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @QueryParam("accepts_incomplete") boolean acceptIncomplete,
+        @Suspended AsyncResponse asyncResponse) {
+        ConfigurationSnapshot configuration = configurationManager.getSnapshot(configId);
+        ServiceInstance serviceInstance = serviceBroker.get(configId, id, false);
         if (serviceInstance == null) {
-            return emptyBodyResponse(Status.GONE);
+            asyncResponse.resume(emptyBodyResponse(Status.GONE));
+            return;
         }
-        if (configurationManager.isAsync(configId)) {
-            if (!acceptIncomplete) {
-                return emptyBodyResponse(HttpStatus.UNPROCESSABLE_ENTITY.value());
-            }
-            return deleteAsync(configId, id, serviceInstance);
+        if (configuration.isAsync() && !acceptIncomplete) {
+            asyncResponse.resume(emptyBodyResponse(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+            return;
+        }
+        long waitNanos = configuration.tryAcquire(FailConfiguration.OperationType.DELETE, clock);
+        if (waitNanos > 0) {
+            asyncResponse.resume(tooManyRequestsResponse(waitNanos));
+            return;
+        }
+        if (configuration.isAsync()) {
+            asyncResponse.resume(deleteAsync(configId, configuration, id, serviceInstance));
+            return;
         }
-        return deleteSync(configId, id, serviceInstance);
+        resumeAfterSpecifiedDuration(configuration, asyncResponse, () -> deleteSync(configId, configuration, id, serviceInstance));
     }
 
     @GET
     @Path("/{instance_id}/service_bindings/{binding_id}/last_operation")
-    public Response getLastBindOperation(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @PathParam("binding_id") UUID bindingId) {
-        AsyncOperation asyncOperation = asyncOperationManager.getOperation(bindingId);
-        if (asyncOperation == null) {
-            return emptyBodyResponse(Status.BAD_REQUEST);
-        }
-        return Response.ok(asyncOperation.getOperationState()).build();
+    public void getLastBindOperation(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @PathParam("binding_id") UUID bindingId,
+        @QueryParam("wait") long wait, @Suspended AsyncResponse asyncResponse) {
+        resumeWithOperationState(configId, bindingId, wait, asyncResponse);
     }
 
     @GET
     @Path("/{instance_id}/service_bindings/{binding_id}")
     public Response getBinding(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @PathParam("binding_id") UUID bindingId) {
-        ServiceInstance serviceInstance = serviceBroker.get(id, false);
+        ServiceInstance serviceInstance = serviceBroker.get(configId, id, false);
         if (serviceInstance == null) {
             return emptyBodyResponse(Status.NOT_FOUND);
         }
@@ -130,183 +319,383 @@ public class ServiceInstancesResource {
 
     @PUT
     @Path("/{instance_id}/service_bindings/{binding_id}")
-    public Response bind(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @PathParam("binding_id") UUID bindingId,
-        @QueryParam("accepts_incomplete") boolean acceptIncomplete, BindingMetadata binding) {
-        ServiceInstance serviceInstance = serviceBroker.get(id, false);
+    public void bind(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @PathParam("binding_id") UUID bindingId,
+        @QueryParam("accepts_incomplete") boolean acceptIncomplete, BindingMetadata binding, @Suspended AsyncResponse asyncResponse) {
+        ConfigurationSnapshot configuration = configurationManager.getSnapshot(configId);
+        ServiceInstance serviceInstance = serviceBroker.get(configId, id, false);
         if (serviceInstance == null) {
-            return emptyBodyResponse(Status.BAD_REQUEST);
+            asyncResponse.resume(emptyBodyResponse(Status.BAD_REQUEST));
+            return;
         }
-        if (configurationManager.isAsync(configId)) {
-            if (!acceptIncomplete) {
-                return emptyBodyResponse(HttpStatus.UNPROCESSABLE_ENTITY.value());
-            }
-            return bindAsync(configId, bindingId, serviceInstance, binding);
+        if (configuration.isAsync() && !acceptIncomplete) {
+            asyncResponse.resume(emptyBodyResponse(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+            return;
+        }
+        long waitNanos = configuration.tryAcquire(FailConfiguration.OperationType.BIND, clock);
+        if (waitNanos > 0) {
+            asyncResponse.resume(tooManyRequestsResponse(waitNanos));
+            return;
+        }
+        if (configuration.isAsync()) {
+            asyncResponse.resume(bindAsync(configId, configuration, bindingId, serviceInstance, binding));
+            return;
         }
-        return bindSync(configId, bindingId, serviceInstance, binding);
+        resumeAfterSpecifiedDuration(configuration, asyncResponse, () -> bindSync(configId, configuration, bindingId, serviceInstance, binding));
     }
 
     @DELETE
     @Path("/{instance_id}/service_bindings/{binding_id}")
-    public Response unbind(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @PathParam("binding_id") UUID bindingId,
-        @QueryParam("accepts_incomplete") boolean acceptIncomplete) {
-        ServiceInstance serviceInstance = serviceBroker.get(id, false);
+    public void unbind(@PathParam("config_id") String configId, @PathParam("instance_id") UUID id, @PathParam("binding_id") UUID bindingId,
+        @QueryParam("accepts_incomplete") boolean acceptIncomplete, @Suspended AsyncResponse asyncResponse) {
+        ConfigurationSnapshot configuration = configurationManager.getSnapshot(configId);
+        ServiceInstance serviceInstance = serviceBroker.get(configId, id, false);
         if (serviceInstance == null) {
-            return emptyBodyResponse(Status.BAD_REQUEST);
+            asyncResponse.resume(emptyBodyResponse(Status.BAD_REQUEST));
+            return;
         }
-        if (configurationManager.isAsync(configId)) {
-            if (!acceptIncomplete) {
-                return emptyBodyResponse(HttpStatus.UNPROCESSABLE_ENTITY.value());
-            }
-            return unbindAsync(configId, bindingId, serviceInstance);
+        if (configuration.isAsync() && !acceptIncomplete) {
+            asyncResponse.resume(emptyBodyResponse(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+            return;
+        }
+        long waitNanos = configuration.tryAcquire(FailConfiguration.OperationType.UNBIND, clock);
+        if (waitNanos > 0) {
+            asyncResponse.resume(tooManyRequestsResponse(waitNanos));
+            return;
         }
-        return unbindSync(configId, bindingId, serviceInstance);
+        if (configuration.isAsync()) {
+            asyncResponse.resume(unbindAsync(configId, configuration, bindingId, serviceInstance));
+            return;
+        }
+        resumeAfterSpecifiedDuration(configuration, asyncResponse, () -> unbindSync(configId, configuration, bindingId, serviceInstance));
     }
 
-    private Response createSync(String configId, UUID id, ServiceInstance serviceInstance) {
-        sleepForSpecifiedDuration(configId);
-        Optional<Integer> optionalStatusCode = configurationManager.shouldOperationFail(configId, FailConfiguration.OperationType.CREATE, serviceInstance);
+    private Response createSync(String configId, ConfigurationSnapshot configuration, UUID id, ServiceInstance serviceInstance) {
+        Optional<Integer> optionalStatusCode = configuration.shouldOperationFail(FailConfiguration.OperationType.CREATE, serviceInstance);
         if (optionalStatusCode.isPresent()) {
             return emptyBodyResponse(optionalStatusCode.get());
         }
         serviceInstance.setId(id);
-        return create(serviceInstance);
+        return create(configId, serviceInstance);
     }
 
-    private Response createAsync(String configId, UUID id, ServiceInstance serviceInstance) {
-        async(configId, id, () -> {
-            if (configurationManager.shouldOperationFail(configId, FailConfiguration.OperationType.CREATE, serviceInstance).isPresent()) {
+    private Response createAsync(String configId, ConfigurationSnapshot configuration, UUID id, ServiceInstance serviceInstance) {
+        AdmissionLimit exceededLimit = admissionController.tryAdmit(configId, configuration.getAdmissionLimit());
+        if (exceededLimit != null) {
+            return rejectedResponse(exceededLimit);
+        }
+        boolean accepted = async(configId, configuration, FailConfiguration.OperationType.CREATE, id, null, () -> {
+            if (configuration.shouldOperationFail(FailConfiguration.OperationType.CREATE, serviceInstance).isPresent()) {
                 return new AsyncOperationState(AsyncOperationState.State.FAILED);
             }
             serviceInstance.setId(id);
-            create(serviceInstance);
+            create(configId, serviceInstance);
             return new AsyncOperationState(AsyncOperationState.State.SUCCEEDED);
         });
-        return emptyBodyResponse(Status.ACCEPTED);
+        return emptyBodyResponse(accepted ? Status.ACCEPTED : Status.SERVICE_UNAVAILABLE);
     }
 
-    private Response create(ServiceInstance serviceInstance) {
-        if (existsIdentical(serviceInstance)) {
-            return emptyBodyResponse(Status.OK);
+    private CompletionStage<BulkOperationResult> createInBulk(String configId, ConfigurationSnapshot configuration,
+        ServiceInstance serviceInstance) {
+        UUID id = serviceInstance != null ? serviceInstance.getId() : null;
+        if (id == null) {
+            return CompletableFuture.completedFuture(new BulkOperationResult(null, Status.BAD_REQUEST.getStatusCode(),
+                "Missing service instance id!"));
         }
-        serviceBroker.create(serviceInstance);
-        return emptyBodyResponse(Status.CREATED);
+        long waitNanos = configuration.tryAcquire(FailConfiguration.OperationType.CREATE, clock);
+        if (waitNanos > 0) {
+            return CompletableFuture.completedFuture(new BulkOperationResult(id, Status.TOO_MANY_REQUESTS.getStatusCode(),
+                MessageFormat.format("Rate limit exceeded, retry after {0} seconds", toRetryAfterSeconds(waitNanos))));
+        }
+        if (configuration.isAsync()) {
+            return CompletableFuture.completedFuture(toBulkOperationResult(id, createAsync(configId, configuration, id, serviceInstance)));
+        }
+        CompletableFuture<BulkOperationResult> result = new CompletableFuture<>();
+        Runnable create = () -> {
+            try {
+                result.complete(toBulkOperationResult(id, createSync(configId, configuration, id, serviceInstance)));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        };
+        int duration = configuration.getDuration();
+        if (duration <= 0) {
+            create.run();
+        } else {
+            asyncOperationExecutor.schedule(create, duration);
+        }
+        return result;
     }
 
-    private boolean existsIdentical(ServiceInstance serviceInstance) {
-        ServiceInstance existingServiceInstance = serviceBroker.get(serviceInstance.getId(), false);
-        return serviceInstance.equals(existingServiceInstance);
+    private BulkOperationResult toBulkOperationResult(UUID id, Response response) {
+        return new BulkOperationResult(id, response.getStatus(), null);
     }
 
-    private Response updateAsync(String configId, UUID id, ServiceInstance serviceInstance) {
-        async(configId, id, () -> {
-            if (configurationManager.shouldOperationFail(configId, FailConfiguration.OperationType.UPDATE, serviceInstance).isPresent()) {
+    private BulkOperationResult toBulkOperationResult(ServiceInstance serviceInstance, Throwable error) {
+        int status = error instanceof WebApplicationException ? ((WebApplicationException) error).getResponse()
+            .getStatus() : Status.INTERNAL_SERVER_ERROR.getStatusCode();
+        return new BulkOperationResult(serviceInstance.getId(), status, error.getMessage());
+    }
+
+    // Syntax errors are thrown as JsonParseException, so that they can be told apart from a failure of the connection
+    private Iterator<ServiceInstance> readServiceInstances(JsonReader reader) {
+        return new Iterator<ServiceInstance>() {
+
+            private boolean started;
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                if (finished) {
+                    return false;
+                }
+                try {
+                    if (!started) {
+                        started = true;
+                        reader.beginArray();
+                    }
+                    if (reader.hasNext()) {
+                        return true;
+                    }
+                    finished = true;
+                    reader.endArray();
+                    if (reader.peek() != JsonToken.END_DOCUMENT) {
+                        throw new JsonSyntaxException("Unexpected content after the end of the array!");
+                    }
+                    return false;
+                } catch (MalformedJsonException | EOFException | IllegalStateException e) {
+                    throw new JsonSyntaxException(e.getMessage(), e);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public ServiceInstance next() {
+                try {
+                    return gson.fromJson(reader, ServiceInstance.class);
+                } catch (JsonSyntaxException e) {
+                    // Gson wraps every IOException, also the ones of a broken connection
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException && !(cause instanceof MalformedJsonException) && !(cause instanceof EOFException)) {
+                        throw new UncheckedIOException((IOException) cause);
+                    }
+                    throw e;
+                } catch (IllegalArgumentException e) {
+                    // Thrown by the UUID adapter for invalid ids
+                    throw new JsonSyntaxException(e.getMessage(), e);
+                }
+            }
+
+        };
+    }
+
+    private Response create(String configId, ServiceInstance serviceInstance) {
+        if (serviceBroker.existsIdentical(configId, serviceInstance)) {
+            return emptyBodyResponse(Status.OK);
+        }
+        serviceBroker.create(configId, serviceInstance);
+        return emptyBodyResponse(Status.CREATED);
+    }
+
+    private Response updateAsync(String configId, ConfigurationSnapshot configuration, UUID id, ServiceInstance serviceInstance) {
+        AdmissionLimit exceededLimit = admissionController.tryAdmit(configId, configuration.getAdmissionLimit());
+        if (exceededLimit != null) {
+            return rejectedResponse(exceededLimit);
+        }
+        boolean accepted = async(configId, configuration, FailConfiguration.OperationType.UPDATE, id, null, () -> {
+            if (configuration.shouldOperationFail(FailConfiguration.OperationType.UPDATE, serviceInstance).isPresent()) {
                 return new AsyncOperationState(AsyncOperationState.State.FAILED);
             }
             serviceInstance.setId(id);
-            serviceBroker.update(serviceInstance);
+            serviceBroker.update(configId, serviceInstance);
             return new AsyncOperationState(AsyncOperationState.State.SUCCEEDED);
         });
-        return emptyBodyResponse(Status.ACCEPTED);
+        return emptyBodyResponse(accepted ? Status.ACCEPTED : Status.SERVICE_UNAVAILABLE);
     }
 
-    private Response updateSync(String configId, UUID id, ServiceInstance serviceInstance) {
-        sleepForSpecifiedDuration(configId);
-        Optional<Integer> optionalStatusCode = configurationManager.shouldOperationFail(configId, FailConfiguration.OperationType.UPDATE, serviceInstance);
+    private Response updateSync(String configId, ConfigurationSnapshot configuration, UUID id, ServiceInstance serviceInstance) {
+        Optional<Integer> optionalStatusCode = configuration.shouldOperationFail(FailConfiguration.OperationType.UPDATE, serviceInstance);
         if (optionalStatusCode.isPresent()) {
             return emptyBodyResponse(optionalStatusCode.get());
         }
         serviceInstance.setId(id);
-        serviceBroker.update(serviceInstance);
+        serviceBroker.update(configId, serviceInstance);
         return emptyBodyResponse(Status.OK);
     }
 
-    private Response deleteSync(String configId, UUID id, ServiceInstance serviceInstance) {
-        sleepForSpecifiedDuration(configId);
-        Optional<Integer> optionalStatusCode = configurationManager.shouldOperationFail(configId, FailConfiguration.OperationType.DELETE, serviceInstance);
+    private Response deleteSync(String configId, ConfigurationSnapshot configuration, UUID id, ServiceInstance serviceInstance) {
+        Optional<Integer> optionalStatusCode = configuration.shouldOperationFail(FailConfiguration.OperationType.DELETE, serviceInstance);
         if (optionalStatusCode.isPresent()) {
             return emptyBodyResponse(optionalStatusCode.get());
         }
-        serviceBroker.delete(id);
+        serviceBroker.delete(configId, id);
         return emptyBodyResponse(Status.OK);
     }
 
-    private Response deleteAsync(String configId, UUID id, ServiceInstance serviceInstance) {
-        async(configId, id, () -> {
-            if (configurationManager.shouldOperationFail(configId, FailConfiguration.OperationType.DELETE, serviceInstance).isPresent()) {
+    private Response deleteAsync(String configId, ConfigurationSnapshot configuration, UUID id, ServiceInstance serviceInstance) {
+        AdmissionLimit exceededLimit = admissionController.tryAdmit(configId, configuration.getAdmissionLimit());
+        if (exceededLimit != null) {
+            return rejectedResponse(exceededLimit);
+        }
+        boolean accepted = async(configId, configuration, FailConfiguration.OperationType.DELETE, id, null, () -> {
+            if (configuration.shouldOperationFail(FailConfiguration.OperationType.DELETE, serviceInstance).isPresent()) {
                 return new AsyncOperationState(AsyncOperationState.State.FAILED);
             }
-            serviceBroker.delete(id);
+            serviceBroker.delete(configId, id);
             return new AsyncOperationState(AsyncOperationState.State.SUCCEEDED);
         });
-        return emptyBodyResponse(Status.ACCEPTED);
+        return emptyBodyResponse(accepted ? Status.ACCEPTED : Status.SERVICE_UNAVAILABLE);
     }
 
-    private Response bindSync(String configId, UUID bindingId, ServiceInstance serviceInstance, BindingMetadata binding) {
-        sleepForSpecifiedDuration(configId);
-        Optional<Integer> optionalStatusCode = configurationManager.shouldOperationFail(configId, FailConfiguration.OperationType.BIND, serviceInstance);
+    private Response bindSync(String configId, ConfigurationSnapshot configuration, UUID bindingId, ServiceInstance serviceInstance,
+        BindingMetadata binding) {
+        Optional<Integer> optionalStatusCode = configuration.shouldOperationFail(FailConfiguration.OperationType.BIND, serviceInstance);
         if (optionalStatusCode.isPresent()) {
             return emptyBodyResponse(optionalStatusCode.get());
         }
-        if (serviceInstance.getBinding(bindingId) != null) {
+        if (serviceBroker.bindIfAbsent(configId, serviceInstance.getId(), bindingId, binding) != null) {
             return emptyBodyResponse(Status.CONFLICT);
         }
-        serviceInstance.bind(bindingId, binding);
         return Response.status(Status.CREATED).entity(binding).build();
     }
 
-    private Response bindAsync(String configId, UUID bindingId, ServiceInstance serviceInstance, BindingMetadata binding) {
-        async(configId, bindingId, () -> {
-            if (configurationManager.shouldOperationFail(configId, FailConfiguration.OperationType.BIND, serviceInstance).isPresent()) {
+    private Response bindAsync(String configId, ConfigurationSnapshot configuration, UUID bindingId, ServiceInstance serviceInstance,
+        BindingMetadata binding) {
+        AdmissionLimit exceededLimit = admissionController.tryAdmit(configId, configuration.getAdmissionLimit());
+        if (exceededLimit != null) {
+            return rejectedResponse(exceededLimit);
+        }
+        boolean accepted = async(configId, configuration, FailConfiguration.OperationType.BIND, serviceInstance.getId(), bindingId, () -> {
+            if (configuration.shouldOperationFail(FailConfiguration.OperationType.BIND, serviceInstance).isPresent()) {
                 return new AsyncOperationState(AsyncOperationState.State.FAILED);
             }
-            if (serviceInstance.getBinding(bindingId) != null) {
+            if (serviceBroker.bindIfAbsent(configId, serviceInstance.getId(), bindingId, binding) != null) {
                 return new AsyncOperationState(AsyncOperationState.State.FAILED);
             }
-            serviceInstance.bind(bindingId, binding);
             return new AsyncOperationState(AsyncOperationState.State.SUCCEEDED);
         });
-        return emptyBodyResponse(Status.ACCEPTED);
+        return emptyBodyResponse(accepted ? Status.ACCEPTED : Status.SERVICE_UNAVAILABLE);
     }
 
-    private Response unbindSync(String configId, UUID bindingId, ServiceInstance serviceInstance) {
-        sleepForSpecifiedDuration(configId);
-        Optional<Integer> optionalStatusCode = configurationManager.shouldOperationFail(configId, FailConfiguration.OperationType.UNBIND, serviceInstance);
+    private Response unbindSync(String configId, ConfigurationSnapshot configuration, UUID bindingId, ServiceInstance serviceInstance) {
+        Optional<Integer> optionalStatusCode = configuration.shouldOperationFail(FailConfiguration.OperationType.UNBIND, serviceInstance);
         if (optionalStatusCode.isPresent()) {
             return emptyBodyResponse(optionalStatusCode.get());
         }
-        if (serviceInstance.getBinding(bindingId) == null) {
+        if (serviceBroker.unbind(configId, serviceInstance.getId(), bindingId) == null) {
             return emptyBodyResponse(Status.GONE);
         }
-        serviceInstance.unbind(bindingId);
         return emptyBodyResponse(Status.OK);
     }
 
-    private Response unbindAsync(String configId, UUID bindingId, ServiceInstance serviceInstance) {
-        async(configId, bindingId, () -> {
-            if (configurationManager.shouldOperationFail(configId, FailConfiguration.OperationType.UNBIND, serviceInstance).isPresent()) {
+    private Response unbindAsync(String configId, ConfigurationSnapshot configuration, UUID bindingId, ServiceInstance serviceInstance) {
+        AdmissionLimit exceededLimit = admissionController.tryAdmit(configId, configuration.getAdmissionLimit());
+        if (exceededLimit != null) {
+            return rejectedResponse(exceededLimit);
+        }
+        boolean accepted = async(configId, configuration, FailConfiguration.OperationType.UNBIND, serviceInstance.getId(), bindingId, () -> {
+            if (configuration.shouldOperationFail(FailConfiguration.OperationType.UNBIND, serviceInstance).isPresent()) {
                 return new AsyncOperationState(AsyncOperationState.State.FAILED);
             }
-            serviceInstance.unbind(bindingId);
+            serviceBroker.unbind(configId, serviceInstance.getId(), bindingId);
             return new AsyncOperationState(AsyncOperationState.State.SUCCEEDED);
         });
-        return emptyBodyResponse(Status.ACCEPTED);
+        return emptyBodyResponse(accepted ? Status.ACCEPTED : Status.SERVICE_UNAVAILABLE);
     }
 
-    private void async(String configId, UUID id, Supplier<AsyncOperationState> operation) {
-        AsyncOperation asyncOperation = AsyncOperationExecutor.execute(operation, configurationManager.getDuration(configId));
-        asyncOperationManager.addOperation(id, asyncOperation);
+    // The operation has to be admitted before. Returns false, if the backend of the configuration has no room for another
+    // operation. The duration of an operation is sampled and starts to pass only once the backend has a slot for it.
+    private boolean async(String configId, ConfigurationSnapshot configuration, FailConfiguration.OperationType operationType, UUID instanceId,
+        UUID bindingId, Supplier<AsyncOperationState> operation) {
+        AsyncOperation asyncOperation = new AsyncOperation(configId, operationType, instanceId, bindingId, operation);
+        asyncOperation.whenCompleted(completedOperation -> admissionController.release(configId));
+        BackendCapacity capacity = configuration.getCapacity();
+        if (capacity.isUnlimited()) {
+            asyncOperationManager.addOperation(configId, asyncOperation.getId(), asyncOperation);
+            asyncOperationExecutor.schedule(asyncOperation, configuration.getDuration());
+            return true;
+        }
+        // Added before it can start, so that subscribers see it in progress first
+        asyncOperationManager.addOperation(configId, asyncOperation.getId(), asyncOperation);
+        boolean accepted = capacity.submit(operationType, () -> {
+            asyncOperation.whenCompleted(completedOperation -> capacity.release(clock));
+            asyncOperationExecutor.schedule(asyncOperation, configuration.getDuration());
+        }, clock);
+        if (!accepted) {
+            // Completing it releases the admission and tells the subscribers, which have already seen it
+            asyncOperationManager.removeOperation(configId, asyncOperation.getId(), asyncOperation);
+            AsyncOperationState rejectedState = new AsyncOperationState(AsyncOperationState.State.FAILED);
+            rejectedState.setDescription("The backend capacity is exhausted.");
+            asyncOperation.complete(rejectedState);
+        }
+        return accepted;
     }
 
-    private void sleepForSpecifiedDuration(String configId) {
+    private void resumeWithOperationState(String configId, UUID id, long wait, AsyncResponse asyncResponse) {
+        if (wait > maxLastOperationWait) {
+            throw new BadRequestException(MessageFormat.format("Invalid value \"{0}\" of query parameter \"wait\"! Maximum is {1}.",
+                Long.toString(wait), Long.toString(maxLastOperationWait)));
+        }
+        AsyncOperation asyncOperation = asyncOperationManager.getOperation(configId, id);
+        if (asyncOperation == null || asyncOperation.isCompleted() || wait <= 0) {
+            asyncResponse.resume(operationStateResponse(asyncOperationManager.getOperationState(configId, id)));
+            return;
+        }
+        CompletableFuture<AsyncOperationState> timedOut = new CompletableFuture<>();
+        HashedWheelTimer.Timeout timeout = asyncOperationExecutor.schedule(() -> timedOut.complete(asyncOperation.getOperationState()),
+            wait);
+        asyncOperation.completionOr(timedOut)
+            .thenAccept(operationState -> {
+                timeout.cancel();
+                asyncResponse.resume(operationStateResponse(operationState));
+            });
+    }
+
+    private Response operationStateResponse(AsyncOperationState operationState) {
+        if (operationState == null) {
+            return emptyBodyResponse(Status.BAD_REQUEST);
+        }
+        return Response.ok(operationState).build();
+    }
+
+    private void resumeAfterSpecifiedDuration(ConfigurationSnapshot configuration, AsyncResponse asyncResponse, Supplier<Response> response) {
+        int duration = configuration.getDuration();
+        if (duration <= 0) {
+            resume(asyncResponse, response);
+            return;
+        }
+        asyncOperationExecutor.schedule(() -> resume(asyncResponse, response), duration);
+    }
+
+    private void resume(AsyncResponse asyncResponse, Supplier<Response> response) {
         try {
-            if (configurationManager.getDuration(configId) > 0) {
-                Thread.sleep(configurationManager.getDuration(configId));
-            }
-        } catch (InterruptedException e) {
-            throw new IllegalStateException(e);
+            asyncResponse.resume(response.get());
+        } catch (RuntimeException e) {
+            asyncResponse.resume(e);
         }
     }
 
+    private Response rejectedResponse(AdmissionLimit exceededLimit) {
+        return Response.status(exceededLimit.getStatus())
+            .header(HttpHeaders.RETRY_AFTER, exceededLimit.getRetryAfter())
+            .entity(EMPTY_RESPONSE_BODY)
+            .build();
+    }
+
+    private Response tooManyRequestsResponse(long waitNanos) {
+        return Response.status(Status.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, toRetryAfterSeconds(waitNanos))
+            .entity(EMPTY_RESPONSE_BODY)
+            .build();
+    }
+
+    // The wait is measured on the broker clock, while clients retry in real time. Retry-After has a resolution of
+    // seconds, so the real wait is rounded up to the next one.
+    private long toRetryAfterSeconds(long waitNanos) {
+        long realWaitNanos = clock.toRealNanos(waitNanos);
+        return Math.max(1, (realWaitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
     private Response emptyBodyResponse(Status httpStatus) {
         return emptyBodyResponse(httpStatus.getStatusCode());
     }
@@ -314,4 +703,42 @@ public class ServiceInstancesResource {
     private Response emptyBodyResponse(int httpStatus) {
         return Response.status(httpStatus).entity(EMPTY_RESPONSE_BODY).build();
     }
+
+    private StreamingOutput streamServiceInstances(Stream<ServiceInstance> serviceInstances) {
+        return outputStream -> {
+            JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+            writer.beginArray();
+            Iterator<ServiceInstance> iterator = serviceInstances.iterator();
+            while (iterator.hasNext()) {
+                gson.toJson(iterator.next(), ServiceInstance.class, writer);
+            }
+            writer.endArray();
+            writer.flush();
+        };
+    }
+
+    private static String encodeCursor(UUID id) {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(buffer.array());
+    }
+
+    private static UUID decodeCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder()
+                .decode(cursor));
+            if (buffer.remaining() == 2 * Long.BYTES) {
+                return new UUID(buffer.getLong(), buffer.getLong());
+            }
+        } catch (IllegalArgumentException e) {
+            // Reported below
+        }
+        throw new BadRequestException(MessageFormat.format("Invalid value \"{0}\" of query parameter \"cursor\"!", cursor));
+    }
 }
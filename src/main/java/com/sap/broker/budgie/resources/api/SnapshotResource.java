@@ -0,0 +1,53 @@
+package com.sap.broker.budgie.resources.api;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.MessageFormat;
+import java.util.zip.ZipException;
+
+import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import com.sap.broker.budgie.impl.SnapshotManager;
+
+@Path("/snapshot")
+public class SnapshotResource {
+
+    private SnapshotManager snapshotManager;
+
+    @Inject
+    public SnapshotResource(SnapshotManager snapshotManager) {
+        this.snapshotManager = snapshotManager;
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public Response exportSnapshot(@QueryParam("catalog") boolean includeCatalog) {
+        StreamingOutput snapshot = outputStream -> snapshotManager.exportSnapshot(outputStream, includeCatalog);
+        return Response.ok(snapshot)
+            .build();
+    }
+
+    @PUT
+    @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+    public Response importSnapshot(InputStream snapshot) throws IOException {
+        try {
+            snapshotManager.importSnapshot(snapshot);
+        } catch (IllegalArgumentException | ZipException | EOFException e) {
+            throw new BadRequestException(MessageFormat.format("Invalid snapshot: {0}", e.getMessage()), e);
+        }
+        return Response.noContent()
+            .build();
+    }
+
+}
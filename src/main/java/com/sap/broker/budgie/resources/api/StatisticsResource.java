@@ -0,0 +1,77 @@
+package com.sap.broker.budgie.resources.api;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import com.sap.broker.budgie.configuration.behavior.ConfigurationManager;
+import com.sap.broker.budgie.configuration.behavior.ConfigurationSnapshot;
+import com.sap.broker.budgie.domain.AdmissionStatistics;
+import com.sap.broker.budgie.domain.ExecutorStatistics;
+import com.sap.broker.budgie.domain.PartitionStatistics;
+import com.sap.broker.budgie.helpers.AdmissionController;
+import com.sap.broker.budgie.helpers.AsyncOperationExecutor;
+import com.sap.broker.budgie.impl.AsyncOperationManager;
+import com.sap.broker.budgie.impl.ServiceBroker;
+
+@Path("/statistics")
+@Produces(MediaType.APPLICATION_JSON)
+public class StatisticsResource {
+
+    private AsyncOperationExecutor asyncOperationExecutor;
+    private ServiceBroker serviceBroker;
+    private AsyncOperationManager asyncOperationManager;
+    private ConfigurationManager configurationManager;
+    private AdmissionController admissionController;
+
+    @Inject
+    public StatisticsResource(AsyncOperationExecutor asyncOperationExecutor, ServiceBroker serviceBroker,
+        AsyncOperationManager asyncOperationManager, ConfigurationManager configurationManager, AdmissionController admissionController) {
+        this.asyncOperationExecutor = asyncOperationExecutor;
+        this.serviceBroker = serviceBroker;
+        this.asyncOperationManager = asyncOperationManager;
+        this.configurationManager = configurationManager;
+        this.admissionController = admissionController;
+    }
+
+    @GET
+    @Path("/async_operations")
+    public ExecutorStatistics getAsyncOperationStatistics() {
+        return asyncOperationExecutor.getStatistics();
+    }
+
+    @GET
+    @Path("/admission")
+    public AdmissionStatistics getAdmissionStatistics() {
+        return admissionController.getStatistics();
+    }
+
+    @GET
+    @Path("/partitions")
+    public List<PartitionStatistics> getPartitionStatistics() {
+        Set<String> configIds = new TreeSet<>(serviceBroker.getConfigIds());
+        configIds.addAll(asyncOperationManager.getConfigIds());
+        return configIds.stream()
+            .map(this::getPartitionStatistics)
+            .collect(Collectors.toList());
+    }
+
+    @GET
+    @Path("/partitions/{config_id}")
+    public PartitionStatistics getPartitionStatistics(@PathParam("config_id") String configId) {
+        ConfigurationSnapshot configuration = configurationManager.getSnapshot(configId);
+        return new PartitionStatistics(configId, serviceBroker.getServiceInstancesCount(configId),
+            asyncOperationManager.getOperationsCount(configId), asyncOperationManager.getTombstonesCount(configId),
+            configuration.getCapacity()
+                .getStatistics(), admissionController.getStatistics(configId, configuration.getAdmissionLimit()));
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.broker.budgie.configuration.behavior.FailConfiguration.OperationType;
+import com.sap.broker.budgie.domain.CapacityStatistics;
+import com.sap.broker.budgie.helpers.BrokerClock;
+
+public class BackendCapacityTest {
+
+    private final BrokerClock clock = new BrokerClock(1);
+    private final List<String> started = new ArrayList<>();
+
+    @Test
+    public void testWithoutCapacityEveryOperationStartsAtOnce() {
+        BackendCapacity capacity = BackendCapacity.create(null);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(submit(capacity, OperationType.CREATE, "create" + i));
+        }
+        assertEquals(100, started.size());
+        assertTrue(capacity.isUnlimited());
+        assertNull(capacity.getStatistics());
+    }
+
+    @Test
+    public void testOperationsWaitForFreeSlotInArrivalOrder() {
+        BackendCapacity capacity = BackendCapacity.create(new CapacityConfiguration().setMaxConcurrentOperations(2));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(submit(capacity, OperationType.CREATE, "create" + i));
+        }
+        assertEquals(Arrays.asList("create0", "create1"), started);
+        assertEquals(3, capacity.getStatistics()
+            .getQueueLength());
+        capacity.release(clock);
+        capacity.release(clock);
+        assertEquals(Arrays.asList("create0", "create1", "create2", "create3"), started);
+        CapacityStatistics statistics = capacity.getStatistics();
+        assertEquals(2, statistics.getInFlightCount());
+        assertEquals(1, statistics.getQueueLength());
+        assertEquals(4, statistics.getStartedCount());
+        assertEquals(3, statistics.getQueuedCount());
+    }
+
+    @Test
+    public void testQueueIsServedInPriorityOrder() {
+        BackendCapacity capacity = BackendCapacity.create(new CapacityConfiguration().setMaxConcurrentOperations(1)
+            .setPriorityOrder(Arrays.asList(OperationType.DELETE, OperationType.UNBIND)));
+        submit(capacity, OperationType.CREATE, "create0");
+        submit(capacity, OperationType.CREATE, "create1");
+        submit(capacity, OperationType.UNBIND, "unbind");
+        submit(capacity, OperationType.BIND, "bind");
+        submit(capacity, OperationType.DELETE, "delete");
+        for (int i = 0; i < 4; i++) {
+            capacity.release(clock);
+        }
+        assertEquals(Arrays.asList("create0", "delete", "unbind", "create1", "bind"), started);
+    }
+
+    @Test
+    public void testOperationIsRejectedWhenQueueIsFull() {
+        BackendCapacity capacity = BackendCapacity.create(new CapacityConfiguration().setMaxConcurrentOperations(1)
+            .setMaxQueueLength(1));
+        assertTrue(submit(capacity, OperationType.CREATE, "create0"));
+        assertTrue(submit(capacity, OperationType.CREATE, "create1"));
+        assertFalse(submit(capacity, OperationType.CREATE, "create2"));
+        capacity.release(clock);
+        assertTrue(submit(capacity, OperationType.CREATE, "create3"));
+        assertEquals(Arrays.asList("create0", "create1"), started);
+        assertEquals(1, capacity.getStatistics()
+            .getRejectedCount());
+    }
+
+    @Test
+    public void testWaitTimeIsMeasuredOnBrokerClock() {
+        BackendCapacity capacity = BackendCapacity.create(new CapacityConfiguration().setMaxConcurrentOperations(1));
+        submit(capacity, OperationType.CREATE, "create0");
+        submit(capacity, OperationType.CREATE, "create1");
+        clock.advance(10, TimeUnit.SECONDS);
+        capacity.release(clock);
+        CapacityStatistics statistics = capacity.getStatistics();
+        assertTrue(statistics.getMaxWait() >= 10000, "Unexpected max wait: " + statistics.getMaxWait());
+        // One of the two started operations has not waited at all
+        assertTrue(statistics.getMeanWait() >= 5000 && statistics.getMeanWait() < statistics.getMaxWait(),
+            "Unexpected mean wait: " + statistics.getMeanWait());
+    }
+
+    @Test
+    public void testReleasingLastOperationFreesSlot() {
+        BackendCapacity capacity = BackendCapacity.create(new CapacityConfiguration().setMaxConcurrentOperations(1)
+            .setMaxQueueLength(0));
+        assertTrue(submit(capacity, OperationType.CREATE, "create0"));
+        assertFalse(submit(capacity, OperationType.CREATE, "create1"));
+        capacity.release(clock);
+        assertEquals(0, capacity.getStatistics()
+            .getInFlightCount());
+        assertTrue(submit(capacity, OperationType.CREATE, "create2"));
+        assertEquals(Arrays.asList("create0", "create2"), started);
+    }
+
+    private boolean submit(BackendCapacity capacity, OperationType operationType, String name) {
+        return capacity.submit(operationType, () -> started.add(name), clock);
+    }
+
+}
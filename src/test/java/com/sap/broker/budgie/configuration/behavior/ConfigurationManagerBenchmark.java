@@ -0,0 +1,93 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.domain.Plan;
+import com.sap.broker.budgie.domain.Service;
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.impl.Journal;
+
+// Evaluates the fail configurations of every operation type against an instance, which matches none of them
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigurationManagerBenchmark {
+
+    private static final String CONFIG_ID = "config";
+    private static final int SERVICES = 100;
+    private static final int PLANS_PER_SERVICE = 10;
+
+    @Param({ "10", "5000" })
+    public int instanceIds;
+
+    private ConfigurationManager configurationManager;
+    private ServiceInstance serviceInstance;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Service> services = IntStream.range(0, SERVICES)
+            .mapToObj(i -> new Service(UUID.randomUUID(), "service" + i, "service description", true, IntStream.range(0, PLANS_PER_SERVICE)
+                .mapToObj(j -> new Plan(UUID.randomUUID(), "plan" + i + "-" + j, "plan description"))
+                .collect(Collectors.toList())))
+            .collect(Collectors.toList());
+        ApplicationConfiguration applicationConfiguration = mock(ApplicationConfiguration.class);
+        when(applicationConfiguration.getServices()).thenAnswer(invocation -> services.stream());
+        when(applicationConfiguration.getPlans()).thenAnswer(invocation -> services.stream()
+            .flatMap(service -> service.getPlans()
+                .stream()));
+        configurationManager = new ConfigurationManager(applicationConfiguration, mock(Journal.class));
+        List<FailConfiguration> failConfigurations = new ArrayList<>();
+        for (FailConfiguration.OperationType operationType : FailConfiguration.OperationType.values()) {
+            failConfigurations.add(new FailConfiguration().setOperationType(operationType)
+                .setStatus(500)
+                .setInstanceIds(IntStream.range(0, instanceIds)
+                    .mapToObj(i -> UUID.randomUUID())
+                    .collect(Collectors.toList())));
+            failConfigurations.add(new FailConfiguration().setOperationType(operationType)
+                .setStatus(500)
+                .setServiceNames(Arrays.asList("service" + (SERVICES - 1)))
+                .setPlanNames(Arrays.asList("plan" + (SERVICES - 1) + "-0", "plan" + (SERVICES - 1) + "-1")));
+        }
+        ServiceBrokerConfiguration configuration = new ServiceBrokerConfiguration();
+        configuration.setFailConfigurations(Collections.unmodifiableList(failConfigurations));
+        configurationManager.addConfiguration(CONFIG_ID, configuration);
+        Service service = services.get(0);
+        serviceInstance = new ServiceInstance(UUID.randomUUID(), service.getId(), service.getPlans()
+            .get(0)
+            .getId());
+    }
+
+    @Benchmark
+    public Optional<Integer> shouldOperationFail() {
+        return configurationManager.shouldOperationFail(CONFIG_ID, FailConfiguration.OperationType.CREATE, serviceInstance);
+    }
+
+}
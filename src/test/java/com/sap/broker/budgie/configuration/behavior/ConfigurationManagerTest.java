@@ -4,6 +4,8 @@ import com.sap.broker.budgie.configuration.ApplicationConfiguration;
 import com.sap.broker.budgie.domain.Plan;
 import com.sap.broker.budgie.domain.Service;
 import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.helpers.BrokerClock;
+import com.sap.broker.budgie.impl.Journal;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,7 +16,12 @@ import java.util.UUID;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ConfigurationManagerTest {
@@ -24,17 +31,19 @@ public class ConfigurationManagerTest {
     private static final ServiceInstance INSTANCE = new ServiceInstance(UUID.randomUUID(), SERVICE.getId(), PLAN.getId());
     private static final ApplicationConfiguration APP_CONFIG = mock(ApplicationConfiguration.class);
 
+    private Journal journal;
     private ConfigurationManager configurationManager;
 
     @BeforeAll
     public static void init() {
-        when(APP_CONFIG.getServices()).thenReturn(Stream.of(SERVICE));
-        when(APP_CONFIG.getPlans()).thenReturn(Stream.of(PLAN));
+        when(APP_CONFIG.getServices()).thenAnswer(invocation -> Stream.of(SERVICE));
+        when(APP_CONFIG.getPlans()).thenAnswer(invocation -> Stream.of(PLAN));
     }
 
     @BeforeEach
     public void setUp() {
-        configurationManager = new ConfigurationManager(APP_CONFIG);
+        journal = mock(Journal.class);
+        configurationManager = new ConfigurationManager(APP_CONFIG, journal);
     }
 
     @Test
@@ -128,6 +137,109 @@ public class ConfigurationManagerTest {
         assertFalse(optionalStatus.isPresent());
     }
 
+    @Test
+    public void testShouldFailOnlyForConfiguredOperationType() {
+        ServiceBrokerConfiguration config = new ServiceBrokerConfiguration();
+        config.setFailConfigurations(Arrays.asList(getFailConfigForPlanId(FailConfiguration.OperationType.CREATE, 400)));
+        configurationManager.addConfiguration("test11", config);
+        assertFalse(configurationManager.shouldOperationFail("test11", FailConfiguration.OperationType.UPDATE, INSTANCE).isPresent());
+    }
+
+    @Test
+    public void testShouldFailOnlyWhenAllCriteriaMatch() {
+        ServiceBrokerConfiguration config = new ServiceBrokerConfiguration();
+        config.setFailConfigurations(Arrays.asList(getFailConfigForPlanName(FailConfiguration.OperationType.CREATE, 400)
+            .setInstanceIds(Arrays.asList(UUID.randomUUID())), getFailConfigForServiceId(FailConfiguration.OperationType.CREATE, 500)));
+        configurationManager.addConfiguration("test12", config);
+        assertEquals(Optional.of(500), configurationManager.shouldOperationFail("test12", FailConfiguration.OperationType.CREATE, INSTANCE));
+    }
+
+    @Test
+    public void testShouldResolvePlanNamesAgainAfterCatalogChange() {
+        ServiceBrokerConfiguration config = new ServiceBrokerConfiguration();
+        config.setFailConfigurations(Arrays.asList(getFailConfigForPlanName(FailConfiguration.OperationType.CREATE, 400)
+            .setPlanNames(Arrays.asList("plan2"))));
+        configurationManager.addConfiguration("test13", config);
+        assertFalse(configurationManager.shouldOperationFail("test13", FailConfiguration.OperationType.CREATE, INSTANCE).isPresent());
+
+        Plan renamedPlan = new Plan(PLAN.getId(), "plan2", "plan description");
+        when(APP_CONFIG.getPlans()).thenAnswer(invocation -> Stream.of(renamedPlan));
+        try {
+            configurationManager.onCatalogChange();
+            assertTrue(configurationManager.shouldOperationFail("test13", FailConfiguration.OperationType.CREATE, INSTANCE).isPresent());
+        } finally {
+            when(APP_CONFIG.getPlans()).thenAnswer(invocation -> Stream.of(PLAN));
+        }
+    }
+
+    @Test
+    public void testSnapshotIsNotChangedByConfigurationObject() {
+        ServiceBrokerConfiguration config = new ServiceBrokerConfiguration();
+        config.setSyncLatency(new LatencyProfile().setDistribution(LatencyProfile.Distribution.CONSTANT).setValue(100));
+        ConfigurationSnapshot snapshot = configurationManager.addConfiguration("test14", config);
+        config.getSyncLatency().setValue(200);
+        config.setAsyncDuration(300);
+        assertEquals(100, snapshot.getDuration());
+        assertFalse(snapshot.isAsync());
+        assertSame(snapshot, configurationManager.getSnapshot("test14"));
+    }
+
+    @Test
+    public void testAddingConfigurationReplacesSnapshot() {
+        ServiceBrokerConfiguration config = new ServiceBrokerConfiguration();
+        config.setSyncDuration(100);
+        ConfigurationSnapshot snapshot = configurationManager.addConfiguration("test15", config);
+        ServiceBrokerConfiguration otherConfig = new ServiceBrokerConfiguration();
+        otherConfig.setAsyncDuration(200);
+        ConfigurationSnapshot otherSnapshot = configurationManager.addConfiguration("test15", otherConfig);
+        assertTrue(otherSnapshot.getVersion() > snapshot.getVersion());
+        assertSame(otherSnapshot, configurationManager.getSnapshot("test15"));
+        assertEquals(100, snapshot.getDuration());
+        assertFalse(snapshot.isAsync());
+        assertTrue(otherSnapshot.isAsync());
+    }
+
+    @Test
+    public void testDefaultSnapshotWhenNoServiceBrokerConfiguration() {
+        ConfigurationSnapshot snapshot = configurationManager.getSnapshot("test");
+        assertNull(snapshot.getConfiguration());
+        assertFalse(snapshot.isAsync());
+        assertEquals(0, snapshot.getDuration());
+    }
+
+    @Test
+    public void testChangesAreNotMadeWhenJournalFails() {
+        ServiceBrokerConfiguration config = new ServiceBrokerConfiguration();
+        config.setAsyncDuration(200);
+        configurationManager.addConfiguration("test16", config);
+        doThrow(new IllegalStateException("Disk full.")).when(journal)
+            .appendConfiguration(eq("test16"), any());
+        doThrow(new IllegalStateException("Disk full.")).when(journal)
+            .appendConfigurationRemoval("test16");
+
+        assertThrows(IllegalStateException.class, () -> configurationManager.addConfiguration("test16", new ServiceBrokerConfiguration()));
+        assertThrows(IllegalStateException.class, () -> configurationManager.removeConfiguration("test16"));
+
+        assertTrue(configurationManager.isAsync("test16"));
+        assertNull(configurationManager.removeConfiguration("unknown"));
+        verify(journal, never()).appendConfigurationRemoval("unknown");
+    }
+
+    @Test
+    public void testRateLimitsAreKeptAfterCatalogChange() {
+        BrokerClock clock = new BrokerClock(1);
+        ServiceBrokerConfiguration config = new ServiceBrokerConfiguration();
+        config.setFailConfigurations(Arrays.asList(getFailConfigForPlanName(FailConfiguration.OperationType.CREATE, 400)));
+        config.setRateLimits(Arrays.asList(new RateLimitConfiguration().setRequestsPerSecond(0.001)
+            .setBurst(1)));
+        configurationManager.addConfiguration("test15", config);
+        assertEquals(0, configurationManager.getSnapshot("test15")
+            .tryAcquire(FailConfiguration.OperationType.CREATE, clock));
+        configurationManager.onCatalogChange();
+        assertTrue(configurationManager.getSnapshot("test15")
+            .tryAcquire(FailConfiguration.OperationType.CREATE, clock) > 0);
+    }
+
     @Test
     public void testGetTimeoutWhenAsync() {
         ServiceBrokerConfiguration config = new ServiceBrokerConfiguration();
@@ -146,6 +258,27 @@ public class ConfigurationManagerTest {
         assertFalse(configurationManager.isAsync("test8"));
     }
 
+    @Test
+    public void testGetTimeoutWhenAsyncLatency() {
+        ServiceBrokerConfiguration config = new ServiceBrokerConfiguration();
+        config.setAsyncLatency(new LatencyProfile().setDistribution(LatencyProfile.Distribution.UNIFORM).setMin(100).setMax(200));
+        configurationManager.addConfiguration("test9", config);
+        for (int i = 0; i < 100; i++) {
+            int duration = configurationManager.getDuration("test9");
+            assertTrue(duration >= 100 && duration <= 200);
+        }
+        assertTrue(configurationManager.isAsync("test9"));
+    }
+
+    @Test
+    public void testGetTimeoutWhenSyncLatency() {
+        ServiceBrokerConfiguration config = new ServiceBrokerConfiguration();
+        config.setSyncLatency(new LatencyProfile().setDistribution(LatencyProfile.Distribution.CONSTANT).setValue(400));
+        configurationManager.addConfiguration("test10", config);
+        assertEquals(new Integer(400), configurationManager.getDuration("test10"));
+        assertFalse(configurationManager.isAsync("test10"));
+    }
+
     @Test
     public void testGetTimeoutWhenNoServiceBrokerConfiguration() {
         assertEquals(new Integer(0), configurationManager.getDuration("test"));
@@ -0,0 +1,80 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyProfileTest {
+
+    private static final int SAMPLES = 100000;
+
+    @Test
+    public void testConstant() {
+        LatencyProfile profile = new LatencyProfile().setDistribution(LatencyProfile.Distribution.CONSTANT).setValue(250);
+        assertEquals(250, profile.sample(new Random(1)));
+    }
+
+    @Test
+    public void testUniformStaysWithinBounds() {
+        LatencyProfile profile = new LatencyProfile().setDistribution(LatencyProfile.Distribution.UNIFORM).setMin(10).setMax(20);
+        int[] samples = sample(profile);
+        assertEquals(10, samples[0]);
+        assertEquals(20, samples[SAMPLES - 1]);
+    }
+
+    @Test
+    public void testNormalIsClampedAtZero() {
+        LatencyProfile profile = new LatencyProfile().setDistribution(LatencyProfile.Distribution.NORMAL)
+            .setMean(100)
+            .setStandardDeviation(100);
+        int[] samples = sample(profile);
+        assertEquals(0, samples[0]);
+        assertEquals(100, percentile(samples, 0.5), 5);
+    }
+
+    @Test
+    public void testLogNormalMatchesPercentiles() {
+        LatencyProfile profile = new LatencyProfile().setDistribution(LatencyProfile.Distribution.LOG_NORMAL)
+            .setP50(100)
+            .setP99(2000);
+        int[] samples = sample(profile);
+        assertEquals(0.5, rank(samples, 100), 0.01);
+        assertEquals(0.99, rank(samples, 2000), 0.002);
+    }
+
+    @Test
+    public void testHistogramMatchesPercentiles() {
+        LatencyProfile profile = new LatencyProfile().setDistribution(LatencyProfile.Distribution.HISTOGRAM)
+            .setP50(100)
+            .setP90(500)
+            .setP99(3000)
+            .setMax(10000);
+        int[] samples = sample(profile);
+        assertEquals(0.5, rank(samples, 100), 0.01);
+        assertEquals(0.9, rank(samples, 500), 0.01);
+        assertEquals(0.99, rank(samples, 3000), 0.002);
+        assertTrue(samples[SAMPLES - 1] <= 10000);
+    }
+
+    private static int[] sample(LatencyProfile profile) {
+        Random random = new Random(42);
+        int[] samples = new int[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = profile.sample(random);
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static double rank(int[] sortedSamples, int value) {
+        return (double) Arrays.stream(sortedSamples).filter(sample -> sample <= value).count() / sortedSamples.length;
+    }
+
+    private static int percentile(int[] sortedSamples, double quantile) {
+        return sortedSamples[(int) (quantile * sortedSamples.length)];
+    }
+
+}
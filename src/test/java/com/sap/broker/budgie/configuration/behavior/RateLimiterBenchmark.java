@@ -0,0 +1,62 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sap.broker.budgie.helpers.BrokerClock;
+
+// Request threads sharing the buckets of one configuration, whose rate limit either admits or refuses every operation
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({ "unlimited", "admitted", "refused" })
+    public String rateLimit;
+
+    private RateLimiter rateLimiter;
+    private BrokerClock clock;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        clock = new BrokerClock(1);
+        switch (rateLimit) {
+            case "admitted":
+                rateLimiter = RateLimiter.compile(Arrays.asList(new RateLimitConfiguration().setRequestsPerSecond(1e12),
+                    new RateLimitConfiguration().setRequestsPerSecond(1e12)
+                        .setOperationType(FailConfiguration.OperationType.CREATE)));
+                break;
+            case "refused":
+                rateLimiter = RateLimiter.compile(Arrays.asList(new RateLimitConfiguration().setRequestsPerSecond(0.001)
+                    .setBurst(1)));
+                rateLimiter.tryAcquire(FailConfiguration.OperationType.CREATE, clock);
+                break;
+            default:
+                rateLimiter = RateLimiter.compile(null);
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return rateLimiter.tryAcquire(FailConfiguration.OperationType.CREATE, clock);
+    }
+
+}
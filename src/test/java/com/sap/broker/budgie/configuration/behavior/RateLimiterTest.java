@@ -0,0 +1,140 @@
+package com.sap.broker.budgie.configuration.behavior;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.broker.budgie.configuration.behavior.FailConfiguration.OperationType;
+import com.sap.broker.budgie.helpers.BrokerClock;
+
+public class RateLimiterTest {
+
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 1000;
+
+    private final BrokerClock clock = new BrokerClock(1);
+
+    @Test
+    public void testWithoutRateLimitsEveryOperationIsAdmitted() {
+        RateLimiter rateLimiter = RateLimiter.compile(null);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(OperationType.CREATE, clock));
+        }
+    }
+
+    @Test
+    public void testBurstIsAdmittedAndThenRefilled() {
+        RateLimiter rateLimiter = RateLimiter.compile(Arrays.asList(new RateLimitConfiguration().setRequestsPerSecond(1.0)
+            .setBurst(2)));
+        assertEquals(0, rateLimiter.tryAcquire(OperationType.CREATE, clock));
+        assertEquals(0, rateLimiter.tryAcquire(OperationType.CREATE, clock));
+        long waitNanos = rateLimiter.tryAcquire(OperationType.CREATE, clock);
+        assertTrue(waitNanos > 0 && waitNanos <= TimeUnit.SECONDS.toNanos(1), "Unexpected wait: " + waitNanos);
+        clock.advance(1, TimeUnit.SECONDS);
+        assertEquals(0, rateLimiter.tryAcquire(OperationType.CREATE, clock));
+        assertTrue(rateLimiter.tryAcquire(OperationType.CREATE, clock) > 0);
+    }
+
+    @Test
+    public void testWaitIsShorterInRealTimeWithScaledClock() {
+        BrokerClock scaledClock = new BrokerClock(60);
+        RateLimiter rateLimiter = RateLimiter.compile(Arrays.asList(new RateLimitConfiguration().setRequestsPerSecond(1.0 / 60)
+            .setBurst(1)));
+        assertEquals(0, rateLimiter.tryAcquire(OperationType.CREATE, scaledClock));
+        long waitNanos = rateLimiter.tryAcquire(OperationType.CREATE, scaledClock);
+        // One minute on the broker clock passes in one real second
+        assertTrue(waitNanos > TimeUnit.SECONDS.toNanos(50) && waitNanos <= TimeUnit.MINUTES.toNanos(1), "Unexpected wait: " + waitNanos);
+        long realWaitNanos = scaledClock.toRealNanos(waitNanos);
+        assertTrue(realWaitNanos > TimeUnit.MILLISECONDS.toNanos(800) && realWaitNanos <= TimeUnit.SECONDS.toNanos(1),
+            "Unexpected real wait: " + realWaitNanos);
+        scaledClock.advance(1, TimeUnit.MINUTES);
+        assertEquals(0, rateLimiter.tryAcquire(OperationType.CREATE, scaledClock));
+    }
+
+    @Test
+    public void testBurstDefaultsToOneSecondOfRequests() {
+        RateLimiter rateLimiter = RateLimiter.compile(Arrays.asList(new RateLimitConfiguration().setRequestsPerSecond(0.005)
+            .setOperationType(OperationType.CREATE), new RateLimitConfiguration().setRequestsPerSecond(2.5)
+                .setOperationType(OperationType.BIND)));
+        assertEquals(1, countAdmitted(rateLimiter, OperationType.CREATE, 10));
+        assertEquals(3, countAdmitted(rateLimiter, OperationType.BIND, 10));
+    }
+
+    @Test
+    public void testRateLimitsApplyOnlyToTheirOperationType() {
+        RateLimiter rateLimiter = RateLimiter.compile(Arrays.asList(new RateLimitConfiguration().setRequestsPerSecond(0.001)
+            .setBurst(1)
+            .setOperationType(OperationType.CREATE)));
+        assertEquals(1, countAdmitted(rateLimiter, OperationType.CREATE, 10));
+        assertEquals(10, countAdmitted(rateLimiter, OperationType.DELETE, 10));
+    }
+
+    @Test
+    public void testRateLimitWithoutOperationTypeIsSharedByAllOperations() {
+        RateLimiter rateLimiter = RateLimiter.compile(Arrays.asList(new RateLimitConfiguration().setRequestsPerSecond(0.001)
+            .setBurst(3)));
+        assertEquals(0, rateLimiter.tryAcquire(OperationType.CREATE, clock));
+        assertEquals(0, rateLimiter.tryAcquire(OperationType.UPDATE, clock));
+        assertEquals(0, rateLimiter.tryAcquire(OperationType.DELETE, clock));
+        assertTrue(rateLimiter.tryAcquire(OperationType.BIND, clock) > 0);
+        assertTrue(rateLimiter.tryAcquire(OperationType.UNBIND, clock) > 0);
+    }
+
+    @Test
+    public void testRefusedOperationTakesNoToken() {
+        RateLimiter rateLimiter = RateLimiter.compile(Arrays.asList(new RateLimitConfiguration().setRequestsPerSecond(0.001)
+            .setBurst(5), new RateLimitConfiguration().setRequestsPerSecond(0.001)
+                .setBurst(2)
+                .setOperationType(OperationType.CREATE)));
+        assertEquals(2, countAdmitted(rateLimiter, OperationType.CREATE, 10));
+        // The shared limit still has the tokens, which the refused creations would have taken
+        assertEquals(3, countAdmitted(rateLimiter, OperationType.DELETE, 10));
+    }
+
+    @Test
+    public void testConcurrentOperationsDoNotExceedBurst() throws Exception {
+        int burst = 100;
+        RateLimiter rateLimiter = RateLimiter.compile(Arrays.asList(new RateLimitConfiguration().setRequestsPerSecond(0.001)
+            .setBurst(burst)));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> admitted = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                admitted.add(executor.submit(() -> {
+                    start.await();
+                    return countAdmitted(rateLimiter, OperationType.CREATE, ATTEMPTS_PER_THREAD);
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> threadAdmitted : admitted) {
+                total += threadAdmitted.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(burst, total);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int countAdmitted(RateLimiter rateLimiter, OperationType operationType, int attempts) {
+        int admitted = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (rateLimiter.tryAcquire(operationType, clock) == 0) {
+                admitted++;
+            }
+        }
+        return admitted;
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.sap.broker.budgie.domain;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceInstanceBenchmark {
+
+    private ServiceInstance serviceInstance;
+    private SynchronizedBindings synchronizedBindings;
+
+    // Every iteration binds to a fresh instance, so that the binding maps grow from empty under contention
+    @Setup(Level.Iteration)
+    public void setUp() {
+        serviceInstance = new ServiceInstance(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        synchronizedBindings = new SynchronizedBindings();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public BindingMetadata bind() {
+        return serviceInstance.bindIfAbsent(randomId(), new BindingMetadata());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public BindingMetadata bindSynchronized() {
+        return synchronizedBindings.bindIfAbsent(randomId(), new BindingMetadata());
+    }
+
+    private static UUID randomId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+
+    private static class SynchronizedBindings {
+
+        private Map<UUID, BindingMetadata> bindings = new HashMap<>();
+
+        public synchronized BindingMetadata bindIfAbsent(UUID bindingId, BindingMetadata binding) {
+            return bindings.putIfAbsent(bindingId, binding);
+        }
+
+    }
+
+}
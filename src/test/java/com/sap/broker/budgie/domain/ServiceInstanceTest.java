@@ -0,0 +1,109 @@
+package com.sap.broker.budgie.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class ServiceInstanceTest {
+
+    private static final int THREADS = 8;
+    private static final int BINDINGS_PER_THREAD = 1000;
+
+    @Test
+    public void testBindIfAbsent() {
+        ServiceInstance serviceInstance = new ServiceInstance(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        UUID bindingId = UUID.randomUUID();
+        BindingMetadata binding = new BindingMetadata();
+
+        assertNull(serviceInstance.bindIfAbsent(bindingId, binding));
+        assertSame(binding, serviceInstance.bindIfAbsent(bindingId, new BindingMetadata()));
+        assertSame(binding, serviceInstance.unbind(bindingId));
+        assertNull(serviceInstance.unbind(bindingId));
+    }
+
+    @Test
+    public void testFingerprint() {
+        ServiceInstance serviceInstance = new ServiceInstance(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        serviceInstance.setParameters(parameters("a", 1.0, "b", Arrays.asList("x", "y")));
+        ServiceInstance reordered = new ServiceInstance(serviceInstance.getId(), serviceInstance.getServiceId(), serviceInstance.getPlanId());
+        reordered.setParameters(parameters("b", Arrays.asList("x", "y"), "a", 1.0));
+        long fingerprint = serviceInstance.getFingerprint();
+
+        assertEquals(fingerprint, reordered.getFingerprint());
+        serviceInstance.bind(UUID.randomUUID(), new BindingMetadata());
+        assertEquals(fingerprint, serviceInstance.getFingerprint());
+        reordered.setParameters(parameters("b", Arrays.asList("y", "x"), "a", 1.0));
+        assertNotEquals(fingerprint, reordered.getFingerprint());
+        reordered.setParameters(serviceInstance.getParameters());
+        reordered.setPlanId(UUID.randomUUID());
+        assertNotEquals(fingerprint, reordered.getFingerprint());
+    }
+
+    @Test
+    public void testConcurrentBindingsAreNotLost() throws Exception {
+        ServiceInstance serviceInstance = new ServiceInstance(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            tasks.add(() -> {
+                for (int j = 0; j < BINDINGS_PER_THREAD; j++) {
+                    serviceInstance.bind(UUID.randomUUID(), new BindingMetadata());
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        assertEquals(THREADS * BINDINGS_PER_THREAD, serviceInstance.getBindings()
+            .size());
+    }
+
+    @Test
+    public void testConcurrentBindIfAbsentHasSingleWinner() throws Exception {
+        ServiceInstance serviceInstance = new ServiceInstance(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        UUID bindingId = UUID.randomUUID();
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            tasks.add(() -> serviceInstance.bindIfAbsent(bindingId, new BindingMetadata()) == null);
+        }
+
+        long winners = runConcurrently(tasks).stream()
+            .filter(Boolean::booleanValue)
+            .count();
+        assertEquals(1, winners);
+    }
+
+    private static Map<String, Object> parameters(String firstKey, Object firstValue, String secondKey, Object secondValue) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put(firstKey, firstValue);
+        parameters.put(secondKey, secondValue);
+        return parameters;
+    }
+
+    private static <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.sap.broker.budgie.helpers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Admits and releases operations of one configuration, and rejects operations beyond a full limit. Run with -prof gc to
+// see, that neither allocates.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AdmissionControllerBenchmark {
+
+    private static final String CONFIG_ID = "config";
+    private static final String FULL_CONFIG_ID = "full-config";
+
+    private AdmissionController admissionController;
+    private AdmissionLimit configurationLimit;
+    private AdmissionLimit fullLimit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        admissionController = new AdmissionController(1000000, 503, 1);
+        configurationLimit = new AdmissionLimit(1000, 429, 1);
+        fullLimit = new AdmissionLimit(1, 429, 1);
+        admissionController.tryAdmit(FULL_CONFIG_ID, fullLimit);
+    }
+
+    @Benchmark
+    public AdmissionLimit admitAndRelease() {
+        AdmissionLimit exceededLimit = admissionController.tryAdmit(CONFIG_ID, configurationLimit);
+        if (exceededLimit == null) {
+            admissionController.release(CONFIG_ID);
+        }
+        return exceededLimit;
+    }
+
+    @Benchmark
+    public AdmissionLimit reject() {
+        return admissionController.tryAdmit(FULL_CONFIG_ID, fullLimit);
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.sap.broker.budgie.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.broker.budgie.domain.AdmissionStatistics;
+
+public class AdmissionControllerTest {
+
+    private static final String CONFIG_ID = "config";
+    private static final String OTHER_CONFIG_ID = "other-config";
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 1000;
+
+    @Test
+    public void testGlobalLimit() {
+        AdmissionController admissionController = new AdmissionController(2, 503, 5);
+        assertNull(admissionController.tryAdmit(CONFIG_ID, null));
+        assertNull(admissionController.tryAdmit(OTHER_CONFIG_ID, null));
+        AdmissionLimit exceededLimit = admissionController.tryAdmit(CONFIG_ID, null);
+        assertEquals(503, exceededLimit.getStatus());
+        assertEquals(Integer.valueOf(5), exceededLimit.getRetryAfter());
+        admissionController.release(OTHER_CONFIG_ID);
+        assertNull(admissionController.tryAdmit(CONFIG_ID, null));
+        AdmissionStatistics statistics = admissionController.getStatistics();
+        assertEquals(Integer.valueOf(2), statistics.getMaxPendingOperations());
+        assertEquals(2, statistics.getPendingCount());
+        assertEquals(3, statistics.getAdmittedCount());
+        assertEquals(1, statistics.getRejectedCount());
+    }
+
+    @Test
+    public void testConfigurationLimit() {
+        AdmissionController admissionController = new AdmissionController(100, 503, 1);
+        AdmissionLimit configurationLimit = new AdmissionLimit(1, 429, 10);
+        assertNull(admissionController.tryAdmit(CONFIG_ID, configurationLimit));
+        assertSame(configurationLimit, admissionController.tryAdmit(CONFIG_ID, configurationLimit));
+        // Other configurations and the global limit are not affected by the rejected operation
+        assertNull(admissionController.tryAdmit(OTHER_CONFIG_ID, configurationLimit));
+        assertEquals(2, admissionController.getStatistics()
+            .getPendingCount());
+        admissionController.release(CONFIG_ID);
+        assertNull(admissionController.tryAdmit(CONFIG_ID, configurationLimit));
+        AdmissionStatistics statistics = admissionController.getStatistics(CONFIG_ID, configurationLimit);
+        assertEquals(Integer.valueOf(1), statistics.getMaxPendingOperations());
+        assertEquals(1, statistics.getPendingCount());
+        assertEquals(2, statistics.getAdmittedCount());
+        assertEquals(1, statistics.getRejectedCount());
+        assertNull(admissionController.getStatistics("unknown", null));
+    }
+
+    @Test
+    public void testInvalidSettings() {
+        assertThrows(IllegalStateException.class, () -> new AdmissionController(0, 503, 1));
+        assertThrows(IllegalStateException.class, () -> new AdmissionController(1, 500, 1));
+        assertThrows(IllegalStateException.class, () -> new AdmissionController(1, 429, -1));
+    }
+
+    @Test
+    public void testConcurrentOperationsDoNotExceedLimit() throws Exception {
+        int maxPendingOperations = 100;
+        AdmissionController admissionController = new AdmissionController(maxPendingOperations, 503, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> admitted = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                String configId = "config" + i;
+                admitted.add(executor.submit(() -> {
+                    start.await();
+                    int threadAdmitted = 0;
+                    for (int j = 0; j < ATTEMPTS_PER_THREAD; j++) {
+                        if (admissionController.tryAdmit(configId, null) == null) {
+                            threadAdmitted++;
+                        }
+                    }
+                    return threadAdmitted;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> threadAdmitted : admitted) {
+                total += threadAdmitted.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(maxPendingOperations, total);
+            assertEquals(maxPendingOperations, admissionController.getStatistics()
+                .getPendingCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.sap.broker.budgie.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class AsyncOperationTest {
+
+    @Test
+    public void testOperationIsInProgressUntilRun() {
+        AsyncOperation asyncOperation = new AsyncOperation(() -> new AsyncOperationState(AsyncOperationState.State.SUCCEEDED));
+        assertEquals(AsyncOperationState.State.IN_PROGRESS, asyncOperation.getOperationState().getState());
+        assertFalse(asyncOperation.isCompleted());
+
+        asyncOperation.run();
+
+        assertEquals(AsyncOperationState.State.SUCCEEDED, asyncOperation.getOperationState().getState());
+        assertTrue(asyncOperation.isCompleted());
+    }
+
+    @Test
+    public void testOperationCompletesOnlyOnce() {
+        AtomicInteger executions = new AtomicInteger();
+        AsyncOperation asyncOperation = new AsyncOperation(() -> {
+            executions.incrementAndGet();
+            return new AsyncOperationState(AsyncOperationState.State.SUCCEEDED);
+        });
+        asyncOperation.run();
+        asyncOperation.run();
+
+        assertFalse(asyncOperation.complete(new AsyncOperationState(AsyncOperationState.State.FAILED)));
+        assertEquals(1, executions.get());
+        assertEquals(AsyncOperationState.State.SUCCEEDED, asyncOperation.getOperationState().getState());
+    }
+
+    @Test
+    public void testOperationFailsWhenExceptionIsThrown() {
+        AsyncOperation asyncOperation = new AsyncOperation(() -> {
+            throw new IllegalStateException("Test message.");
+        });
+        asyncOperation.run();
+
+        assertEquals(AsyncOperationState.State.FAILED, asyncOperation.getOperationState().getState());
+        assertEquals("Test message.", asyncOperation.getOperationState().getDescription());
+    }
+
+    @Test
+    public void testCompletionHooks() throws Exception {
+        AsyncOperation asyncOperation = new AsyncOperation(() -> new AsyncOperationState(AsyncOperationState.State.SUCCEEDED));
+        AtomicInteger notifications = new AtomicInteger();
+        asyncOperation.whenCompleted(completedOperation -> notifications.incrementAndGet());
+        asyncOperation.run();
+        asyncOperation.whenCompleted(completedOperation -> notifications.incrementAndGet());
+
+        assertEquals(2, notifications.get());
+        assertEquals(AsyncOperationState.State.SUCCEEDED, asyncOperation.toCompletionStage()
+            .toCompletableFuture()
+            .get(1, TimeUnit.SECONDS)
+            .getState());
+    }
+
+    @Test
+    public void testGivenUpWaitersAreNotKept() throws Exception {
+        AsyncOperation asyncOperation = new AsyncOperation(() -> new AsyncOperationState(AsyncOperationState.State.SUCCEEDED));
+        for (int i = 0; i < 10000; i++) {
+            CompletableFuture<AsyncOperationState> timedOut = new CompletableFuture<>();
+            CompletionStage<AsyncOperationState> waiter = asyncOperation.completionOr(timedOut);
+            timedOut.complete(asyncOperation.getOperationState());
+            assertEquals(AsyncOperationState.State.IN_PROGRESS, waiter.toCompletableFuture()
+                .get(1, TimeUnit.SECONDS)
+                .getState());
+        }
+        assertTrue(asyncOperation.getNumberOfDependents() <= 1, "Unexpected dependents: " + asyncOperation.getNumberOfDependents());
+
+        CompletableFuture<AsyncOperationState> waiter = asyncOperation.completionOr(new CompletableFuture<>())
+            .toCompletableFuture();
+        asyncOperation.run();
+        assertEquals(AsyncOperationState.State.SUCCEEDED, waiter.get(1, TimeUnit.SECONDS)
+            .getState());
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.sap.broker.budgie.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class BrokerClockTest {
+
+    @Test
+    public void testTimeIsScaled() throws InterruptedException {
+        BrokerClock clock = new BrokerClock(100);
+        long start = clock.nanoTime();
+        Thread.sleep(20);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(clock.nanoTime() - start) >= 2000);
+    }
+
+    @Test
+    public void testAdvance() {
+        BrokerClock clock = new BrokerClock(1);
+        long start = clock.currentTimeMillis();
+        clock.advance(1, TimeUnit.DAYS);
+        assertTrue(clock.currentTimeMillis() - start >= TimeUnit.DAYS.toMillis(1));
+    }
+
+    @Test
+    public void testChangingTimeScaleKeepsTimeMonotonic() {
+        BrokerClock clock = new BrokerClock(1000);
+        clock.advance(1, TimeUnit.HOURS);
+        long before = clock.nanoTime();
+        clock.setTimeScale(1);
+        assertTrue(clock.nanoTime() >= before);
+        assertEquals(1, clock.getTimeScale());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        BrokerClock clock = new BrokerClock(1);
+        assertThrows(IllegalArgumentException.class, () -> clock.setTimeScale(0));
+        assertThrows(IllegalArgumentException.class, () -> clock.advance(-1, TimeUnit.MILLISECONDS));
+    }
+
+}
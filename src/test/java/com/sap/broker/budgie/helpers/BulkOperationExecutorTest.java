@@ -0,0 +1,181 @@
+package com.sap.broker.budgie.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BulkOperationExecutorTest {
+
+    private static final int MAX_PENDING = 4;
+
+    private BulkOperationExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = new BulkOperationExecutor(2, MAX_PENDING);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testEveryItemHasResult() throws IOException {
+        List<Integer> items = IntStream.range(0, 1000)
+            .boxed()
+            .collect(Collectors.toList());
+        List<Integer> results = new ArrayList<>();
+        executor.executeAll(items.iterator(), item -> CompletableFuture.completedFuture(item * 2), (item, error) -> -1, writer(results));
+
+        Collections.sort(results);
+        assertEquals(items.stream()
+            .map(item -> item * 2)
+            .collect(Collectors.toList()), results);
+    }
+
+    @Test
+    public void testFailedItemsAreReported() throws IOException {
+        List<Integer> results = new ArrayList<>();
+        executor.executeAll(Collections.nCopies(3, 0)
+            .iterator(), item -> {
+                throw new IllegalStateException();
+            }, (item, error) -> error instanceof IllegalStateException ? -1 : 0, writer(results));
+
+        assertEquals(Collections.nCopies(3, -1), results);
+    }
+
+    @Test
+    public void testResultsAreWrittenBeforeReadFailure() {
+        Iterator<Integer> items = new Iterator<Integer>() {
+
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                if (read == MAX_PENDING * 2) {
+                    throw new IllegalArgumentException("Malformed item.");
+                }
+                return read++;
+            }
+
+        };
+        List<Integer> results = new ArrayList<>();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> executor.executeAll(items, item -> {
+            sleep(1);
+            return CompletableFuture.completedFuture(item);
+        }, (item, error) -> -1, writer(results)));
+
+        assertEquals("Malformed item.", exception.getMessage());
+        Collections.sort(results);
+        assertEquals(IntStream.range(0, MAX_PENDING * 2)
+            .boxed()
+            .collect(Collectors.toList()), results);
+    }
+
+    @Test
+    public void testItemsAreNotReadTooFarAhead() throws IOException {
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        Iterator<Integer> items = new Iterator<Integer>() {
+
+            @Override
+            public boolean hasNext() {
+                return read.get() < 100;
+            }
+
+            @Override
+            public Integer next() {
+                maxAhead.accumulateAndGet(read.incrementAndGet() - written.get(), Math::max);
+                return read.get();
+            }
+
+        };
+        executor.executeAll(items, item -> {
+            sleep(1);
+            return CompletableFuture.completedFuture(item);
+        }, (item, error) -> -1, writer(new ArrayList<>(), written));
+
+        assertEquals(100, written.get());
+        assertTrue(maxAhead.get() <= MAX_PENDING + 1);
+    }
+
+    @Test
+    public void testExecuteAllRunsEveryItemOnce() {
+        List<Integer> items = IntStream.range(0, 1000)
+            .boxed()
+            .collect(Collectors.toList());
+        List<Integer> results = Collections.synchronizedList(new ArrayList<>());
+        executor.executeAll(items.iterator(), results::add)
+            .join();
+
+        List<Integer> sortedResults = new ArrayList<>(results);
+        Collections.sort(sortedResults);
+        assertEquals(items, sortedResults);
+    }
+
+    @Test
+    public void testExecuteAllStopsAtFirstFailure() {
+        AtomicInteger processed = new AtomicInteger();
+        CompletableFuture<Void> completion = executor.executeAll(IntStream.range(0, 100000)
+            .iterator(), item -> {
+                processed.incrementAndGet();
+                throw new IllegalStateException();
+            });
+
+        CompletionException exception = assertThrows(CompletionException.class, completion::join);
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+        assertTrue(processed.get() < 100000);
+    }
+
+    private static void sleep(long milliseconds) {
+        try {
+            Thread.sleep(milliseconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+        }
+    }
+
+    private static BulkOperationExecutor.ResultWriter<Integer> writer(List<Integer> results) {
+        return writer(results, new AtomicInteger());
+    }
+
+    private static BulkOperationExecutor.ResultWriter<Integer> writer(List<Integer> results, AtomicInteger written) {
+        return new BulkOperationExecutor.ResultWriter<Integer>() {
+
+            @Override
+            public void write(Integer result) {
+                results.add(result);
+                written.incrementAndGet();
+            }
+
+            @Override
+            public void flush() {
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.sap.broker.budgie.helpers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HashedWheelTimerBenchmark {
+
+    private static final long INSERT_DELAY_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int EXPIRY_SPREAD_MILLIS = 100;
+
+    @Param({ "10000", "100000", "1000000" })
+    private int pendingOperations;
+
+    private ExecutorService taskExecutor;
+    private HashedWheelTimer timer;
+    private ScheduledThreadPoolExecutor scheduledExecutor;
+    private CountDownLatch completions;
+    private long[] delays;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        taskExecutor = Executors.newFixedThreadPool(4);
+        delays = new long[pendingOperations];
+        for (int i = 0; i < pendingOperations; i++) {
+            delays[i] = ThreadLocalRandom.current().nextInt(EXPIRY_SPREAD_MILLIS);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        timer = new HashedWheelTimer("benchmark-timer", 1, TimeUnit.MILLISECONDS, 512, taskExecutor);
+        scheduledExecutor = new ScheduledThreadPoolExecutor(4);
+        completions = new CountDownLatch(pendingOperations);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownInvocation() {
+        timer.stop();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        taskExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public long hashedWheelTimerInsert() {
+        for (int i = 0; i < pendingOperations; i++) {
+            timer.newTimeout(completions::countDown, INSERT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return timer.getPendingTimeouts();
+    }
+
+    @Benchmark
+    public long scheduledExecutorInsert() {
+        for (int i = 0; i < pendingOperations; i++) {
+            scheduledExecutor.schedule(completions::countDown, INSERT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return scheduledExecutor.getQueue().size();
+    }
+
+    @Benchmark
+    public long hashedWheelTimerInsertAndExpire() throws InterruptedException {
+        for (int i = 0; i < pendingOperations; i++) {
+            timer.newTimeout(completions::countDown, delays[i], TimeUnit.MILLISECONDS);
+        }
+        completions.await();
+        return completions.getCount();
+    }
+
+    @Benchmark
+    public long scheduledExecutorInsertAndExpire() throws InterruptedException {
+        for (int i = 0; i < pendingOperations; i++) {
+            scheduledExecutor.schedule(completions::countDown, delays[i], TimeUnit.MILLISECONDS);
+        }
+        completions.await();
+        return completions.getCount();
+    }
+
+}
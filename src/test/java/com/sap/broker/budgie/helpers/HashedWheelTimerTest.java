@@ -0,0 +1,113 @@
+package com.sap.broker.budgie.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @BeforeEach
+    public void setUp() {
+        timer = new HashedWheelTimer("test-timer", 1, TimeUnit.MILLISECONDS, 8, Runnable::run);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    public void testTimeoutExpiresAfterDelay() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(latch::countDown, 50, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        assertTrue(timeout.isExpired());
+    }
+
+    @Test
+    public void testTimeoutExpiresAfterSeveralRounds() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        timer.newTimeout(latch::countDown, 30, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 30);
+    }
+
+    @Test
+    public void testCancelledTimeoutDoesNotExpire() throws InterruptedException {
+        AtomicInteger executions = new AtomicInteger();
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(executions::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+        assertEquals(0, timer.getPendingTimeouts());
+        Thread.sleep(100);
+        assertEquals(0, executions.get());
+        assertFalse(timeout.isExpired());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    public void testPendingTimeouts() throws InterruptedException {
+        int count = 1000;
+        CountDownLatch latch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            timer.newTimeout(latch::countDown, i % 40, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(timer.getPendingTimeouts() > 0);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, timer.getPendingTimeouts());
+    }
+
+    @Test
+    public void testTimeoutExpiresInScaledTime() throws InterruptedException {
+        HashedWheelTimer scaledTimer = new HashedWheelTimer("scaled-timer", 10, TimeUnit.MILLISECONDS, 8, Runnable::run,
+            new BrokerClock(1000));
+        try {
+            CountDownLatch latch = new CountDownLatch(1);
+            long start = System.nanoTime();
+            scaledTimer.newTimeout(latch::countDown, 10, TimeUnit.SECONDS);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        } finally {
+            scaledTimer.stop();
+        }
+    }
+
+    @Test
+    public void testTimeoutExpiresWhenClockIsAdvanced() throws InterruptedException {
+        BrokerClock clock = new BrokerClock(1);
+        HashedWheelTimer advancedTimer = new HashedWheelTimer("advanced-timer", 1, TimeUnit.MILLISECONDS, 8, Runnable::run, clock);
+        try {
+            CountDownLatch latch = new CountDownLatch(1);
+            AtomicInteger executions = new AtomicInteger();
+            advancedTimer.newTimeout(latch::countDown, 1, TimeUnit.HOURS);
+            advancedTimer.newTimeout(executions::incrementAndGet, 2, TimeUnit.HOURS);
+            clock.advance(1, TimeUnit.HOURS);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(0, executions.get());
+            assertEquals(1, advancedTimer.getPendingTimeouts());
+        } finally {
+            advancedTimer.stop();
+        }
+    }
+
+    @Test
+    public void testNewTimeoutWhenStopped() {
+        timer.stop();
+        assertThrows(IllegalStateException.class, () -> timer.newTimeout(() -> {
+        }, 1, TimeUnit.MILLISECONDS));
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.sap.broker.budgie.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+
+import org.glassfish.jersey.media.sse.OutboundEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.broker.budgie.configuration.behavior.FailConfiguration.OperationType;
+import com.sap.broker.budgie.domain.AsyncOperationEvent;
+import com.sap.broker.budgie.helpers.AsyncOperation;
+import com.sap.broker.budgie.helpers.AsyncOperationState;
+import com.sap.broker.budgie.helpers.BrokerClock;
+import com.sap.broker.budgie.impl.AsyncOperationEventBroadcaster.OverflowPolicy;
+
+public class AsyncOperationEventBroadcasterTest {
+
+    private static final String CONFIG_ID = "config";
+    private static final int BUFFER_SIZE = 3;
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+    private final AsyncOperationEventBroadcaster broadcaster = new AsyncOperationEventBroadcaster(BUFFER_SIZE, new BrokerClock(1));
+    private final List<OutboundSseEvent> sent = Collections.synchronizedList(new ArrayList<>());
+    private Sse sse;
+    private SseEventSink sink;
+
+    @BeforeEach
+    public void setUp() {
+        sse = mock(Sse.class);
+        when(sse.newEventBuilder()).thenAnswer(invocation -> new OutboundEvent.Builder());
+        sink = mock(SseEventSink.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    public void testEventsAreFilteredByInstanceAndOperationType() {
+        when(sink.send(any())).thenAnswer(invocation -> sendNow(invocation.getArgument(0)));
+        UUID instanceId = UUID.randomUUID();
+        broadcaster.subscribe(CONFIG_ID, instanceId, OperationType.UPDATE, OverflowPolicy.DROP, sink, sse);
+
+        broadcaster.publish(createOperation("other-config", OperationType.UPDATE, instanceId));
+        broadcaster.publish(createOperation(CONFIG_ID, OperationType.UPDATE, UUID.randomUUID()));
+        broadcaster.publish(createOperation(CONFIG_ID, OperationType.CREATE, instanceId));
+        AsyncOperation expected = createOperation(CONFIG_ID, OperationType.UPDATE, instanceId);
+        broadcaster.publish(expected);
+
+        verify(sink, timeout(TIMEOUT)).send(any());
+        assertEquals(Collections.singletonList(expected.getInstanceId()), getSentInstanceIds());
+        assertEquals(OperationType.UPDATE, getSentEvent(0).getOperationType());
+    }
+
+    @Test
+    public void testEventsBeyondBufferAreDropped() {
+        CompletableFuture<Void> firstSend = new CompletableFuture<>();
+        when(sink.send(any())).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            return sent.size() == 1 ? firstSend : CompletableFuture.completedFuture(null);
+        });
+        broadcaster.subscribe(CONFIG_ID, null, null, OverflowPolicy.DROP, sink, sse);
+        List<UUID> published = publishWhileFirstSendIsPending(BUFFER_SIZE + 2);
+
+        firstSend.complete(null);
+
+        verify(sink, timeout(TIMEOUT).times(BUFFER_SIZE + 1)).send(any());
+        assertEquals(published.subList(0, BUFFER_SIZE + 1), getSentInstanceIds());
+        verify(sink, never()).close();
+        assertEquals(1, broadcaster.getSubscribersCount());
+    }
+
+    @Test
+    public void testSubscriberIsDisconnectedWhenBufferOverflows() {
+        when(sink.send(any())).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            return new CompletableFuture<>();
+        });
+        broadcaster.subscribe(CONFIG_ID, null, null, OverflowPolicy.DISCONNECT, sink, sse);
+        publishWhileFirstSendIsPending(BUFFER_SIZE);
+        verify(sink, never()).close();
+
+        broadcaster.publish(createOperation(CONFIG_ID, OperationType.CREATE, UUID.randomUUID()));
+
+        verify(sink).close();
+        assertEquals(0, broadcaster.getSubscribersCount());
+    }
+
+    @Test
+    public void testSubscriberIsDisconnectedWhenSendFailsLater() {
+        CompletableFuture<Void> firstSend = new CompletableFuture<>();
+        when(sink.send(any())).thenAnswer(invocation -> firstSend);
+        broadcaster.subscribe(CONFIG_ID, null, null, OverflowPolicy.DROP, sink, sse);
+        broadcaster.publish(createOperation(CONFIG_ID, OperationType.CREATE, UUID.randomUUID()));
+        verify(sink, timeout(TIMEOUT)).send(any());
+        assertEquals(1, broadcaster.getSubscribersCount());
+
+        firstSend.completeExceptionally(new IllegalStateException("Connection reset."));
+
+        verify(sink, timeout(TIMEOUT)).close();
+        assertEquals(0, broadcaster.getSubscribersCount());
+    }
+
+    // Publishes the first event and waits until its send is pending, so that all further events go to the buffer
+    private List<UUID> publishWhileFirstSendIsPending(int bufferedEvents) {
+        List<UUID> published = new ArrayList<>();
+        AsyncOperation first = createOperation(CONFIG_ID, OperationType.CREATE, UUID.randomUUID());
+        published.add(first.getInstanceId());
+        broadcaster.publish(first);
+        verify(sink, timeout(TIMEOUT)).send(any());
+        for (int i = 0; i < bufferedEvents; i++) {
+            AsyncOperation asyncOperation = createOperation(CONFIG_ID, OperationType.CREATE, UUID.randomUUID());
+            published.add(asyncOperation.getInstanceId());
+            broadcaster.publish(asyncOperation);
+        }
+        return published;
+    }
+
+    private CompletableFuture<Void> sendNow(OutboundSseEvent event) {
+        sent.add(event);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private List<UUID> getSentInstanceIds() {
+        synchronized (sent) {
+            return sent.stream()
+                .map(event -> ((AsyncOperationEvent) event.getData()).getInstanceId())
+                .collect(Collectors.toList());
+        }
+    }
+
+    private AsyncOperationEvent getSentEvent(int index) {
+        return (AsyncOperationEvent) sent.get(index)
+            .getData();
+    }
+
+    private static AsyncOperation createOperation(String configId, OperationType operationType, UUID instanceId) {
+        return new AsyncOperation(configId, operationType, instanceId, null,
+            () -> new AsyncOperationState(AsyncOperationState.State.SUCCEEDED));
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.sap.broker.budgie.impl;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sap.broker.budgie.helpers.AsyncOperation;
+import com.sap.broker.budgie.helpers.AsyncOperationExecutor;
+import com.sap.broker.budgie.helpers.AsyncOperationState;
+import com.sap.broker.budgie.helpers.BrokerClock;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncOperationManagerBenchmark {
+
+    private static final String CONFIG_ID = "config";
+    private static final int OPERATIONS = 100000;
+    private static final long NO_EXPIRATION = TimeUnit.DAYS.toMillis(1);
+    private static final BrokerClock CLOCK = new BrokerClock(1);
+
+    private AsyncOperationExecutor executor;
+    private AsyncOperationManager manager;
+    private SynchronizedRegistry synchronizedRegistry;
+    private UUID[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = new AsyncOperationExecutor(1, 100, 512, CLOCK);
+        manager = new AsyncOperationManager(NO_EXPIRATION, OPERATIONS, OPERATIONS, new AsyncOperationEventBroadcaster(1, CLOCK), executor,
+            CLOCK);
+        synchronizedRegistry = new SynchronizedRegistry();
+        ids = new UUID[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            ids[i] = UUID.randomUUID();
+            AsyncOperation asyncOperation = createOperation();
+            manager.addOperation(CONFIG_ID, ids[i], asyncOperation);
+            synchronizedRegistry.addOperation(ids[i], asyncOperation);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public AsyncOperationState pollOperationState() {
+        return manager.getOperationState(CONFIG_ID, randomId());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public AsyncOperationState pollOperationStateSynchronized() {
+        return synchronizedRegistry.getOperation(randomId())
+            .getOperationState();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public AsyncOperationState mixedPoll() {
+        return manager.getOperationState(CONFIG_ID, randomId());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedAdd() {
+        manager.addOperation(CONFIG_ID, randomId(), createOperation());
+    }
+
+    @Benchmark
+    @Group("mixedSynchronized")
+    @GroupThreads(7)
+    public AsyncOperationState mixedPollSynchronized() {
+        return synchronizedRegistry.getOperation(randomId())
+            .getOperationState();
+    }
+
+    @Benchmark
+    @Group("mixedSynchronized")
+    @GroupThreads(1)
+    public void mixedAddSynchronized() {
+        synchronizedRegistry.addOperation(randomId(), createOperation());
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(OPERATIONS)];
+    }
+
+    private static AsyncOperation createOperation() {
+        return new AsyncOperation(() -> new AsyncOperationState(AsyncOperationState.State.SUCCEEDED));
+    }
+
+    private static class SynchronizedRegistry {
+
+        private Map<UUID, AsyncOperation> asyncOperations = new ConcurrentHashMap<>();
+
+        public synchronized AsyncOperation getOperation(UUID id) {
+            return asyncOperations.get(id);
+        }
+
+        public synchronized void addOperation(UUID id, AsyncOperation asyncOperation) {
+            asyncOperations.put(id, asyncOperation);
+        }
+
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.sap.broker.budgie.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import com.sap.broker.budgie.helpers.AsyncOperation;
+import com.sap.broker.budgie.helpers.AsyncOperationExecutor;
+import com.sap.broker.budgie.helpers.AsyncOperationState;
+import com.sap.broker.budgie.helpers.BrokerClock;
+
+public class AsyncOperationManagerTest {
+
+    private static final String CONFIG_ID = "config";
+    private static final long NO_EXPIRATION = Long.MAX_VALUE / 2;
+    private static final BrokerClock CLOCK = new BrokerClock(1);
+    private static final AsyncOperationExecutor EXECUTOR = new AsyncOperationExecutor(1, 10, 64, CLOCK);
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+    @AfterAll
+    public static void tearDown() {
+        EXECUTOR.shutdown();
+    }
+
+    @Test
+    public void testCompletedOperationExpiresAfterTimeToLive() {
+        AsyncOperationManager manager = new AsyncOperationManager(0, 10, 10, new AsyncOperationEventBroadcaster(1, CLOCK), EXECUTOR,
+            CLOCK);
+        UUID id = UUID.randomUUID();
+        AsyncOperation asyncOperation = createOperation(AsyncOperationState.State.SUCCEEDED);
+        manager.addOperation(CONFIG_ID, id, asyncOperation);
+        asyncOperation.run();
+
+        assertNull(manager.getOperation(CONFIG_ID, id));
+        assertEquals(AsyncOperationState.State.SUCCEEDED, manager.getOperationState(CONFIG_ID, id).getState());
+    }
+
+    @Test
+    public void testCompletedOperationExpiresWhenClockIsAdvanced() throws InterruptedException {
+        BrokerClock clock = new BrokerClock(1);
+        AsyncOperationExecutor executor = new AsyncOperationExecutor(1, 10, 64, clock);
+        try {
+            AsyncOperationManager manager = new AsyncOperationManager(TimeUnit.HOURS.toMillis(1), 10, 10,
+                new AsyncOperationEventBroadcaster(1, clock), executor, clock);
+            UUID id = UUID.randomUUID();
+            manager.addOperation(CONFIG_ID, id, createCompletedOperation(AsyncOperationState.State.SUCCEEDED));
+            assertNotNull(manager.getOperation(CONFIG_ID, id));
+
+            clock.advance(2, TimeUnit.HOURS);
+
+            // Nothing is added or completed anymore, so only the periodic eviction can expire the operation
+            assertTrue(waitUntilEvicted(manager, id));
+            assertEquals(AsyncOperationState.State.SUCCEEDED, manager.getOperationState(CONFIG_ID, id).getState());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testOperationInProgressIsNeverEvicted() {
+        AsyncOperationManager manager = new AsyncOperationManager(0, 0, 10, new AsyncOperationEventBroadcaster(1, CLOCK), EXECUTOR,
+            CLOCK);
+        UUID id = UUID.randomUUID();
+        AsyncOperation asyncOperation = createOperation(AsyncOperationState.State.SUCCEEDED);
+        manager.addOperation(CONFIG_ID, id, asyncOperation);
+        manager.addOperation(CONFIG_ID, UUID.randomUUID(), createCompletedOperation(AsyncOperationState.State.FAILED));
+
+        assertSame(asyncOperation, manager.getOperation(CONFIG_ID, id));
+        assertEquals(AsyncOperationState.State.IN_PROGRESS, manager.getOperationState(CONFIG_ID, id).getState());
+    }
+
+    @Test
+    public void testOldestCompletedOperationsAreEvictedWhenMaxEntriesIsExceeded() {
+        AsyncOperationManager manager = new AsyncOperationManager(NO_EXPIRATION, 2, 10, new AsyncOperationEventBroadcaster(1, CLOCK), EXECUTOR,
+            CLOCK);
+        UUID[] ids = new UUID[] { UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID() };
+        for (UUID id : ids) {
+            manager.addOperation(CONFIG_ID, id, createCompletedOperation(AsyncOperationState.State.FAILED));
+        }
+
+        assertNull(manager.getOperation(CONFIG_ID, ids[0]));
+        assertNotNull(manager.getOperation(CONFIG_ID, ids[1]));
+        assertNotNull(manager.getOperation(CONFIG_ID, ids[2]));
+        assertEquals(AsyncOperationState.State.FAILED, manager.getOperationState(CONFIG_ID, ids[0]).getState());
+        assertEquals(2, manager.getOperationsCount());
+    }
+
+    @Test
+    public void testTombstonesAreBounded() {
+        AsyncOperationManager manager = new AsyncOperationManager(0, 0, 1, new AsyncOperationEventBroadcaster(1, CLOCK), EXECUTOR,
+            CLOCK);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        manager.addOperation(CONFIG_ID, first, createCompletedOperation(AsyncOperationState.State.SUCCEEDED));
+        manager.addOperation(CONFIG_ID, second, createCompletedOperation(AsyncOperationState.State.SUCCEEDED));
+
+        assertNull(manager.getOperationState(CONFIG_ID, first));
+        assertNotNull(manager.getOperationState(CONFIG_ID, second));
+        assertEquals(1, manager.getTombstonesCount());
+    }
+
+    @Test
+    public void testNewOperationReplacesTombstone() {
+        AsyncOperationManager manager = new AsyncOperationManager(0, 0, 10, new AsyncOperationEventBroadcaster(1, CLOCK), EXECUTOR,
+            CLOCK);
+        UUID id = UUID.randomUUID();
+        manager.addOperation(CONFIG_ID, id, createCompletedOperation(AsyncOperationState.State.SUCCEEDED));
+        manager.addOperation(CONFIG_ID, id, createOperation(AsyncOperationState.State.FAILED));
+
+        assertEquals(AsyncOperationState.State.IN_PROGRESS, manager.getOperationState(CONFIG_ID, id).getState());
+    }
+
+    @Test
+    public void testReplacedTombstoneDoesNotEvictNewerOne() {
+        AsyncOperationManager manager = new AsyncOperationManager(0, 0, 2, new AsyncOperationEventBroadcaster(1, CLOCK), EXECUTOR,
+            CLOCK);
+        UUID id = UUID.randomUUID();
+        UUID otherId = UUID.randomUUID();
+        manager.addOperation(CONFIG_ID, id, createCompletedOperation(AsyncOperationState.State.SUCCEEDED));
+        AsyncOperation asyncOperation = createOperation(AsyncOperationState.State.FAILED);
+        manager.addOperation(CONFIG_ID, id, asyncOperation);
+        asyncOperation.run();
+        manager.addOperation(CONFIG_ID, otherId, createCompletedOperation(AsyncOperationState.State.SUCCEEDED));
+
+        assertEquals(AsyncOperationState.State.FAILED, manager.getOperationState(CONFIG_ID, id).getState());
+        assertNotNull(manager.getOperationState(CONFIG_ID, otherId));
+        assertEquals(2, manager.getTombstonesCount());
+    }
+
+    @Test
+    public void testRemovedOperationIsNotRetained() {
+        AsyncOperationManager manager = new AsyncOperationManager(0, 0, 10, new AsyncOperationEventBroadcaster(1, CLOCK), EXECUTOR,
+            CLOCK);
+        UUID id = UUID.randomUUID();
+        AsyncOperation asyncOperation = createOperation(AsyncOperationState.State.FAILED);
+        manager.addOperation(CONFIG_ID, id, asyncOperation);
+        manager.removeOperation(CONFIG_ID, id, createOperation(AsyncOperationState.State.FAILED));
+        assertSame(asyncOperation, manager.getOperation(CONFIG_ID, id));
+
+        manager.removeOperation(CONFIG_ID, id, asyncOperation);
+        asyncOperation.run();
+
+        assertNull(manager.getOperationState(CONFIG_ID, id));
+        assertEquals(0, manager.getTombstonesCount());
+    }
+
+    @Test
+    public void testDeleteAllDropsOnlyItsPartition() {
+        AsyncOperationManager manager = new AsyncOperationManager(0, 0, 10, new AsyncOperationEventBroadcaster(1, CLOCK), EXECUTOR,
+            CLOCK);
+        UUID id = UUID.randomUUID();
+        UUID otherId = UUID.randomUUID();
+        manager.addOperation(CONFIG_ID, id, createCompletedOperation(AsyncOperationState.State.SUCCEEDED));
+        manager.addOperation("other", otherId, createOperation(AsyncOperationState.State.SUCCEEDED));
+        manager.deleteAll(CONFIG_ID);
+        manager.addOperation("other", UUID.randomUUID(), createCompletedOperation(AsyncOperationState.State.FAILED));
+
+        assertNull(manager.getOperationState(CONFIG_ID, id));
+        assertNull(manager.getOperationState(CONFIG_ID, otherId));
+        assertEquals(AsyncOperationState.State.IN_PROGRESS, manager.getOperationState("other", otherId).getState());
+        assertEquals(0, manager.getTombstonesCount(CONFIG_ID));
+        assertEquals(1, manager.getTombstonesCount("other"));
+    }
+
+    private boolean waitUntilEvicted(AsyncOperationManager manager, UUID id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (manager.getOperation(CONFIG_ID, id) != null) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private AsyncOperation createOperation(AsyncOperationState.State state) {
+        return new AsyncOperation(() -> new AsyncOperationState(state));
+    }
+
+    private AsyncOperation createCompletedOperation(AsyncOperationState.State state) {
+        AsyncOperation asyncOperation = createOperation(state);
+        asyncOperation.run();
+        return asyncOperation;
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.sap.broker.budgie.impl;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.sap.broker.budgie.configuration.behavior.ConfigurationManager;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.helpers.BrokerClock;
+import com.sap.broker.budgie.impl.Journal.FsyncPolicy;
+
+// Replays a journal with a service instance and a binding entry per instance into an empty broker
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JournalBenchmark {
+
+    private static final Gson GSON = new Gson();
+    private static final String CONFIG_ID = "config";
+    private static final String PARAMETERS = "{\"size\":\"small\",\"region\":\"eu-10\",\"labels\":{\"team\":\"budgie\",\"cost_center\":101}}";
+    private static final Type PARAMETERS_TYPE = new TypeToken<Map<String, Object>>() {
+    }.getType();
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    @Param({ "1000000" })
+    public int instances;
+
+    private Path directory;
+    private Journal journal;
+
+    @Setup(Level.Trial)
+    public void writeJournal() throws Exception {
+        directory = Files.createTempDirectory("journal");
+        Journal writer = new Journal(directory, SEGMENT_SIZE, FsyncPolicy.NEVER, 0, GSON);
+        writer.recover(new JournalRecovery(writer, null, null, null));
+        UUID serviceId = UUID.randomUUID();
+        UUID planId = UUID.randomUUID();
+        for (int i = 0; i < instances; i++) {
+            ServiceInstance serviceInstance = new ServiceInstance(UUID.randomUUID(), serviceId, planId);
+            serviceInstance.setParameters(GSON.fromJson(PARAMETERS, PARAMETERS_TYPE));
+            writer.appendServiceInstance(CONFIG_ID, serviceInstance);
+            writer.appendBinding(CONFIG_ID, serviceInstance.getId(), UUID.randomUUID(), new BindingMetadata());
+        }
+        writer.shutdown();
+    }
+
+    @Benchmark
+    public ServiceBroker recover() throws IOException {
+        journal = new Journal(directory, SEGMENT_SIZE, FsyncPolicy.NEVER, 0, GSON);
+        ServiceBroker serviceBroker = new ServiceBroker(null, new HeapServiceInstanceStore(), journal, new BrokerClock(1));
+        journal.recover(new JournalRecovery(journal, serviceBroker, new ConfigurationManager(null, journal), null));
+        return serviceBroker;
+    }
+
+    @TearDown(Level.Iteration)
+    public void shutdownJournal() throws InterruptedException {
+        journal.shutdown();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteJournal() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder())
+                .collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,239 @@
+package com.sap.broker.budgie.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.google.gson.Gson;
+import com.sap.broker.budgie.configuration.behavior.ServiceBrokerConfiguration;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.impl.Journal.FsyncPolicy;
+
+public class JournalTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+    private static final String CONFIG_ID = "config";
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder())
+                .collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testRecoverReplaysEntriesInOrder() throws Exception {
+        ServiceInstance serviceInstance = new ServiceInstance(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        UUID bindingId = UUID.randomUUID();
+        BindingMetadata binding = new BindingMetadata();
+        binding.setId(bindingId);
+        ServiceBrokerConfiguration configuration = new ServiceBrokerConfiguration();
+        configuration.setSyncDuration(42);
+
+        Journal journal = open();
+        journal.appendConfiguration("config", configuration);
+        journal.appendServiceInstance(CONFIG_ID, serviceInstance);
+        journal.appendBinding(CONFIG_ID, serviceInstance.getId(), bindingId, binding);
+        journal.appendUnbinding(CONFIG_ID, serviceInstance.getId(), bindingId);
+        journal.appendServiceInstanceDeletion(CONFIG_ID, serviceInstance.getId());
+        journal.appendPartitionDeletion(CONFIG_ID);
+        journal.appendConfigurationRemoval("config");
+        journal.shutdown();
+
+        Journal.Listener listener = mock(Journal.Listener.class);
+        open(listener).shutdown();
+
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener)
+            .onConfiguration(eq("config"), argThat(replayed -> replayed.getSyncDuration() == 42));
+        inOrder.verify(listener)
+            .onServiceInstance(CONFIG_ID, serviceInstance);
+        inOrder.verify(listener)
+            .onBinding(eq(CONFIG_ID), eq(serviceInstance.getId()), eq(bindingId), argThat(replayed -> bindingId.equals(replayed.getId())));
+        inOrder.verify(listener)
+            .onUnbinding(CONFIG_ID, serviceInstance.getId(), bindingId);
+        inOrder.verify(listener)
+            .onServiceInstanceDeletion(CONFIG_ID, serviceInstance.getId());
+        inOrder.verify(listener)
+            .onPartitionDeletion(CONFIG_ID);
+        inOrder.verify(listener)
+            .onConfigurationRemoval("config");
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void testRecoverSkipsPartiallyWrittenEntry() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        Journal journal = open();
+        journal.appendServiceInstanceDeletion(CONFIG_ID, first);
+        journal.appendServiceInstanceDeletion(CONFIG_ID, second);
+        journal.shutdown();
+        // Damages the last byte of the second entry, as if the broker had stopped while writing it
+        try (RandomAccessFile file = new RandomAccessFile(getSegments().get(0)
+            .toFile(), "rw")) {
+            long position = 2 * (8 + 1 + 4 + CONFIG_ID.length() + 16) - 1;
+            file.seek(position);
+            byte value = file.readByte();
+            file.seek(position);
+            file.write(~value);
+        }
+
+        Journal.Listener listener = mock(Journal.Listener.class);
+        journal = open(listener);
+        journal.appendServiceInstanceDeletion(CONFIG_ID, third);
+        journal.shutdown();
+        verify(listener).onServiceInstanceDeletion(CONFIG_ID, first);
+        verifyNoMoreInteractions(listener);
+
+        listener = mock(Journal.Listener.class);
+        open(listener).shutdown();
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener)
+            .onServiceInstanceDeletion(CONFIG_ID, first);
+        inOrder.verify(listener)
+            .onServiceInstanceDeletion(CONFIG_ID, third);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void testRecoverFailsOnDamagedEntryBeforeLastSegment() throws Exception {
+        Journal journal = open();
+        for (int i = 0; i < 100; i++) {
+            journal.appendServiceInstanceDeletion(CONFIG_ID, UUID.randomUUID());
+        }
+        journal.shutdown();
+        List<Path> segments = getSegments();
+        assertTrue(segments.size() > 1);
+        // Damages the last byte of the second entry of the first segment
+        long position = 2 * (8 + 1 + 4 + CONFIG_ID.length() + 16) - 1;
+        try (RandomAccessFile file = new RandomAccessFile(segments.get(0)
+            .toFile(), "rw")) {
+            file.seek(position);
+            byte value = file.readByte();
+            file.seek(position);
+            file.write(~value);
+        }
+
+        Journal.Listener listener = mock(Journal.Listener.class);
+        IOException exception = assertThrows(IOException.class, () -> open(listener));
+        assertTrue(exception.getMessage()
+            .contains(segments.get(0)
+                .getFileName()
+                .toString()), exception.getMessage());
+        assertTrue(exception.getMessage()
+            .contains("offset " + (position + 1) / 2), exception.getMessage());
+        verify(listener).onServiceInstanceDeletion(eq(CONFIG_ID), any());
+    }
+
+    @Test
+    public void testEntriesAreSplitIntoSegments() throws Exception {
+        ServiceInstance largeServiceInstance = new ServiceInstance(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        largeServiceInstance.setParameters(Collections.singletonMap("value", new String(new char[2 * SEGMENT_SIZE])
+            .replace('\0', 'x')));
+        Journal journal = open();
+        for (int i = 0; i < 100; i++) {
+            journal.appendServiceInstanceDeletion(CONFIG_ID, UUID.randomUUID());
+        }
+        journal.appendServiceInstance(CONFIG_ID, largeServiceInstance);
+        journal.appendServiceInstanceDeletion(CONFIG_ID, largeServiceInstance.getId());
+        journal.shutdown();
+        assertTrue(getSegments().size() > 2);
+
+        Journal.Listener listener = mock(Journal.Listener.class);
+        open(listener).shutdown();
+        verify(listener, times(101)).onServiceInstanceDeletion(eq(CONFIG_ID), any());
+        verify(listener).onServiceInstance(eq(CONFIG_ID), argThat(replayed -> replayed.getParameters()
+            .equals(largeServiceInstance.getParameters())));
+    }
+
+    @Test
+    public void testRestoreReplacesOlderSegmentsAndSnapshot() throws Exception {
+        Journal journal = open();
+        for (int i = 0; i < 100; i++) {
+            journal.appendServiceInstanceDeletion(CONFIG_ID, UUID.randomUUID());
+        }
+        Path firstSnapshot = Files.createFile(journal.newSnapshotPath());
+        journal.appendRestore(firstSnapshot);
+        journal.appendServiceInstanceDeletion(CONFIG_ID, UUID.randomUUID());
+        Path secondSnapshot = Files.createFile(journal.newSnapshotPath());
+        journal.appendRestore(secondSnapshot);
+        UUID last = UUID.randomUUID();
+        journal.appendServiceInstanceDeletion(CONFIG_ID, last);
+        journal.shutdown();
+
+        assertFalse(Files.exists(firstSnapshot));
+        assertTrue(Files.exists(secondSnapshot));
+        assertEquals(Arrays.asList(secondSnapshot.getFileName()
+            .toString(), "journal-0000000006.log"), getSegments().stream()
+                .map(segment -> segment.getFileName()
+                    .toString())
+                .sorted(Comparator.reverseOrder())
+                .collect(Collectors.toList()));
+
+        Journal.Listener listener = mock(Journal.Listener.class);
+        open(listener).shutdown();
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener)
+            .onRestore(secondSnapshot);
+        inOrder.verify(listener)
+            .onServiceInstanceDeletion(CONFIG_ID, last);
+        verifyNoMoreInteractions(listener);
+    }
+
+    private Journal open() throws IOException {
+        return open(mock(Journal.Listener.class));
+    }
+
+    private Journal open(Journal.Listener listener) throws IOException {
+        Journal journal = new Journal(directory, SEGMENT_SIZE, FsyncPolicy.ALWAYS, 1000, new Gson());
+        journal.recover(listener);
+        return journal;
+    }
+
+    private List<Path> getSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+}
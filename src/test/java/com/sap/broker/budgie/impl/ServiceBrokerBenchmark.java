@@ -0,0 +1,93 @@
+package com.sap.broker.budgie.impl;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.helpers.BrokerClock;
+import com.sap.broker.budgie.impl.Journal.FsyncPolicy;
+
+// Checks a provisioning request against a stored instance with large parameters. A conflicting request differs only in
+// its last value, a retried one is identical.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBrokerBenchmark {
+
+    private static final Gson GSON = new Gson();
+    private static final String CONFIG_ID = "config";
+
+    @Param({ "heap", "off-heap" })
+    public String store;
+
+    @Param({ "1000" })
+    public int parameters;
+
+    @Param({ "conflict", "retry" })
+    public String request;
+
+    private ServiceBroker serviceBroker;
+    private ServiceInstance stored;
+    private Map<String, Object> requestedParameters;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ServiceInstanceStore serviceInstanceStore = "off-heap".equals(store) ? new OffHeapServiceInstanceStore(GSON, 16 * 1024 * 1024)
+            : new HeapServiceInstanceStore();
+        serviceBroker = new ServiceBroker(null, serviceInstanceStore, new Journal(null, 0, FsyncPolicy.NEVER, 0, GSON),
+            new BrokerClock(1));
+        stored = new ServiceInstance(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        stored.setParameters(createParameters("stored"));
+        serviceBroker.create(CONFIG_ID, stored);
+        requestedParameters = createParameters("retry".equals(request) ? "stored" : "requested");
+    }
+
+    // Every request computes the fingerprint of its own instance
+    @Benchmark
+    public boolean existsIdentical() {
+        return serviceBroker.existsIdentical(CONFIG_ID, createRequest());
+    }
+
+    @Benchmark
+    public boolean existsIdenticalByEquals() {
+        ServiceInstance request = createRequest();
+        return request.equals(serviceBroker.get(CONFIG_ID, request.getId(), false));
+    }
+
+    private ServiceInstance createRequest() {
+        ServiceInstance request = new ServiceInstance(stored.getId(), stored.getServiceId(), stored.getPlanId());
+        request.setParameters(requestedParameters);
+        return request;
+    }
+
+    // Parsed like the body of a request
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> createParameters(String lastValue) {
+        JsonObject values = new JsonObject();
+        for (int i = 0; i < parameters - 1; i++) {
+            values.addProperty("key-" + i, "value-" + i);
+        }
+        values.addProperty("last", lastValue);
+        return GSON.fromJson(values, Map.class);
+    }
+
+}
@@ -0,0 +1,228 @@
+package com.sap.broker.budgie.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.domain.ServiceInstanceFilter;
+import com.sap.broker.budgie.exception.NotFoundException;
+import com.sap.broker.budgie.helpers.BrokerClock;
+
+public class ServiceBrokerTest {
+
+    private static final String CONFIG_ID = "config";
+    private static final UUID SERVICE_ID = UUID.randomUUID();
+    private static final UUID OTHER_SERVICE_ID = UUID.randomUUID();
+    private static final UUID PLAN_ID = UUID.randomUUID();
+    private static final UUID OTHER_PLAN_ID = UUID.randomUUID();
+
+    private BrokerClock clock;
+    private Journal journal;
+    private ServiceBroker serviceBroker;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new BrokerClock(1);
+        journal = mock(Journal.class);
+        serviceBroker = new ServiceBroker(mock(ApplicationConfiguration.class), new HeapServiceInstanceStore(), journal, clock);
+    }
+
+    @Test
+    public void testGetAllByPlanAndService() {
+        ServiceInstance first = create(SERVICE_ID, PLAN_ID);
+        ServiceInstance second = create(SERVICE_ID, OTHER_PLAN_ID);
+        ServiceInstance third = create(OTHER_SERVICE_ID, PLAN_ID);
+
+        assertEquals(ids(first, second), getAll(SERVICE_ID, null));
+        assertEquals(ids(first, third), getAll(null, PLAN_ID));
+        assertEquals(ids(first), getAll(SERVICE_ID, PLAN_ID));
+        assertEquals(ids(first, second, third), getAll(null, null));
+        assertEquals(ids(), getAll(UUID.randomUUID(), null));
+    }
+
+    @Test
+    public void testUpdateMovesInstanceBetweenIndexes() {
+        ServiceInstance serviceInstance = create(SERVICE_ID, PLAN_ID);
+        serviceBroker.update(CONFIG_ID, new ServiceInstance(serviceInstance.getId(), SERVICE_ID, OTHER_PLAN_ID));
+
+        assertEquals(ids(), getAll(null, PLAN_ID));
+        assertEquals(ids(serviceInstance), getAll(null, OTHER_PLAN_ID));
+        assertEquals(ids(serviceInstance), getAll(SERVICE_ID, null));
+    }
+
+    @Test
+    public void testDeleteRemovesInstanceFromIndexes() {
+        ServiceInstance first = create(SERVICE_ID, PLAN_ID);
+        ServiceInstance second = create(SERVICE_ID, PLAN_ID);
+        serviceBroker.delete(CONFIG_ID, first.getId());
+
+        assertEquals(ids(second), getAll(SERVICE_ID, PLAN_ID));
+        assertThrows(NotFoundException.class, () -> serviceBroker.delete(CONFIG_ID, first.getId()));
+
+        serviceBroker.deleteAll(CONFIG_ID);
+        assertEquals(ids(), getAll(SERVICE_ID, null));
+        assertEquals(ids(), getAll(null, PLAN_ID));
+        assertEquals(ids(), getAll(null, null));
+    }
+
+    @Test
+    public void testPartitionsAreIsolated() {
+        ServiceInstance serviceInstance = create(SERVICE_ID, PLAN_ID);
+        ServiceInstance otherServiceInstance = create("other", SERVICE_ID, PLAN_ID);
+
+        assertEquals(ids(otherServiceInstance), getAll("other", SERVICE_ID, null));
+        assertNull(serviceBroker.get("other", serviceInstance.getId(), false));
+        assertThrows(NotFoundException.class, () -> serviceBroker.delete("other", serviceInstance.getId()));
+        assertThrows(NotFoundException.class,
+            () -> serviceBroker.bindIfAbsent("unknown", serviceInstance.getId(), UUID.randomUUID(), new BindingMetadata()));
+
+        serviceBroker.deleteAll(CONFIG_ID);
+        assertEquals(ids(), getAll(null, null));
+        assertEquals(ids(otherServiceInstance), getAll("other", null, null));
+        assertEquals(0, serviceBroker.getServiceInstancesCount(CONFIG_ID));
+        assertEquals(1, serviceBroker.getServiceInstancesCount("other"));
+    }
+
+    @Test
+    public void testExistsIdentical() {
+        ServiceInstance serviceInstance = create(SERVICE_ID, PLAN_ID);
+        ServiceInstance retry = new ServiceInstance(serviceInstance.getId(), SERVICE_ID, PLAN_ID);
+
+        assertTrue(serviceBroker.existsIdentical(CONFIG_ID, retry));
+        assertFalse(serviceBroker.existsIdentical("other", retry));
+        retry.setParameters(Collections.singletonMap("foo", "bar"));
+        assertFalse(serviceBroker.existsIdentical(CONFIG_ID, retry));
+        serviceBroker.bindIfAbsent(CONFIG_ID, serviceInstance.getId(), UUID.randomUUID(), new BindingMetadata());
+        assertFalse(serviceBroker.existsIdentical(CONFIG_ID, new ServiceInstance(serviceInstance.getId(), SERVICE_ID, PLAN_ID)));
+    }
+
+    @Test
+    public void testDeleteIfMatches() {
+        ServiceInstance old = create(SERVICE_ID, PLAN_ID);
+        clock.advance(1, TimeUnit.HOURS);
+        ServiceInstance recent = create(SERVICE_ID, PLAN_ID);
+        ServiceInstance other = create(SERVICE_ID, OTHER_PLAN_ID);
+        ServiceInstanceFilter filter = new ServiceInstanceFilter(null, PLAN_ID, null, clock.currentTimeMillis() - 1000);
+
+        assertEquals(ids(old, recent), getIds(filter));
+        assertFalse(serviceBroker.deleteIfMatches(CONFIG_ID, recent.getId(), filter));
+        assertTrue(serviceBroker.deleteIfMatches(CONFIG_ID, old.getId(), filter));
+        assertFalse(serviceBroker.deleteIfMatches(CONFIG_ID, old.getId(), filter));
+        assertEquals(ids(recent), getAll(null, PLAN_ID));
+        assertEquals(ids(recent, other), getAll(SERVICE_ID, null));
+
+        ServiceInstanceFilter prefixFilter = new ServiceInstanceFilter(null, null, other.getId()
+            .toString()
+            .toUpperCase(), null);
+        assertEquals(ids(other), getIds(prefixFilter));
+        assertTrue(serviceBroker.deleteIfMatches(CONFIG_ID, other.getId(), prefixFilter));
+        assertEquals(ids(recent), getAll(null, null));
+    }
+
+    @Test
+    public void testUpdateKeepsCreationTime() {
+        ServiceInstance serviceInstance = create(SERVICE_ID, PLAN_ID);
+        clock.advance(1, TimeUnit.HOURS);
+        ServiceInstance updatedServiceInstance = new ServiceInstance(serviceInstance.getId(), SERVICE_ID, OTHER_PLAN_ID);
+        serviceBroker.update(CONFIG_ID, updatedServiceInstance);
+
+        assertEquals(serviceInstance.getCreatedAt(), serviceBroker.get(CONFIG_ID, serviceInstance.getId())
+            .getCreatedAt());
+    }
+
+    @Test
+    public void testGetAllAfterCursor() {
+        List<UUID> ids = ids(create(SERVICE_ID, PLAN_ID), create(SERVICE_ID, PLAN_ID), create(SERVICE_ID, PLAN_ID));
+        List<UUID> remaining = serviceBroker.getAll(CONFIG_ID, null, PLAN_ID, ids.get(0))
+            .map(ServiceInstance::getId)
+            .collect(Collectors.toList());
+
+        assertEquals(ids.subList(1, 3), remaining);
+    }
+
+    @Test
+    public void testChangesAreUndoneWhenJournalFails() {
+        ServiceInstance serviceInstance = create(SERVICE_ID, PLAN_ID);
+        UUID id = serviceInstance.getId();
+        UUID bindingId = UUID.randomUUID();
+        serviceBroker.bindIfAbsent(CONFIG_ID, id, bindingId, new BindingMetadata());
+        IllegalStateException failure = new IllegalStateException("Could not write to journal!");
+        doThrow(failure).when(journal)
+            .appendServiceInstance(any(), any());
+        doThrow(failure).when(journal)
+            .appendServiceInstanceDeletion(any(), any());
+        doThrow(failure).when(journal)
+            .appendBinding(any(), any(), any(), any());
+        doThrow(failure).when(journal)
+            .appendUnbinding(any(), any(), any());
+        doThrow(failure).when(journal)
+            .appendPartitionDeletion(any());
+
+        assertThrows(IllegalStateException.class, () -> create(SERVICE_ID, PLAN_ID));
+        assertThrows(IllegalStateException.class, () -> serviceBroker.update(CONFIG_ID, new ServiceInstance(id, SERVICE_ID, OTHER_PLAN_ID)));
+        assertThrows(IllegalStateException.class, () -> serviceBroker.bindIfAbsent(CONFIG_ID, id, UUID.randomUUID(), new BindingMetadata()));
+        assertThrows(IllegalStateException.class, () -> serviceBroker.unbind(CONFIG_ID, id, bindingId));
+        assertThrows(IllegalStateException.class, () -> serviceBroker.delete(CONFIG_ID, id));
+        assertThrows(IllegalStateException.class,
+            () -> serviceBroker.deleteIfMatches(CONFIG_ID, id, new ServiceInstanceFilter(null, PLAN_ID, null, null)));
+        assertThrows(IllegalStateException.class, () -> serviceBroker.deleteAll(CONFIG_ID));
+
+        assertEquals(ids(serviceInstance), getAll(SERVICE_ID, PLAN_ID));
+        assertEquals(ids(), getAll(null, OTHER_PLAN_ID));
+        assertEquals(Collections.singleton(bindingId), serviceBroker.get(CONFIG_ID, id)
+            .getBindings()
+            .keySet());
+    }
+
+    private ServiceInstance create(UUID serviceId, UUID planId) {
+        return create(CONFIG_ID, serviceId, planId);
+    }
+
+    private ServiceInstance create(String configId, UUID serviceId, UUID planId) {
+        ServiceInstance serviceInstance = new ServiceInstance(UUID.randomUUID(), serviceId, planId);
+        serviceBroker.create(configId, serviceInstance);
+        return serviceInstance;
+    }
+
+    private List<UUID> getAll(UUID serviceId, UUID planId) {
+        return getAll(CONFIG_ID, serviceId, planId);
+    }
+
+    private List<UUID> getAll(String configId, UUID serviceId, UUID planId) {
+        return serviceBroker.getAll(configId, serviceId, planId, null)
+            .map(ServiceInstance::getId)
+            .collect(Collectors.toList());
+    }
+
+    private List<UUID> getIds(ServiceInstanceFilter filter) {
+        return serviceBroker.getIds(CONFIG_ID, filter)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    private static List<UUID> ids(ServiceInstance... serviceInstances) {
+        return Arrays.stream(serviceInstances)
+            .map(ServiceInstance::getId)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+}
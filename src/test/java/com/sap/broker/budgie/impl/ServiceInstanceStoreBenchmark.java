@@ -0,0 +1,87 @@
+package com.sap.broker.budgie.impl;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+
+// Fills a store and prints the retained heap and the allocated direct memory per service instance after every iteration
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-XX:MaxDirectMemorySize=4g" })
+public class ServiceInstanceStoreBenchmark {
+
+    private static final Gson GSON = new Gson();
+    private static final String PARAMETERS = "{\"size\":\"small\",\"region\":\"eu-10\",\"labels\":{\"team\":\"budgie\",\"cost_center\":101}}";
+
+    @Param({ "heap", "off-heap" })
+    public String store;
+
+    @Param({ "1000000" })
+    public int instances;
+
+    private ServiceInstanceStore serviceInstanceStore;
+    private long usedHeapBefore;
+
+    @Benchmark
+    public ServiceInstanceStore fill() {
+        serviceInstanceStore = null;
+        usedHeapBefore = getUsedHeap();
+        serviceInstanceStore = createStore();
+        UUID serviceId = UUID.randomUUID();
+        UUID planId = UUID.randomUUID();
+        for (int i = 0; i < instances; i++) {
+            ServiceInstance serviceInstance = new ServiceInstance(UUID.randomUUID(), serviceId, planId);
+            serviceInstance.setParameters(GSON.fromJson(PARAMETERS, Map.class));
+            serviceInstanceStore.put(serviceInstance);
+            serviceInstanceStore.bindIfAbsent(serviceInstance.getId(), UUID.randomUUID(), new BindingMetadata());
+        }
+        return serviceInstanceStore;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printFootprint() {
+        long heapBytes = getUsedHeap() - usedHeapBefore;
+        long offHeapBytes = 0;
+        if (serviceInstanceStore instanceof OffHeapServiceInstanceStore) {
+            offHeapBytes = ((OffHeapServiceInstanceStore) serviceInstanceStore).getAllocatedBytes();
+        }
+        System.out.printf("%n%s: %d heap bytes and %d off-heap bytes per service instance%n", store, heapBytes / instances,
+            offHeapBytes / instances);
+    }
+
+    private ServiceInstanceStore createStore() {
+        if ("off-heap".equals(store)) {
+            return new OffHeapServiceInstanceStore(GSON, 16 * 1024 * 1024);
+        }
+        return new HeapServiceInstanceStore();
+    }
+
+    private static long getUsedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.sap.broker.budgie.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.google.gson.Gson;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.exception.NotFoundException;
+
+public class ServiceInstanceStoreTest {
+
+    private static final int SLAB_SIZE = 64 * 1024;
+
+    public static Stream<Supplier<ServiceInstanceStore>> stores() {
+        return Stream.of(HeapServiceInstanceStore::new, () -> new OffHeapServiceInstanceStore(new Gson(), SLAB_SIZE));
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void testPutGetRemove(Supplier<ServiceInstanceStore> storeSupplier) {
+        ServiceInstanceStore store = storeSupplier.get();
+        ServiceInstance serviceInstance = createServiceInstance();
+        serviceInstance.setParameters(Collections.singletonMap("foo", "bar"));
+        serviceInstance.setCreatedAt(42L);
+
+        assertNull(store.put(serviceInstance));
+        assertEquals(serviceInstance, store.get(serviceInstance.getId()));
+        assertEquals(Long.valueOf(42), store.get(serviceInstance.getId())
+            .getCreatedAt());
+        ServiceInstance updatedServiceInstance = new ServiceInstance(serviceInstance.getId(), serviceInstance.getServiceId(), null);
+        assertEquals(serviceInstance, store.put(updatedServiceInstance));
+        assertEquals(updatedServiceInstance, store.get(serviceInstance.getId()));
+        assertNull(store.get(serviceInstance.getId())
+            .getCreatedAt());
+        assertEquals(1, store.size());
+        assertEquals(updatedServiceInstance, store.remove(serviceInstance.getId()));
+        assertNull(store.get(serviceInstance.getId()));
+        assertNull(store.remove(serviceInstance.getId()));
+        assertEquals(0, store.size());
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void testFingerprintIsKeptAcrossBindings(Supplier<ServiceInstanceStore> storeSupplier) {
+        ServiceInstanceStore store = storeSupplier.get();
+        ServiceInstance serviceInstance = createServiceInstance();
+        serviceInstance.setParameters(Collections.singletonMap("foo", "bar"));
+        store.put(serviceInstance);
+        store.bindIfAbsent(serviceInstance.getId(), UUID.randomUUID(), new BindingMetadata());
+
+        assertEquals(serviceInstance.getFingerprint(), store.getFingerprint(serviceInstance.getId()));
+        assertEquals(serviceInstance.getFingerprint(), store.get(serviceInstance.getId())
+            .getFingerprint());
+        assertEquals(0, store.getFingerprint(UUID.randomUUID()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void testBindings(Supplier<ServiceInstanceStore> storeSupplier) {
+        ServiceInstanceStore store = storeSupplier.get();
+        ServiceInstance serviceInstance = createServiceInstance();
+        store.put(serviceInstance);
+        UUID bindingId = UUID.randomUUID();
+
+        assertNull(store.bindIfAbsent(serviceInstance.getId(), bindingId, new BindingMetadata()));
+        assertNotNull(store.bindIfAbsent(serviceInstance.getId(), bindingId, new BindingMetadata()));
+        assertEquals(bindingId, store.get(serviceInstance.getId())
+            .getBinding(bindingId)
+            .getId());
+        assertNotNull(store.unbind(serviceInstance.getId(), bindingId));
+        assertNull(store.unbind(serviceInstance.getId(), bindingId));
+        assertNull(store.get(serviceInstance.getId())
+            .getBinding(bindingId));
+        assertThrows(NotFoundException.class, () -> store.bindIfAbsent(UUID.randomUUID(), bindingId, new BindingMetadata()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void testListingIsStableAcrossChanges(Supplier<ServiceInstanceStore> storeSupplier) {
+        ServiceInstanceStore store = storeSupplier.get();
+        Random random = new Random(42);
+        Map<UUID, ServiceInstance> expected = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            ServiceInstance serviceInstance = createServiceInstance();
+            serviceInstance.setParameters(Collections.singletonMap("size", new String(new char[random.nextInt(200)])));
+            store.put(serviceInstance);
+            expected.put(serviceInstance.getId(), serviceInstance);
+        }
+        List<UUID> ids = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < 2000; i++) {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            assertEquals(expected.remove(id), store.remove(id));
+        }
+
+        List<UUID> listedIds = store.getAll(null)
+            .map(ServiceInstance::getId)
+            .collect(Collectors.toList());
+        assertEquals(expected.keySet(), new HashSet<>(listedIds));
+        assertEquals(expected.size(), listedIds.size());
+        assertEquals(expected.size(), store.size());
+
+        // Resuming after any id continues with the same order, even after more instances have been added
+        UUID cursor = listedIds.get(listedIds.size() / 2);
+        for (int i = 0; i < 5000; i++) {
+            store.put(createServiceInstance());
+        }
+        List<UUID> idsAfterCursor = store.getAll(cursor)
+            .map(ServiceInstance::getId)
+            .filter(expected::containsKey)
+            .collect(Collectors.toList());
+        assertEquals(listedIds.subList(listedIds.size() / 2 + 1, listedIds.size()), idsAfterCursor);
+        for (UUID id : expected.keySet()) {
+            assertEquals(expected.get(id), store.get(id));
+        }
+    }
+
+    private static ServiceInstance createServiceInstance() {
+        return new ServiceInstance(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.sap.broker.budgie.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.sap.broker.budgie.configuration.behavior.ConfigurationManager;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.helpers.BrokerClock;
+import com.sap.broker.budgie.impl.Journal.FsyncPolicy;
+
+// Exports and imports a snapshot of a broker with a binding per service instance and prints the snapshot size
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotManagerBenchmark {
+
+    private static final Gson GSON = new Gson();
+    private static final String CONFIG_ID = "config";
+    private static final String PARAMETERS = "{\"size\":\"small\",\"region\":\"eu-10\",\"labels\":{\"team\":\"budgie\",\"cost_center\":101}}";
+
+    @Param({ "1000000" })
+    public int instances;
+
+    private SnapshotManager snapshotManager;
+    private byte[] snapshot;
+
+    @Setup(Level.Trial)
+    public void fill() throws IOException {
+        Journal journal = new Journal(null, 0, FsyncPolicy.NEVER, 0, GSON);
+        ServiceInstanceStore serviceInstanceStore = new HeapServiceInstanceStore();
+        ServiceBroker serviceBroker = new ServiceBroker(null, serviceInstanceStore, journal, new BrokerClock(1));
+        snapshotManager = new SnapshotManager(null, Collections.emptyList(), serviceBroker, serviceInstanceStore,
+            new ConfigurationManager(null, journal), journal, GSON);
+        UUID serviceId = UUID.randomUUID();
+        UUID planId = UUID.randomUUID();
+        for (int i = 0; i < instances; i++) {
+            ServiceInstance serviceInstance = new ServiceInstance(UUID.randomUUID(), serviceId, planId);
+            serviceInstance.setParameters(GSON.fromJson(PARAMETERS, Map.class));
+            serviceBroker.create(CONFIG_ID, serviceInstance);
+            serviceBroker.bindIfAbsent(CONFIG_ID, serviceInstance.getId(), UUID.randomUUID(), new BindingMetadata());
+        }
+        snapshot = exportSnapshot();
+        System.out.printf("%nSnapshot: %d bytes per service instance%n", snapshot.length / instances);
+    }
+
+    @Benchmark
+    public byte[] exportSnapshot() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(64 * 1024 * 1024);
+        snapshotManager.exportSnapshot(outputStream, false);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public void importSnapshot() throws IOException {
+        snapshotManager.importSnapshot(new ByteArrayInputStream(snapshot));
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.sap.broker.budgie.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.sap.broker.budgie.configuration.ApplicationConfiguration;
+import com.sap.broker.budgie.configuration.behavior.ConfigurationManager;
+import com.sap.broker.budgie.configuration.behavior.ServiceBrokerConfiguration;
+import com.sap.broker.budgie.domain.BindingMetadata;
+import com.sap.broker.budgie.domain.Catalog;
+import com.sap.broker.budgie.domain.Plan;
+import com.sap.broker.budgie.domain.Service;
+import com.sap.broker.budgie.domain.ServiceInstance;
+import com.sap.broker.budgie.helpers.BrokerClock;
+import com.sap.broker.budgie.impl.Journal.FsyncPolicy;
+
+public class SnapshotManagerTest {
+
+    private static final Gson GSON = new Gson();
+    private static final UUID SERVICE_ID = UUID.randomUUID();
+    private static final UUID PLAN_ID = UUID.randomUUID();
+    private static final String CONFIG_ID = "config";
+
+    private Runnable duringExport;
+    private ServiceBroker serviceBroker;
+    private ConfigurationManager configurationManager;
+    private Catalog catalog;
+    private SnapshotManager snapshotManager;
+
+    @BeforeEach
+    public void setUp() {
+        Plan plan = new Plan(PLAN_ID, "plan", "plan description");
+        catalog = new Catalog(new ArrayList<>(Collections.singletonList(new Service(SERVICE_ID, "service", "service description", true,
+            Arrays.asList(plan)))));
+        ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
+        when(configuration.getCatalog()).thenReturn(catalog);
+        Journal journal = new Journal(null, 0, FsyncPolicy.NEVER, 0, GSON);
+        ServiceInstanceStore serviceInstanceStore = new HookedServiceInstanceStore();
+        serviceBroker = new ServiceBroker(configuration, serviceInstanceStore, journal, new BrokerClock(1));
+        configurationManager = new ConfigurationManager(configuration, journal);
+        snapshotManager = new SnapshotManager(configuration, Collections.emptyList(), serviceBroker, serviceInstanceStore,
+            configurationManager, journal, GSON);
+    }
+
+    @Test
+    public void testImportRestoresExportedState() throws IOException {
+        ServiceInstance serviceInstance = create();
+        UUID bindingId = UUID.randomUUID();
+        serviceBroker.bindIfAbsent(CONFIG_ID, serviceInstance.getId(), bindingId, new BindingMetadata());
+        ServiceInstance otherServiceInstance = create("other");
+        ServiceBrokerConfiguration brokerConfiguration = new ServiceBrokerConfiguration();
+        brokerConfiguration.setSyncDuration(42);
+        configurationManager.addConfiguration("config", brokerConfiguration);
+        byte[] snapshot = exportSnapshot(true);
+
+        serviceBroker.deleteAll(CONFIG_ID);
+        create();
+        serviceBroker.delete("other", otherServiceInstance.getId());
+        configurationManager.removeConfiguration("config");
+        configurationManager.addConfiguration("other", new ServiceBrokerConfiguration());
+        catalog.setServices(new ArrayList<>());
+        snapshotManager.importSnapshot(new ByteArrayInputStream(snapshot));
+
+        assertEquals(Collections.singleton(serviceInstance.getId()), getIds());
+        assertNotNull(serviceBroker.get(CONFIG_ID, serviceInstance.getId())
+            .getBinding(bindingId));
+        assertEquals(Collections.singleton(serviceInstance.getId()), getIds(serviceBroker.getAll(CONFIG_ID, null, PLAN_ID, null)));
+        assertEquals(Collections.singleton(otherServiceInstance.getId()), getIds(serviceBroker.getAll("other", null, null, null)));
+        assertEquals(Integer.valueOf(42), configurationManager.getConfiguration("config")
+            .getSyncDuration());
+        assertNull(configurationManager.getConfiguration("other"));
+        assertEquals(SERVICE_ID, catalog.getServices()
+            .get(0)
+            .getId());
+    }
+
+    @Test
+    public void testExportIncludesChangesMadeWhileExporting() throws IOException {
+        ServiceInstance deleted = create();
+        ServiceInstance bound = create();
+        create();
+        UUID bindingId = UUID.randomUUID();
+        ServiceInstance[] created = new ServiceInstance[1];
+        duringExport = () -> {
+            serviceBroker.delete(CONFIG_ID, deleted.getId());
+            serviceBroker.bindIfAbsent(CONFIG_ID, bound.getId(), bindingId, new BindingMetadata());
+            created[0] = create();
+        };
+        byte[] snapshot = exportSnapshot(false);
+        Set<UUID> expectedIds = getIds();
+
+        serviceBroker.deleteAll(CONFIG_ID);
+        snapshotManager.importSnapshot(new ByteArrayInputStream(snapshot));
+
+        assertEquals(expectedIds, getIds());
+        assertNull(serviceBroker.get(CONFIG_ID, deleted.getId(), false));
+        assertNotNull(serviceBroker.get(CONFIG_ID, created[0].getId()));
+        assertNotNull(serviceBroker.get(CONFIG_ID, bound.getId())
+            .getBinding(bindingId));
+    }
+
+    @Test
+    public void testImportRejectsUnknownFormat() throws IOException {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        try (GZIPOutputStream outputStream = new GZIPOutputStream(snapshot)) {
+            outputStream.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        }
+        ServiceInstance serviceInstance = create();
+
+        assertThrows(IllegalArgumentException.class, () -> snapshotManager.importSnapshot(new ByteArrayInputStream(snapshot.toByteArray())));
+        assertEquals(Collections.singleton(serviceInstance.getId()), getIds());
+    }
+
+    private ServiceInstance create() {
+        return create(CONFIG_ID);
+    }
+
+    private ServiceInstance create(String configId) {
+        ServiceInstance serviceInstance = new ServiceInstance(UUID.randomUUID(), SERVICE_ID, PLAN_ID);
+        serviceBroker.create(configId, serviceInstance);
+        return serviceInstance;
+    }
+
+    private byte[] exportSnapshot(boolean includeCatalog) throws IOException {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        snapshotManager.exportSnapshot(snapshot, includeCatalog);
+        return snapshot.toByteArray();
+    }
+
+    private Set<UUID> getIds() {
+        return getIds(serviceBroker.getAll(CONFIG_ID, null, null, null));
+    }
+
+    private static Set<UUID> getIds(Stream<ServiceInstance> serviceInstances) {
+        return serviceInstances.map(ServiceInstance::getId)
+            .collect(Collectors.toSet());
+    }
+
+    // Runs the action set by a test once, after the first service instance has been read
+    private class HookedServiceInstanceStore extends HeapServiceInstanceStore {
+
+        @Override
+        public Stream<ServiceInstance> getAll(UUID after) {
+            return super.getAll(after)
+                .peek(serviceInstance -> {
+                    Runnable action = duringExport;
+                    duringExport = null;
+                    if (action != null) {
+                        action.run();
+                    }
+                });
+        }
+
+        @Override
+        public ServiceInstanceStore createEmpty() {
+            return new HookedServiceInstanceStore();
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.sap.broker.budgie.resources.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.BadRequestException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.sap.broker.budgie.configuration.behavior.FailConfiguration.OperationType;
+import com.sap.broker.budgie.domain.OperationStatesRequest;
+import com.sap.broker.budgie.helpers.AsyncOperation;
+import com.sap.broker.budgie.helpers.AsyncOperationExecutor;
+import com.sap.broker.budgie.helpers.AsyncOperationState;
+import com.sap.broker.budgie.helpers.BrokerClock;
+import com.sap.broker.budgie.impl.AsyncOperationEventBroadcaster;
+import com.sap.broker.budgie.impl.AsyncOperationManager;
+
+public class OperationsResourceTest {
+
+    private static final String CONFIG_ID = "config";
+
+    private final BrokerClock clock = new BrokerClock(1);
+    private final AsyncOperationExecutor asyncOperationExecutor = new AsyncOperationExecutor(1, 10, 64, clock);
+    private final AsyncOperationEventBroadcaster eventBroadcaster = new AsyncOperationEventBroadcaster(1, clock);
+    private final AsyncOperationManager asyncOperationManager = new AsyncOperationManager(TimeUnit.HOURS.toMillis(1), 10, 10,
+        eventBroadcaster, asyncOperationExecutor, clock);
+    private final Gson gson = new Gson();
+    private final OperationsResource resource = new OperationsResource(asyncOperationManager, eventBroadcaster, gson);
+
+    @AfterEach
+    public void tearDown() {
+        asyncOperationExecutor.shutdown();
+    }
+
+    @Test
+    public void testStatesOfInstancesAndBindingsAreReturned() throws IOException {
+        UUID instanceId = UUID.randomUUID();
+        UUID bindingId = UUID.randomUUID();
+        UUID unknownId = UUID.randomUUID();
+        addOperation(instanceId, null, false);
+        addOperation(instanceId, bindingId, true);
+
+        JsonObject response = getLastOperations(createRequest(Arrays.asList(instanceId, unknownId), Collections.singletonList(bindingId)));
+
+        assertEquals(2, response.size());
+        assertEquals("in progress", response.getAsJsonObject(instanceId.toString())
+            .get("state")
+            .getAsString());
+        assertEquals("succeeded", response.getAsJsonObject(bindingId.toString())
+            .get("state")
+            .getAsString());
+        assertFalse(response.has(unknownId.toString()));
+    }
+
+    @Test
+    public void testEmptyIdListsReturnEmptyObject() throws IOException {
+        addOperation(UUID.randomUUID(), null, false);
+
+        JsonObject response = getLastOperations(createRequest(Collections.emptyList(), null));
+
+        assertTrue(response.entrySet()
+            .isEmpty());
+    }
+
+    @Test
+    public void testInvalidRequestsAreRejected() {
+        assertThrows(BadRequestException.class, () -> resource.getLastOperations(CONFIG_ID, null));
+        assertThrows(BadRequestException.class, () -> resource.getLastOperations(CONFIG_ID, new OperationStatesRequest()));
+        assertThrows(BadRequestException.class,
+            () -> resource.getLastOperations(CONFIG_ID, createRequest(null, Arrays.asList(UUID.randomUUID(), null))));
+    }
+
+    private void addOperation(UUID instanceId, UUID bindingId, boolean completed) {
+        AsyncOperation asyncOperation = new AsyncOperation(CONFIG_ID, bindingId != null ? OperationType.BIND : OperationType.CREATE,
+            instanceId, bindingId, () -> new AsyncOperationState(AsyncOperationState.State.SUCCEEDED));
+        asyncOperationManager.addOperation(CONFIG_ID, asyncOperation.getId(), asyncOperation);
+        if (completed) {
+            asyncOperation.run();
+        }
+    }
+
+    private JsonObject getLastOperations(OperationStatesRequest request) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        resource.getLastOperations(CONFIG_ID, request)
+            .write(outputStream);
+        return gson.fromJson(new String(outputStream.toByteArray(), StandardCharsets.UTF_8), JsonObject.class);
+    }
+
+    private static OperationStatesRequest createRequest(List<UUID> instanceIds, List<UUID> bindingIds) {
+        OperationStatesRequest request = new OperationStatesRequest();
+        request.setInstanceIds(instanceIds);
+        request.setBindingIds(bindingIds);
+        return request;
+    }
+
+}